@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# 并发授权写入压测：在 seed.sql 数据集上让多个写者同时修改少量热点用户和角色，统计吞吐量与冲突情况
+#   写者随机执行：用户单个角色增删、角色单个权限增删、整体替换用户角色（乐观锁冲突时服务端自动重试）
+# 用法: docker/benchmark/concurrent-writers.sh [写者数=64] [每个写者的请求数=200] [热点用户数=16]
+# 环境变量: BASE_URL（默认 http://localhost:8080）
+set -euo pipefail
+
+WRITERS=${1:-64}
+REQUESTS=${2:-200}
+HOT_USERS=${3:-16}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+TENANT=bench
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+# 所有写者共用一个会话
+curl -sf -c "$WORK_DIR/cookies" -H "X-Tenant-Id: $TENANT" -H 'Content-Type: application/json' \
+	-d '{"username":"user1","password":"password"}' "$BASE_URL/api/auth/login" > /dev/null
+
+writer() {
+	local id=$1 i user role permission method
+	for ((i = 0; i < REQUESTS; i++)); do
+		user=$((RANDOM % HOT_USERS + 1))
+		role=$((RANDOM % 1000 + 1))
+		permission=$((RANDOM % 5000 + 1))
+		method=$([ $((RANDOM % 2)) -eq 0 ] && echo POST || echo DELETE)
+		case $((RANDOM % 10)) in
+			0)
+				curl -s -o /dev/null -w '%{http_code} %{time_total}\n' -b "$WORK_DIR/cookies" \
+					-H "X-Tenant-Id: $TENANT" -H 'Content-Type: application/json' -X PUT \
+					-d "[$role,$(((role + 7) % 1000 + 1)),$(((role + 13) % 1000 + 1))]" \
+					"$BASE_URL/api/users/$user/roles"
+				;;
+			1 | 2)
+				curl -s -o /dev/null -w '%{http_code} %{time_total}\n' -b "$WORK_DIR/cookies" \
+					-H "X-Tenant-Id: $TENANT" -X "$method" \
+					"$BASE_URL/api/roles/$(((user % 8) + 1))/permissions/$permission"
+				;;
+			*)
+				curl -s -o /dev/null -w '%{http_code} %{time_total}\n' -b "$WORK_DIR/cookies" \
+					-H "X-Tenant-Id: $TENANT" -X "$method" \
+					"$BASE_URL/api/users/$user/roles/$role"
+				;;
+		esac
+	done > "$WORK_DIR/writer-$id.log"
+}
+export -f writer
+export REQUESTS HOT_USERS BASE_URL TENANT WORK_DIR
+
+start=$(date +%s.%N)
+seq 1 "$WRITERS" | xargs -P "$WRITERS" -I{} bash -c 'writer {}'
+end=$(date +%s.%N)
+
+# 409 表示重试次数用完仍冲突，服务端每次冲突计入指标 rbac.authority.update.conflicts
+cat "$WORK_DIR"/writer-*.log | sort -k2,2n | awk -v elapsed="$(echo "$end - $start" | bc)" '
+	{ codes[$1]++; latency[NR] = $2 }
+	END {
+		printf "请求数: %d，耗时: %.2fs，吞吐量: %.1f req/s\n", NR, elapsed, NR / elapsed
+		printf "延迟 p50: %.1fms，p99: %.1fms\n", latency[int(NR * 0.5) + 1] * 1000, latency[int(NR * 0.99) + 1] * 1000
+		for (code in codes) printf "HTTP %s: %d\n", code, codes[code]
+	}'
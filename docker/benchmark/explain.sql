@@ -0,0 +1,32 @@
+-- 在 seed.sql 数据集上验证查询计划
+-- 用法: mysql -urbac_user -prbac_password rbac_demo < docker/benchmark/explain.sql
+
+-- 持有某角色的用户：期望 key=idx_user_roles_role_user，Extra 含 Using index（覆盖索引，无回表）
+EXPLAIN FORMAT=TREE
+SELECT ur.user_id FROM user_roles ur WHERE ur.role_id = 42;
+
+-- 包含某权限的角色：期望 key=idx_role_permissions_permission_role，Using index
+EXPLAIN FORMAT=TREE
+SELECT rp.role_id FROM role_permissions rp WHERE rp.permission_id = 4242;
+
+-- 拥有某权限的用户（物化表）：期望 key=idx_uep_permission_user，Using index，单次范围扫描
+EXPLAIN FORMAT=TREE
+SELECT uep.user_id FROM user_effective_permissions uep WHERE uep.permission_id = 4242;
+
+-- 同一问题不走物化表时需要两次关联，用于对比行数估算
+EXPLAIN FORMAT=TREE
+SELECT DISTINCT ur.user_id
+FROM role_permissions rp
+JOIN user_roles ur ON ur.role_id = rp.role_id
+WHERE rp.permission_id = 4242;
+
+-- 单用户权限检查：期望走主键 (user_id, permission_id) 的常量查找
+EXPLAIN FORMAT=TREE
+SELECT 1 FROM user_effective_permissions uep WHERE uep.user_id = 4242 AND uep.permission_id = 17;
+
+-- 分配权限后重建角色持有者的有效权限（RoleServiceImpl.assignPermissionsToRole）
+EXPLAIN FORMAT=TREE
+SELECT DISTINCT ur.user_id, rp.permission_id
+FROM user_roles ur
+JOIN role_permissions rp ON rp.role_id = ur.role_id
+WHERE ur.user_id IN (SELECT holder.user_id FROM user_roles holder WHERE holder.role_id = 42);
@@ -0,0 +1,42 @@
+-- 基准数据集（MySQL 8）：在已执行 Flyway 迁移的空库上运行
+--   1 个租户、100,000 用户、1,000 角色、5,000 权限
+--   每个用户 3 个角色（约 300,000 行 user_roles），每个角色 20 个权限（20,000 行 role_permissions）
+-- 用法: mysql -urbac_user -prbac_password rbac_demo < docker/benchmark/seed.sql
+
+SET SESSION cte_max_recursion_depth = 1000000;
+
+INSERT INTO permissions (id, tenant_id, name)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 5000)
+SELECT n, 'bench', CONCAT('PERM_', n) FROM seq;
+
+INSERT INTO roles (id, tenant_id, name)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)
+SELECT n, 'bench', CONCAT('ROLE_', n) FROM seq;
+
+-- 密码为 BCrypt("password")
+INSERT INTO users (id, tenant_id, username, email, password)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 100000)
+SELECT n, 'bench', CONCAT('user', n), CONCAT('user', n, '@bench.local'),
+       '$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG'
+FROM seq;
+
+-- 三个角色相对用户ID分别偏移 0、337、674，对 1000 取模后互不相同，不会产生重复的 (user_id, role_id)
+INSERT INTO user_roles (user_id, role_id)
+SELECT u.id, ((u.id + k.k * 337) % 1000) + 1
+FROM users u
+CROSS JOIN (SELECT 0 AS k UNION ALL SELECT 1 UNION ALL SELECT 2) k
+WHERE u.tenant_id = 'bench';
+
+INSERT INTO role_permissions (role_id, permission_id)
+WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < 19)
+SELECT r.id, ((r.id * 37 + seq.n * 251) % 5000) + 1
+FROM roles r
+CROSS JOIN seq
+WHERE r.tenant_id = 'bench';
+
+INSERT INTO user_effective_permissions (user_id, permission_id)
+SELECT DISTINCT ur.user_id, rp.permission_id
+FROM user_roles ur
+JOIN role_permissions rp ON rp.role_id = ur.role_id;
+
+ANALYZE TABLE users, roles, permissions, user_roles, role_permissions, user_effective_permissions;
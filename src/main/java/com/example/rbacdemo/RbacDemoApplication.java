@@ -2,14 +2,24 @@ package com.example.rbacdemo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableWebSecurity
 public class RbacDemoApplication {
 
+	/**
+	 * 启动阶段记录的最大步骤数，供 /actuator/startup 和启动耗时报告使用
+	 */
+	private static final int STARTUP_STEP_CAPACITY = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(RbacDemoApplication.class, args);
+		SpringApplication application = new SpringApplication(RbacDemoApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+		application.run(args);
 	}
 
 }
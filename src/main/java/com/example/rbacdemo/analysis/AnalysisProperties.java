@@ -0,0 +1,37 @@
+package com.example.rbacdemo.analysis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.analysis")
+public class AnalysisProperties {
+
+	/**
+	 * 分析使用的 fork/join 并行度
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 报告中每类结果列出的样本数
+	 */
+	private int sampleSize = 20;
+
+	/**
+	 * 影响模拟请求可指定的最大样本数，超出时按上限返回
+	 */
+	private int maxSampleSize = 200;
+
+	/**
+	 * 是否在启动后后台构建影响模拟所用的授权矩阵；关闭时由第一次模拟请求触发后台构建，构建完成前返回 503
+	 */
+	private boolean matrixPreload = true;
+
+	/**
+	 * 授权矩阵的检查间隔，授权版本变化后重新加载
+	 */
+	private Duration matrixRefreshInterval = Duration.ofMinutes(1);
+
+}
@@ -0,0 +1,59 @@
+package com.example.rbacdemo.analysis;
+
+import com.example.rbacdemo.snapshot.RbacModel;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 常驻内存的授权矩阵：授权模型，加上每个角色的权限位图和角色→持有用户的反向 CSR 数组。构建后不可变，可在多线程间共享。
+ */
+@Getter
+final class AuthorizationMatrix {
+
+	private final RbacModel model;
+
+	private final PermissionBits[] roleBits;
+
+	/**
+	 * 第 r 个角色的持有用户序号位于 {@code holders[holderOffsets[r]] .. holders[holderOffsets[r + 1] - 1]}，升序
+	 */
+	private final int[] holderOffsets;
+
+	private final int[] holders;
+
+	private AuthorizationMatrix(RbacModel model, PermissionBits[] roleBits, int[] holderOffsets, int[] holders) {
+		this.model = model;
+		this.roleBits = roleBits;
+		this.holderOffsets = holderOffsets;
+		this.holders = holders;
+	}
+
+	static AuthorizationMatrix build(RbacModel model, ForkJoinPool pool) {
+		int[] rolePermissionOffsets = model.getRolePermissionOffsets();
+		int[] rolePermissions = model.getRolePermissions();
+		PermissionBits[] roleBits = new PermissionBits[model.roleCount()];
+		ParallelRange.forEach(pool, roleBits.length, role -> roleBits[role] = PermissionBits.of(
+				Arrays.copyOfRange(rolePermissions, rolePermissionOffsets[role], rolePermissionOffsets[role + 1])));
+
+		int[] userRoleOffsets = model.getUserRoleOffsets();
+		int[] userRoles = model.getUserRoles();
+		int[] holderOffsets = new int[model.roleCount() + 1];
+		for (int role : userRoles) {
+			holderOffsets[role + 1]++;
+		}
+		for (int role = 0; role < model.roleCount(); role++) {
+			holderOffsets[role + 1] += holderOffsets[role];
+		}
+		int[] holders = new int[userRoles.length];
+		int[] cursor = Arrays.copyOf(holderOffsets, model.roleCount());
+		for (int user = 0; user < model.userCount(); user++) {
+			for (int i = userRoleOffsets[user]; i < userRoleOffsets[user + 1]; i++) {
+				holders[cursor[userRoles[i]]++] = user;
+			}
+		}
+		return new AuthorizationMatrix(model, roleBits, holderOffsets, holders);
+	}
+
+}
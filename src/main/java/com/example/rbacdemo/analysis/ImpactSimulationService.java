@@ -0,0 +1,136 @@
+package com.example.rbacdemo.analysis;
+
+import com.example.rbacdemo.dto.ImpactSimulationRequest;
+import com.example.rbacdemo.dto.ImpactSimulationResponse;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.snapshot.RbacModelLoader;
+import com.example.rbacdemo.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 授权变更影响模拟。
+ * <p>
+ * 授权矩阵在启动后由后台线程从数据库流式读取完整授权模型构建，构建完成前模拟请求直接返回 503，
+ * 不在请求线程中加载；之后授权版本变化时在后台重新加载。批量读取不经过认证路径共用的熔断器，
+ * 也不带认证查询的超时，慢或失败只影响本次构建，保留上一版矩阵。
+ * 模拟本身只读内存，不访问也不修改数据库。响应中带有矩阵的版本号和读取时间。
+ */
+@Slf4j
+@Service
+public class ImpactSimulationService {
+
+	private final RbacModelLoader modelLoader;
+
+	private final AuthorityCatalogService authorityCatalogService;
+
+	private final AnalysisProperties properties;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * 同一时间只有一个线程构建矩阵
+	 */
+	private final AtomicBoolean loading = new AtomicBoolean();
+
+	private volatile boolean attempted;
+
+	private volatile AuthorizationMatrix matrix;
+
+	public ImpactSimulationService(RbacModelLoader modelLoader, AuthorityCatalogService authorityCatalogService,
+			AnalysisProperties properties) {
+		this.modelLoader = modelLoader;
+		this.authorityCatalogService = authorityCatalogService;
+		this.properties = properties;
+		this.pool = new ForkJoinPool(properties.getParallelism());
+	}
+
+	/**
+	 * 模拟当前租户下的一组授权变更
+	 * @param request 拟议的变更
+	 * @return 影响范围，授权矩阵尚未构建完成时返回 null
+	 */
+	public ImpactSimulationResponse simulate(ImpactSimulationRequest request) {
+		AuthorizationMatrix current = matrix;
+		if (current == null) {
+			if (!properties.isMatrixPreload()) {
+				loadInBackground();
+			}
+			return null;
+		}
+		int sampleSize = request.getSampleSize() != null ? request.getSampleSize() : properties.getSampleSize();
+		sampleSize = Math.max(0, Math.min(sampleSize, properties.getMaxSampleSize()));
+		return new ImpactSimulator(current, pool, TenantContext.getTenantId(), sampleSize).simulate(request);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void preload() {
+		if (properties.isMatrixPreload()) {
+			loadInBackground();
+		}
+	}
+
+	/**
+	 * 授权版本变化后重新加载矩阵，期间模拟继续使用旧矩阵；启动时构建失败的也在这里重试。
+	 * 调度线程只比较版本号，重建交给后台线程，不占用共用的调度线程池
+	 */
+	@Scheduled(fixedDelayString = "${app.analysis.matrix-refresh-interval:1m}")
+	public void refresh() {
+		AuthorizationMatrix current = matrix;
+		if (current == null) {
+			// 第一次构建由启动后的预加载发起，之后失败的在这里重试
+			if (properties.isMatrixPreload() && attempted) {
+				loadInBackground();
+			}
+			return;
+		}
+		if (current.getModel().getAuthorityVersion() != authorityCatalogService.modelVersion()) {
+			loadInBackground();
+		}
+	}
+
+	private void loadInBackground() {
+		if (!loading.get()) {
+			Thread.ofPlatform().name("authorization-matrix").daemon().start(this::load);
+		}
+	}
+
+	private void load() {
+		if (!loading.compareAndSet(false, true)) {
+			return;
+		}
+		attempted = true;
+		AuthorizationMatrix current = matrix;
+		try {
+			long start = System.currentTimeMillis();
+			AuthorizationMatrix next = AuthorizationMatrix.build(modelLoader.load(), pool);
+			matrix = next;
+			log.info("授权矩阵已构建: 版本 {}，耗时 {}ms", next.getModel().getAuthorityVersion(),
+					System.currentTimeMillis() - start);
+		}
+		catch (RuntimeException ex) {
+			if (current == null) {
+				log.warn("授权矩阵构建失败，影响模拟暂不可用", ex);
+			}
+			else {
+				log.warn("授权矩阵刷新失败，继续使用版本 {}", current.getModel().getAuthorityVersion(), ex);
+			}
+		}
+		finally {
+			loading.set(false);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		pool.shutdown();
+	}
+
+}
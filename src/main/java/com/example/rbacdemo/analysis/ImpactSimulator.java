@@ -0,0 +1,350 @@
+package com.example.rbacdemo.analysis;
+
+import com.example.rbacdemo.dto.ImpactSimulationRequest;
+import com.example.rbacdemo.dto.ImpactSimulationResponse;
+import com.example.rbacdemo.snapshot.RbacModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 在授权矩阵上模拟一组角色权限、用户角色变更，只读内存数据，不访问数据库。
+ * <p>
+ * 候选用户是被修改角色的持有者和被直接修改角色的用户；每个候选用户只检查可能变化的权限（被修改角色增删的权限、
+ * 用户增删角色包含的权限），分别按变更前后的角色集合判断是否拥有。候选用户按下标区间在 fork/join 线程池中并行处理。
+ */
+final class ImpactSimulator {
+
+	private static final byte GAINED = 1;
+
+	private static final byte LOST = 2;
+
+	private final AuthorizationMatrix matrix;
+
+	private final RbacModel model;
+
+	private final ForkJoinPool pool;
+
+	private final String tenantId;
+
+	private final int sampleSize;
+
+	/**
+	 * 修改后的角色权限位图，未修改的角色为 null
+	 */
+	private final PermissionBits[] changedBits;
+
+	/**
+	 * 被修改角色实际增删的权限序号
+	 */
+	private final Map<Integer, int[]> roleDeltas = new HashMap<>();
+
+	private final Map<Integer, Set<Integer>> addedRoles = new HashMap<>();
+
+	private final Map<Integer, Set<Integer>> removedRoles = new HashMap<>();
+
+	/**
+	 * 可能变化的权限在计数数组中的槽位，不可能变化的为 -1
+	 */
+	private final int[] slotOf;
+
+	private final List<Integer> slotPermissions = new ArrayList<>();
+
+	ImpactSimulator(AuthorizationMatrix matrix, ForkJoinPool pool, String tenantId, int sampleSize) {
+		this.matrix = matrix;
+		this.model = matrix.getModel();
+		this.pool = pool;
+		this.tenantId = tenantId;
+		this.sampleSize = sampleSize;
+		this.changedBits = new PermissionBits[model.roleCount()];
+		this.slotOf = new int[model.permissionCount()];
+		Arrays.fill(slotOf, -1);
+	}
+
+	ImpactSimulationResponse simulate(ImpactSimulationRequest request) {
+		long start = System.currentTimeMillis();
+		applyRoleChanges(request.getRoleChanges());
+		applyUserChanges(request.getUserChanges());
+		int[] candidates = candidateUsers();
+
+		LongAdder[] gainedBy = new LongAdder[slotPermissions.size()];
+		LongAdder[] lostBy = new LongAdder[slotPermissions.size()];
+		for (int slot = 0; slot < gainedBy.length; slot++) {
+			gainedBy[slot] = new LongAdder();
+			lostBy[slot] = new LongAdder();
+		}
+		byte[] changes = new byte[candidates.length];
+		ParallelRange.forEach(pool, candidates.length, k -> {
+			int user = candidates[k];
+			int[] before = model.rolesOf(user);
+			int[] after = rolesAfter(user, before);
+			byte change = 0;
+			for (int permission : candidatePermissions(user, before, after)) {
+				boolean had = hasPermission(before, permission, false);
+				if (had == hasPermission(after, permission, true)) {
+					continue;
+				}
+				(had ? lostBy : gainedBy)[slotOf[permission]].increment();
+				change |= had ? LOST : GAINED;
+			}
+			changes[k] = change;
+		});
+
+		int affected = 0;
+		int gaining = 0;
+		int losing = 0;
+		List<ImpactSimulationResponse.AffectedUser> samples = new ArrayList<>();
+		for (int k = 0; k < candidates.length; k++) {
+			if (changes[k] == 0) {
+				continue;
+			}
+			gaining += (changes[k] & GAINED) != 0 ? 1 : 0;
+			losing += (changes[k] & LOST) != 0 ? 1 : 0;
+			if (affected++ < sampleSize) {
+				samples.add(describe(candidates[k]));
+			}
+		}
+
+		List<ImpactSimulationResponse.PermissionImpact> impacts = new ArrayList<>();
+		for (int slot = 0; slot < slotPermissions.size(); slot++) {
+			int gained = gainedBy[slot].intValue();
+			int lost = lostBy[slot].intValue();
+			if (gained + lost > 0) {
+				int permission = slotPermissions.get(slot);
+				impacts.add(ImpactSimulationResponse.PermissionImpact.builder()
+					.permissionId(model.getPermissionIds()[permission])
+					.permission(permissionLabel(permission))
+					.gainedBy(gained)
+					.lostBy(lost)
+					.build());
+			}
+		}
+		impacts.sort(Comparator.comparingInt(
+				(ImpactSimulationResponse.PermissionImpact impact) -> -(impact.getGainedBy() + impact.getLostBy())));
+
+		return ImpactSimulationResponse.builder()
+			.authorityVersion(model.getAuthorityVersion())
+			.modelReadAt(new Date(model.getReadAt()))
+			.candidateUserCount(candidates.length)
+			.affectedUserCount(affected)
+			.usersGaining(gaining)
+			.usersLosing(losing)
+			.sampleUsers(samples)
+			.permissionImpacts(impacts)
+			.durationMillis(System.currentTimeMillis() - start)
+			.build();
+	}
+
+	private void applyRoleChanges(List<ImpactSimulationRequest.RoleChange> roleChanges) {
+		if (roleChanges == null) {
+			return;
+		}
+		Map<Integer, TreeSet<Integer>> afterSets = new HashMap<>();
+		for (ImpactSimulationRequest.RoleChange change : roleChanges) {
+			int role = role(change.getRoleId());
+			TreeSet<Integer> permissions = afterSets.computeIfAbsent(role,
+					key -> new TreeSet<>(Arrays.stream(model.permissionsOf(key)).boxed().toList()));
+			forEach(change.getAddPermissionIds(), id -> permissions.add(permission(id)));
+			forEach(change.getRemovePermissionIds(), id -> permissions.remove(permission(id)));
+		}
+		afterSets.forEach((role, permissions) -> {
+			Set<Integer> before = new HashSet<>(Arrays.stream(model.permissionsOf(role)).boxed().toList());
+			Set<Integer> delta = new TreeSet<>(permissions);
+			delta.removeAll(before);
+			before.removeAll(permissions);
+			delta.addAll(before);
+			if (delta.isEmpty()) {
+				return;
+			}
+			changedBits[role] = PermissionBits.of(permissions.stream().mapToInt(Integer::intValue).toArray());
+			roleDeltas.put(role, delta.stream().mapToInt(Integer::intValue).toArray());
+			delta.forEach(this::slot);
+		});
+	}
+
+	private void applyUserChanges(List<ImpactSimulationRequest.UserChange> userChanges) {
+		if (userChanges == null) {
+			return;
+		}
+		for (ImpactSimulationRequest.UserChange change : userChanges) {
+			int user = user(change.getUserId());
+			Set<Integer> added = addedRoles.computeIfAbsent(user, key -> new HashSet<>());
+			Set<Integer> removed = removedRoles.computeIfAbsent(user, key -> new HashSet<>());
+			forEach(change.getAddRoleIds(), id -> {
+				int role = role(id);
+				added.add(role);
+				removed.remove(role);
+			});
+			forEach(change.getRemoveRoleIds(), id -> {
+				int role = role(id);
+				removed.add(role);
+				added.remove(role);
+			});
+			for (Set<Integer> roles : List.of(added, removed)) {
+				for (int role : roles) {
+					for (int permission : model.permissionsOf(role)) {
+						slot(permission);
+					}
+				}
+			}
+		}
+	}
+
+	private int[] candidateUsers() {
+		boolean[] marked = new boolean[model.userCount()];
+		int[] holderOffsets = matrix.getHolderOffsets();
+		int[] holders = matrix.getHolders();
+		for (int role : roleDeltas.keySet()) {
+			for (int i = holderOffsets[role]; i < holderOffsets[role + 1]; i++) {
+				marked[holders[i]] = true;
+			}
+		}
+		addedRoles.keySet().forEach(user -> marked[user] = true);
+		int count = 0;
+		for (boolean mark : marked) {
+			count += mark ? 1 : 0;
+		}
+		int[] candidates = new int[count];
+		for (int user = 0, k = 0; user < marked.length; user++) {
+			if (marked[user]) {
+				candidates[k++] = user;
+			}
+		}
+		return candidates;
+	}
+
+	private int[] rolesAfter(int user, int[] before) {
+		Set<Integer> added = addedRoles.get(user);
+		if (added == null) {
+			return before;
+		}
+		Set<Integer> removed = removedRoles.get(user);
+		Set<Integer> after = new TreeSet<>();
+		for (int role : before) {
+			if (!removed.contains(role)) {
+				after.add(role);
+			}
+		}
+		after.addAll(added);
+		return after.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * 用户可能变化的权限：所持角色（变更前后）被增删的权限，以及用户增删的角色包含的权限
+	 */
+	private int[] candidatePermissions(int user, int[] before, int[] after) {
+		int[] buffer = new int[16];
+		int size = 0;
+		for (int[] roles : new int[][] { before, after }) {
+			for (int role : roles) {
+				int[] delta = roleDeltas.get(role);
+				if (delta != null) {
+					buffer = ensureCapacity(buffer, size + delta.length);
+					System.arraycopy(delta, 0, buffer, size, delta.length);
+					size += delta.length;
+				}
+			}
+		}
+		if (addedRoles.containsKey(user)) {
+			for (Set<Integer> roles : List.of(addedRoles.get(user), removedRoles.get(user))) {
+				for (int role : roles) {
+					int[] permissions = model.permissionsOf(role);
+					buffer = ensureCapacity(buffer, size + permissions.length);
+					System.arraycopy(permissions, 0, buffer, size, permissions.length);
+					size += permissions.length;
+				}
+			}
+		}
+		return Arrays.stream(buffer, 0, size).sorted().distinct().toArray();
+	}
+
+	private boolean hasPermission(int[] roles, int permission, boolean after) {
+		PermissionBits[] roleBits = matrix.getRoleBits();
+		for (int role : roles) {
+			PermissionBits bits = after && changedBits[role] != null ? changedBits[role] : roleBits[role];
+			if (bits.contains(permission)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private ImpactSimulationResponse.AffectedUser describe(int user) {
+		int[] before = model.rolesOf(user);
+		int[] after = rolesAfter(user, before);
+		List<String> gained = new ArrayList<>();
+		List<String> lost = new ArrayList<>();
+		for (int permission : candidatePermissions(user, before, after)) {
+			boolean had = hasPermission(before, permission, false);
+			if (had != hasPermission(after, permission, true)) {
+				(had ? lost : gained).add(permissionLabel(permission));
+			}
+		}
+		return ImpactSimulationResponse.AffectedUser.builder()
+			.userId(model.getUserIds()[user])
+			.username(model.getUsernames()[user])
+			.gained(gained)
+			.lost(lost)
+			.build();
+	}
+
+	private void slot(int permission) {
+		if (slotOf[permission] < 0) {
+			slotOf[permission] = slotPermissions.size();
+			slotPermissions.add(permission);
+		}
+	}
+
+	private int role(Long roleId) {
+		int role = roleId == null ? -1 : model.roleIndex(roleId);
+		if (role < 0 || !tenantId.equals(model.getRoleTenants()[role])) {
+			throw new RuntimeException("角色不存在: ID=" + roleId);
+		}
+		return role;
+	}
+
+	private int user(Long userId) {
+		int user = userId == null ? -1 : model.userIndex(userId);
+		if (user < 0 || !tenantId.equals(model.getUserTenants()[user])) {
+			throw new RuntimeException("用户不存在: ID=" + userId);
+		}
+		return user;
+	}
+
+	private int permission(Long permissionId) {
+		int permission = permissionId == null ? -1 : model.permissionIndex(permissionId);
+		if (permission < 0 || !tenantId.equals(model.getPermissionTenants()[permission])) {
+			throw new RuntimeException("权限不存在: ID=" + permissionId);
+		}
+		return permission;
+	}
+
+	private String permissionLabel(int permission) {
+		String name = model.getPermissionNames()[permission];
+		String resourceType = model.getResourceTypes()[permission];
+		return resourceType == null ? name
+				: name + " (" + resourceType + ":" + model.getResourcePatterns()[permission] + ")";
+	}
+
+	private static void forEach(List<Long> ids, Consumer<Long> action) {
+		if (ids != null) {
+			ids.forEach(action);
+		}
+	}
+
+	private static int[] ensureCapacity(int[] buffer, int capacity) {
+		return capacity <= buffer.length ? buffer : Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+	}
+
+}
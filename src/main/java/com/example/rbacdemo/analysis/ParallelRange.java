@@ -0,0 +1,42 @@
+package com.example.rbacdemo.analysis;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * 把 [0, size) 二分拆成小段交给 fork/join 线程池并行处理，每个下标只处理一次
+ */
+final class ParallelRange extends RecursiveAction {
+
+	private static final int THRESHOLD = 256;
+
+	private final int from;
+
+	private final int to;
+
+	private final IntConsumer body;
+
+	private ParallelRange(int from, int to, IntConsumer body) {
+		this.from = from;
+		this.to = to;
+		this.body = body;
+	}
+
+	static void forEach(ForkJoinPool pool, int size, IntConsumer body) {
+		pool.invoke(new ParallelRange(0, size, body));
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from <= THRESHOLD) {
+			for (int i = from; i < to; i++) {
+				body.accept(i);
+			}
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		invokeAll(new ParallelRange(from, middle, body), new ParallelRange(middle, to, body));
+	}
+
+}
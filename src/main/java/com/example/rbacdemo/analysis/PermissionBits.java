@@ -0,0 +1,92 @@
+package com.example.rbacdemo.analysis;
+
+import java.util.Arrays;
+
+/**
+ * 角色权限集合的位图，下标为权限在 {@link com.example.rbacdemo.snapshot.RbacModel} 中的序号。
+ * <p>
+ * 只保存从最小到最大权限所在的字，同一租户的权限ID通常连续，十万级权限的模型里单个角色也只占几个字；
+ * 附带一个 64 位签名（每个权限散列到一位），包含关系判断前先比签名，绝大多数不相关的角色一次位运算即可排除。
+ */
+public final class PermissionBits {
+
+	public static final PermissionBits EMPTY = new PermissionBits(0, new long[0], 0, 0);
+
+	private final int baseWord;
+
+	private final long[] words;
+
+	private final int cardinality;
+
+	private final long signature;
+
+	private PermissionBits(int baseWord, long[] words, int cardinality, long signature) {
+		this.baseWord = baseWord;
+		this.words = words;
+		this.cardinality = cardinality;
+		this.signature = signature;
+	}
+
+	/**
+	 * @param members 升序、不重复的权限序号
+	 */
+	public static PermissionBits of(int[] members) {
+		if (members.length == 0) {
+			return EMPTY;
+		}
+		int baseWord = members[0] >>> 6;
+		long[] words = new long[(members[members.length - 1] >>> 6) - baseWord + 1];
+		long signature = 0;
+		for (int member : members) {
+			words[(member >>> 6) - baseWord] |= 1L << member;
+			signature |= 1L << ((member * 0x9E3779B9) >>> 26);
+		}
+		return new PermissionBits(baseWord, words, members.length, signature);
+	}
+
+	public int cardinality() {
+		return cardinality;
+	}
+
+	public boolean contains(int member) {
+		int word = (member >>> 6) - baseWord;
+		return word >= 0 && word < words.length && (words[word] & (1L << member)) != 0;
+	}
+
+	/**
+	 * @return other 是否为本集合的子集（含相等）
+	 */
+	public boolean containsAll(PermissionBits other) {
+		if (other.cardinality > cardinality || (other.signature & ~signature) != 0) {
+			return false;
+		}
+		for (int i = 0; i < other.words.length; i++) {
+			long word = other.words[i];
+			if (word == 0) {
+				continue;
+			}
+			int j = other.baseWord + i - baseWord;
+			if (j < 0 || j >= words.length || (word & ~words[j]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof PermissionBits other)) {
+			return false;
+		}
+		return cardinality == other.cardinality && baseWord == other.baseWord && Arrays.equals(words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * baseWord + Arrays.hashCode(words);
+	}
+
+}
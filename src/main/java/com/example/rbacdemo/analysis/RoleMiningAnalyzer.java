@@ -0,0 +1,351 @@
+package com.example.rbacdemo.analysis;
+
+import com.example.rbacdemo.dto.RoleMiningReport;
+import com.example.rbacdemo.snapshot.RbacModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * 基于位图的角色冗余分析，角色只与同租户的角色比较。
+ * <ol>
+ * <li>相同角色：权限集合完全相同的角色归为一组，保留组内ID最小的角色</li>
+ * <li>子集角色：保留角色按权限数排序，只在权限数更多的角色中找超集，先比签名再逐字比较位图</li>
+ * <li>无用权限：不属于任何角色，或只属于无人持有的角色</li>
+ * <li>冗余分配：用户持有的某个角色被他持有的另一个角色覆盖（权限集合相同时保留序号小的）</li>
+ * <li>合并建议：去掉冗余分配后，仍有人持有的保留角色构成建议的角色集合，其余角色可以删除</li>
+ * </ol>
+ * 耗时的子集查找和逐用户检查在 fork/join 线程池中按下标区间并行，各下标只写自己的结果槽位。
+ */
+final class RoleMiningAnalyzer {
+
+	private static final int SUPERSET_SAMPLES = 5;
+
+	private final RbacModel model;
+
+	private final ForkJoinPool pool;
+
+	private final int sampleSize;
+
+	private final int roleCount;
+
+	private final PermissionBits[] bits;
+
+	/**
+	 * 角色包含的全局权限数，即加入认证信息的权限条目数
+	 */
+	private final int[] globalCounts;
+
+	/**
+	 * 角色持有人数
+	 */
+	private final int[] holderCounts;
+
+	/**
+	 * 权限集合相同的角色映射到组内序号最小的角色
+	 */
+	private final int[] canonical;
+
+	RoleMiningAnalyzer(RbacModel model, ForkJoinPool pool, int sampleSize) {
+		this.model = model;
+		this.pool = pool;
+		this.sampleSize = sampleSize;
+		this.roleCount = model.roleCount();
+		this.bits = new PermissionBits[roleCount];
+		this.globalCounts = new int[roleCount];
+		this.holderCounts = new int[roleCount];
+		this.canonical = new int[roleCount];
+	}
+
+	RoleMiningReport analyze() {
+		long start = System.currentTimeMillis();
+		buildBits();
+		RoleMiningReport.RoleMiningReportBuilder report = RoleMiningReport.builder()
+			.authorityVersion(model.getAuthorityVersion())
+			.analyzedAt(new Date())
+			.userCount(model.userCount())
+			.roleCount(roleCount)
+			.permissionCount(model.permissionCount());
+		findIdenticalRoles(report);
+		findSubsetRoles(report);
+		findUnusedPermissions(report);
+		findRedundantAssignments(report);
+		return report.durationMillis(System.currentTimeMillis() - start).build();
+	}
+
+	private void buildBits() {
+		int[] offsets = model.getRolePermissionOffsets();
+		int[] permissions = model.getRolePermissions();
+		String[] resourceTypes = model.getResourceTypes();
+		ParallelRange.forEach(pool, roleCount, role -> {
+			int[] members = Arrays.copyOfRange(permissions, offsets[role], offsets[role + 1]);
+			bits[role] = PermissionBits.of(members);
+			int global = 0;
+			for (int permission : members) {
+				if (resourceTypes[permission] == null) {
+					global++;
+				}
+			}
+			globalCounts[role] = global;
+		});
+		for (int role : model.getUserRoles()) {
+			holderCounts[role]++;
+		}
+	}
+
+	private void findIdenticalRoles(RoleMiningReport.RoleMiningReportBuilder report) {
+		String[] tenants = model.getRoleTenants();
+		Map<String, Map<PermissionBits, Integer>> firstByTenant = new HashMap<>();
+		Map<Integer, List<Long>> duplicates = new LinkedHashMap<>();
+		for (int role = 0; role < roleCount; role++) {
+			Integer first = firstByTenant.computeIfAbsent(tenants[role], tenant -> new HashMap<>())
+				.putIfAbsent(bits[role], role);
+			canonical[role] = first == null ? role : first;
+			if (first != null) {
+				duplicates.computeIfAbsent(first, key -> new ArrayList<>()).add(model.getRoleIds()[role]);
+			}
+		}
+
+		List<RoleMiningReport.RoleGroup> groups = duplicates.entrySet()
+			.stream()
+			.sorted(Comparator.comparingInt((Map.Entry<Integer, List<Long>> entry) -> entry.getValue().size())
+				.reversed())
+			.limit(sampleSize)
+			.map(entry -> RoleMiningReport.RoleGroup.builder()
+				.tenantId(tenants[entry.getKey()])
+				.roleId(model.getRoleIds()[entry.getKey()])
+				.roleName(model.getRoleNames()[entry.getKey()])
+				.permissionCount(bits[entry.getKey()].cardinality())
+				.duplicateRoleIds(entry.getValue())
+				.build())
+			.toList();
+		report.identicalGroupCount(duplicates.size())
+			.duplicateRoleCount(duplicates.values().stream().mapToInt(List::size).sum())
+			.identicalGroups(groups);
+	}
+
+	private void findSubsetRoles(RoleMiningReport.RoleMiningReportBuilder report) {
+		// 每个租户的保留角色按权限数升序排列，超集只可能出现在权限数更多的位置
+		String[] tenants = model.getRoleTenants();
+		Map<String, List<Integer>> byTenant = new HashMap<>();
+		for (int role = 0; role < roleCount; role++) {
+			if (canonical[role] == role) {
+				byTenant.computeIfAbsent(tenants[role], tenant -> new ArrayList<>()).add(role);
+			}
+		}
+		Map<String, int[]> sortedRoles = new HashMap<>();
+		Map<String, int[]> sortedCardinalities = new HashMap<>();
+		byTenant.forEach((tenant, roles) -> {
+			int[] sorted = roles.stream()
+				.sorted(Comparator.comparingInt(role -> bits[role].cardinality()))
+				.mapToInt(Integer::intValue)
+				.toArray();
+			sortedRoles.put(tenant, sorted);
+			sortedCardinalities.put(tenant, Arrays.stream(sorted).map(role -> bits[role].cardinality()).toArray());
+		});
+
+		long[] roleIds = model.getRoleIds();
+		int[] supersetCounts = new int[roleCount];
+		long[][] supersetSamples = new long[roleCount][];
+		ParallelRange.forEach(pool, roleCount, role -> {
+			if (canonical[role] != role) {
+				return;
+			}
+			int[] candidates = sortedRoles.get(tenants[role]);
+			int from = firstGreater(sortedCardinalities.get(tenants[role]), bits[role].cardinality());
+			int count = 0;
+			long[] samples = new long[SUPERSET_SAMPLES];
+			for (int i = from; i < candidates.length; i++) {
+				int other = candidates[i];
+				if (bits[other].containsAll(bits[role])) {
+					if (count < SUPERSET_SAMPLES) {
+						samples[count] = roleIds[other];
+					}
+					count++;
+				}
+			}
+			supersetCounts[role] = count;
+			if (count > 0) {
+				supersetSamples[role] = Arrays.copyOf(samples, Math.min(count, SUPERSET_SAMPLES));
+			}
+		});
+
+		List<RoleMiningReport.SubsetRole> subsets = IntStream.range(0, roleCount)
+			.filter(role -> supersetCounts[role] > 0)
+			.boxed()
+			.sorted(Comparator.comparingInt((Integer role) -> supersetCounts[role]).reversed())
+			.limit(sampleSize)
+			.map(role -> RoleMiningReport.SubsetRole.builder()
+				.tenantId(tenants[role])
+				.roleId(roleIds[role])
+				.roleName(model.getRoleNames()[role])
+				.permissionCount(bits[role].cardinality())
+				.supersetCount(supersetCounts[role])
+				.supersetRoleIds(Arrays.stream(supersetSamples[role]).boxed().toList())
+				.build())
+			.toList();
+		report.subsetRoleCount((int) Arrays.stream(supersetCounts).filter(count -> count > 0).count())
+			.subsetRoles(subsets);
+	}
+
+	private void findUnusedPermissions(RoleMiningReport.RoleMiningReportBuilder report) {
+		int permissionCount = model.permissionCount();
+		int[] offsets = model.getRolePermissionOffsets();
+		int[] permissions = model.getRolePermissions();
+		boolean[] inRole = new boolean[permissionCount];
+		boolean[] reachable = new boolean[permissionCount];
+		int unheldRoles = 0;
+		for (int role = 0; role < roleCount; role++) {
+			boolean held = holderCounts[role] > 0;
+			unheldRoles += held ? 0 : 1;
+			for (int i = offsets[role]; i < offsets[role + 1]; i++) {
+				inRole[permissions[i]] = true;
+				reachable[permissions[i]] |= held;
+			}
+		}
+
+		List<String> unused = new ArrayList<>();
+		List<String> unreachable = new ArrayList<>();
+		int unusedCount = 0;
+		int unreachableCount = 0;
+		for (int permission = 0; permission < permissionCount; permission++) {
+			if (!inRole[permission]) {
+				unusedCount = addSample(unused, unusedCount, permissionLabel(permission));
+			}
+			else if (!reachable[permission]) {
+				unreachableCount = addSample(unreachable, unreachableCount, permissionLabel(permission));
+			}
+		}
+		report.unusedPermissionCount(unusedCount)
+			.unusedPermissions(unused)
+			.unreachablePermissionCount(unreachableCount)
+			.unreachablePermissions(unreachable)
+			.unheldRoleCount(unheldRoles);
+	}
+
+	private void findRedundantAssignments(RoleMiningReport.RoleMiningReportBuilder report) {
+		int userCount = model.userCount();
+		int[] offsets = model.getUserRoleOffsets();
+		int[] roles = model.getUserRoles();
+		boolean[] redundant = new boolean[roles.length];
+		AtomicIntegerArray retainedHolders = new AtomicIntegerArray(roleCount);
+		ParallelRange.forEach(pool, userCount, user -> {
+			for (int i = offsets[user]; i < offsets[user + 1]; i++) {
+				for (int j = offsets[user]; j < offsets[user + 1]; j++) {
+					if (i != j && covers(roles[j], roles[i])) {
+						redundant[i] = true;
+						break;
+					}
+				}
+				if (!redundant[i]) {
+					retainedHolders.incrementAndGet(canonical[roles[i]]);
+				}
+			}
+		});
+
+		long[] roleIds = model.getRoleIds();
+		long assignmentsAfter = 0;
+		long entriesBefore = 0;
+		long entriesAfter = 0;
+		long redundantAssignments = 0;
+		int usersWithRedundant = 0;
+		List<RoleMiningReport.RedundantUser> samples = new ArrayList<>();
+		for (int user = 0; user < userCount; user++) {
+			List<Long> redundantRoleIds = new ArrayList<>();
+			for (int i = offsets[user]; i < offsets[user + 1]; i++) {
+				int entries = 1 + globalCounts[roles[i]];
+				entriesBefore += entries;
+				if (redundant[i]) {
+					redundantRoleIds.add(roleIds[roles[i]]);
+				}
+				else {
+					assignmentsAfter++;
+					entriesAfter += entries;
+				}
+			}
+			if (redundantRoleIds.isEmpty()) {
+				continue;
+			}
+			redundantAssignments += redundantRoleIds.size();
+			if (usersWithRedundant++ < sampleSize) {
+				samples.add(RoleMiningReport.RedundantUser.builder()
+					.tenantId(model.getUserTenants()[user])
+					.userId(model.getUserIds()[user])
+					.username(model.getUsernames()[user])
+					.redundantRoleIds(redundantRoleIds)
+					.build());
+			}
+		}
+
+		int proposed = 0;
+		List<Long> removable = new ArrayList<>();
+		for (int role = 0; role < roleCount; role++) {
+			if (canonical[role] == role && retainedHolders.get(role) > 0) {
+				proposed++;
+			}
+			else if (removable.size() < sampleSize) {
+				removable.add(roleIds[role]);
+			}
+		}
+
+		report.usersWithRedundantRoles(usersWithRedundant)
+			.redundantAssignments(redundantAssignments)
+			.redundantUsers(samples)
+			.proposedRoleCount(proposed)
+			.removableRoleCount(roleCount - proposed)
+			.removableRoleIds(removable)
+			.roleAssignmentsBefore(roles.length)
+			.roleAssignmentsAfter(assignmentsAfter)
+			.authorityEntriesBefore(entriesBefore)
+			.authorityEntriesAfter(entriesAfter)
+			.authorityReductionPercent(
+					entriesBefore == 0 ? 0 : 100.0 * (entriesBefore - entriesAfter) / entriesBefore);
+	}
+
+	/**
+	 * @return 角色 other 是否覆盖角色 role；权限集合相同时序号小的覆盖序号大的，保证恰好保留一个
+	 */
+	private boolean covers(int other, int role) {
+		return bits[other].containsAll(bits[role])
+				&& (bits[other].cardinality() > bits[role].cardinality() || other < role);
+	}
+
+	private String permissionLabel(int permission) {
+		return model.getPermissionTenants()[permission] + "/" + model.getPermissionNames()[permission];
+	}
+
+	private int addSample(List<String> samples, int count, String value) {
+		if (count < sampleSize) {
+			samples.add(value);
+		}
+		return count + 1;
+	}
+
+	/**
+	 * @return 升序数组中第一个大于 value 的位置
+	 */
+	private static int firstGreater(int[] sorted, int value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] <= value) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.example.rbacdemo.analysis;
+
+import com.example.rbacdemo.dto.RoleMiningReport;
+import com.example.rbacdemo.snapshot.RbacModel;
+import com.example.rbacdemo.snapshot.RbacModelLoader;
+import com.example.rbacdemo.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 角色冗余分析任务：从数据库流式读取完整授权模型后只保留发起请求的租户，在内存中分析，不修改任何数据。
+ * 同一时间只运行一个任务，每个租户保留最近一次的结果。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoleMiningService {
+
+	private final RbacModelLoader modelLoader;
+
+	private final AnalysisProperties properties;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private final Map<String, RoleMiningReport> lastReports = new ConcurrentHashMap<>();
+
+	/**
+	 * 在后台线程中开始分析当前租户
+	 * @return 已有任务在运行时返回 false
+	 */
+	public boolean start() {
+		if (!running.compareAndSet(false, true)) {
+			return false;
+		}
+		String tenantId = TenantContext.getTenantId();
+		Thread.ofPlatform().name("role-mining").daemon().start(() -> {
+			try {
+				analyze(tenantId);
+			}
+			catch (RuntimeException ex) {
+				log.error("角色冗余分析失败", ex);
+			}
+			finally {
+				running.set(false);
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * 同步执行分析
+	 * @param tenantId 租户ID
+	 * @return 分析报告
+	 */
+	public RoleMiningReport analyze(String tenantId) {
+		RbacModel model = modelLoader.load().forTenant(tenantId);
+		ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+		try {
+			RoleMiningReport report = new RoleMiningAnalyzer(model, pool, properties.getSampleSize()).analyze();
+			report.setTenantId(tenantId);
+			log.info("角色冗余分析完成 [{}]: {} 组相同角色, {} 个子集角色, {} 个用户持有冗余角色, 建议角色数 {} -> {}, "
+					+ "权限条目减少 {}%, 耗时 {}ms", tenantId, report.getIdenticalGroupCount(),
+					report.getSubsetRoleCount(), report.getUsersWithRedundantRoles(), report.getRoleCount(),
+					report.getProposedRoleCount(), String.format("%.1f", report.getAuthorityReductionPercent()),
+					report.getDurationMillis());
+			lastReports.put(tenantId, report);
+			return report;
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	/**
+	 * 获取当前租户最近一次的分析报告
+	 * @return 分析报告，尚未分析过时返回 null
+	 */
+	public RoleMiningReport getLastReport() {
+		return lastReports.get(TenantContext.getTenantId());
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.example.rbacdemo.audit;
+
+import com.example.rbacdemo.security.RbacUserDetails;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.io.IOException;
+
+/**
+ * 记录审计日志的表单登录成功/失败处理器，跳转行为与默认处理器一致
+ */
+public final class AuditAuthenticationHandlers {
+
+	private AuditAuthenticationHandlers() {
+	}
+
+	public static SavedRequestAwareAuthenticationSuccessHandler successHandler(AuditLog auditLog,
+			String defaultTargetUrl) {
+		SavedRequestAwareAuthenticationSuccessHandler handler = new SavedRequestAwareAuthenticationSuccessHandler() {
+			@Override
+			public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+					Authentication authentication) throws ServletException, IOException {
+				Long userId = authentication.getPrincipal() instanceof RbacUserDetails details ? details.getUserId()
+						: null;
+				auditLog.loginSucceeded(userId, authentication.getName(), true);
+				super.onAuthenticationSuccess(request, response, authentication);
+			}
+		};
+		handler.setDefaultTargetUrl(defaultTargetUrl);
+		return handler;
+	}
+
+	public static SimpleUrlAuthenticationFailureHandler failureHandler(AuditLog auditLog, String failureUrl,
+			String usernameParameter) {
+		return new SimpleUrlAuthenticationFailureHandler(failureUrl) {
+			@Override
+			public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+					AuthenticationException exception) throws IOException, ServletException {
+				auditLog.loginFailed(request.getParameter(usernameParameter), true);
+				super.onAuthenticationFailure(request, response, exception);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.example.rbacdemo.audit;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * 从审计段文件中读出的一条记录
+ */
+@Value
+public class AuditEntry {
+
+	long timestamp;
+
+	AuditEventType type;
+
+	int flags;
+
+	/**
+	 * 格式版本 1 的分配记录中分配的角色/权限个数，其余记录为 0
+	 */
+	int count;
+
+	int tenantHash;
+
+	long actorId;
+
+	long targetId;
+
+	/**
+	 * 授予或收回的角色ID/权限ID，登录记录和格式版本 1 的记录为 0
+	 */
+	long objectId;
+
+	/**
+	 * 用户名，超过 32 字节的部分已被截断
+	 */
+	String username;
+
+	public boolean isTenant(String tenantId) {
+		return tenantHash == AuditRecord.tenantHash(tenantId);
+	}
+
+	/**
+	 * 与写入时相同的截断规则比较用户名
+	 */
+	public boolean isUser(String name) {
+		return username.equals(new String(AuditRecord.encodeUsername(name), StandardCharsets.UTF_8));
+	}
+
+	public boolean hasFlag(int flag) {
+		return (flags & flag) != 0;
+	}
+
+	@Override
+	public String toString() {
+		return Instant.ofEpochMilli(timestamp) + " " + type + " tenant#" + Integer.toHexString(tenantHash) + " user="
+				+ username + " actor=" + actorId + " target=" + targetId + " object=" + objectId + " count=" + count
+				+ " flags=" + flags;
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.example.rbacdemo.audit;
+
+/**
+ * 审计事件类型，code 写入记录的类型字节，已有取值不可修改
+ */
+public enum AuditEventType {
+
+	LOGIN_SUCCESS(1),
+
+	LOGIN_FAILURE(2),
+
+	/**
+	 * 格式版本 1 中整体分配用户角色的汇总记录，新记录改为逐个角色的授予/收回
+	 */
+	ROLES_ASSIGNED(3),
+
+	/**
+	 * 格式版本 1 中整体分配角色权限的汇总记录，新记录改为逐个权限的授予/收回
+	 */
+	PERMISSIONS_ASSIGNED(4),
+
+	/**
+	 * 目标为用户ID，对象为角色ID
+	 */
+	ROLE_GRANTED(5),
+
+	ROLE_REVOKED(6),
+
+	/**
+	 * 目标为角色ID，对象为权限ID
+	 */
+	PERMISSION_GRANTED(7),
+
+	PERMISSION_REVOKED(8);
+
+	private final byte code;
+
+	AuditEventType(int code) {
+		this.code = (byte) code;
+	}
+
+	public byte getCode() {
+		return code;
+	}
+
+	public static AuditEventType fromCode(byte code) {
+		for (AuditEventType type : values()) {
+			if (type.code == code) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+}
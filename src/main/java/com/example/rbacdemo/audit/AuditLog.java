@@ -0,0 +1,232 @@
+package com.example.rbacdemo.audit;
+
+import com.example.rbacdemo.security.RbacUserDetails;
+import com.example.rbacdemo.session.CompactAuthentication;
+import com.example.rbacdemo.tenant.TenantContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 授权审计日志。
+ * <p>
+ * 请求线程只把定长记录写入 {@link AuditRingBuffer}，不做任何 IO；单个后台写线程把记录拷贝到内存映射的段文件
+ * （见 {@link AuditSegmentWriter}）。授权变更在事务提交后才入队，回滚的变更不会留下记录。
+ * 缓冲区已满时请求线程等待写线程腾出槽位，超过 {@code app.audit.offer-timeout} 仍无空位则抛出异常，
+ * 记录不会被静默丢弃。段文件用 {@link AuditQueryTool} 按时间范围和用户查询。
+ */
+@Slf4j
+@Component
+public class AuditLog implements SmartLifecycle {
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final long ERROR_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final AuditProperties properties;
+
+	private final AuditRingBuffer ring;
+
+	private final AtomicLong written = new AtomicLong();
+
+	private final LongAdder blocked = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private volatile boolean running;
+
+	private Thread writerThread;
+
+	public AuditLog(AuditProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.ring = new AuditRingBuffer(properties.getBufferCapacity());
+		Gauge.builder("rbac.audit.backlog", ring, AuditRingBuffer::size)
+			.description("环形缓冲区中尚未写入段文件的审计记录数")
+			.register(meterRegistry);
+		FunctionCounter.builder("rbac.audit.blocked", blocked, LongAdder::sum)
+			.description("缓冲区已满、请求线程需要等待的审计写入次数")
+			.register(meterRegistry);
+		FunctionCounter.builder("rbac.audit.rejected", rejected, LongAdder::sum)
+			.description("等待超时仍无空位而失败的审计写入次数")
+			.register(meterRegistry);
+		FunctionCounter.builder("rbac.audit.written", written, AtomicLong::get)
+			.description("已写入段文件的审计记录数")
+			.register(meterRegistry);
+	}
+
+	public void loginSucceeded(Long userId, String username, boolean formLogin) {
+		long id = userId == null ? 0 : userId;
+		record(AuditEventType.LOGIN_SUCCESS, formLogin ? AuditRecord.FLAG_FORM_LOGIN : 0,
+				TenantContext.getTenantId(), id, id, 0, username);
+	}
+
+	public void loginFailed(String username, boolean formLogin) {
+		record(AuditEventType.LOGIN_FAILURE, formLogin ? AuditRecord.FLAG_FORM_LOGIN : 0,
+				TenantContext.getTenantId(), 0, 0, 0, username);
+	}
+
+	/**
+	 * 记录当前用户把角色 {@code roleId} 授予 {@code userId}，在事务提交后入队
+	 */
+	public void roleGranted(Long userId, Long roleId) {
+		recordChange(AuditEventType.ROLE_GRANTED, userId, roleId);
+	}
+
+	/**
+	 * 记录当前用户收回 {@code userId} 的角色 {@code roleId}，在事务提交后入队
+	 */
+	public void roleRevoked(Long userId, Long roleId) {
+		recordChange(AuditEventType.ROLE_REVOKED, userId, roleId);
+	}
+
+	/**
+	 * 记录当前用户把权限 {@code permissionId} 授予角色 {@code roleId}，在事务提交后入队
+	 */
+	public void permissionGranted(Long roleId, Long permissionId) {
+		recordChange(AuditEventType.PERMISSION_GRANTED, roleId, permissionId);
+	}
+
+	/**
+	 * 记录当前用户收回角色 {@code roleId} 的权限 {@code permissionId}，在事务提交后入队
+	 */
+	public void permissionRevoked(Long roleId, Long permissionId) {
+		recordChange(AuditEventType.PERMISSION_REVOKED, roleId, permissionId);
+	}
+
+	private void recordChange(AuditEventType type, Long targetId, Long objectId) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		String actor = authentication != null ? authentication.getName() : null;
+		long actorId = actorId(authentication);
+		long target = targetId == null ? 0 : targetId;
+		long object = objectId == null ? 0 : objectId;
+		String tenantId = TenantContext.getTenantId();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					record(type, 0, tenantId, actorId, target, object, actor);
+				}
+			});
+		}
+		else {
+			record(type, 0, tenantId, actorId, target, object, actor);
+		}
+	}
+
+	/**
+	 * 缓冲区已满时等待写线程腾出槽位，超时仍无空位则抛出异常，调用方的请求随之失败
+	 */
+	private void record(AuditEventType type, int flags, String tenantId, long actorId, long targetId, long objectId,
+			String username) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		byte[] encoded = AuditRecord.encodeUsername(username);
+		if (ring.offer(System.currentTimeMillis(), type, flags, tenantId, actorId, targetId, objectId, encoded)) {
+			return;
+		}
+		blocked.increment();
+		long deadline = System.nanoTime() + properties.getOfferTimeout().toNanos();
+		while (System.nanoTime() - deadline < 0) {
+			LockSupport.parkNanos(FULL_PARK_NANOS);
+			if (ring.offer(System.currentTimeMillis(), type, flags, tenantId, actorId, targetId, objectId,
+					encoded)) {
+				return;
+			}
+		}
+		rejected.increment();
+		log.error("审计缓冲区持续已满，写入失败: type={}, tenant={}, target={}, object={}", type, tenantId, targetId,
+				objectId);
+		throw new RuntimeException("审计日志写入失败，缓冲区已满");
+	}
+
+	private static long actorId(Authentication authentication) {
+		if (authentication instanceof CompactAuthentication compact && compact.getUserId() != null) {
+			return compact.getUserId();
+		}
+		if (authentication != null && authentication.getPrincipal() instanceof RbacUserDetails details
+				&& details.getUserId() != null) {
+			return details.getUserId();
+		}
+		return 0;
+	}
+
+	@Override
+	public void start() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		running = true;
+		writerThread = new Thread(this::drainLoop, "audit-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		if (writerThread != null) {
+			LockSupport.unpark(writerThread);
+			try {
+				writerThread.join(TimeUnit.SECONDS.toMillis(5));
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			writerThread = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void drainLoop() {
+		long flushIntervalNanos = properties.getFlushInterval().toNanos();
+		try (AuditSegmentWriter writer = new AuditSegmentWriter(Path.of(properties.getDirectory()),
+				properties.getSegmentRecords(), properties.getMaxSegments())) {
+			long lastFlush = System.nanoTime();
+			// 停止后继续把缓冲区中剩余的记录写完
+			while (running || ring.size() > 0) {
+				int drained;
+				try {
+					drained = writer.drain(ring);
+				}
+				catch (IOException ex) {
+					log.error("审计记录写入段文件失败，稍后重试", ex);
+					LockSupport.parkNanos(ERROR_BACKOFF_NANOS);
+					continue;
+				}
+				written.addAndGet(drained);
+				if (System.nanoTime() - lastFlush >= flushIntervalNanos) {
+					writer.force();
+					lastFlush = System.nanoTime();
+				}
+				if (drained == 0 && running) {
+					LockSupport.parkNanos(IDLE_PARK_NANOS);
+				}
+			}
+		}
+		catch (IOException ex) {
+			log.error("关闭审计段文件失败", ex);
+		}
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.example.rbacdemo.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+	/**
+	 * 是否记录审计日志
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * 段文件目录
+	 */
+	private String directory = "audit";
+
+	/**
+	 * 环形缓冲区槽位数，必须是 2 的幂
+	 */
+	private int bufferCapacity = 65536;
+
+	/**
+	 * 缓冲区已满时请求线程等待写线程腾出槽位的最长时间，超时则审计写入失败并抛出异常，记录不会被静默丢弃
+	 */
+	private Duration offerTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * 每个段文件的记录数，每条记录 72 字节
+	 */
+	private int segmentRecords = 262144;
+
+	/**
+	 * 保留的段文件个数，超出时删除最旧的
+	 */
+	private int maxSegments = 64;
+
+	/**
+	 * 已写入数据强制落盘的间隔
+	 */
+	private Duration flushInterval = Duration.ofSeconds(1);
+
+}
@@ -0,0 +1,75 @@
+package com.example.rbacdemo.audit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 审计段文件查询工具，不启动 Spring 上下文，直接扫描段文件。
+ *
+ * <pre>
+ * java -cp build/libs/rbac-demo-0.0.1-SNAPSHOT.jar \
+ *     -Dloader.main=com.example.rbacdemo.audit.AuditQueryTool \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     --dir=audit --from=2025-03-01T00:00 --to=2025-03-02T00:00 --user=admin --tenant=default
+ * </pre>
+ *
+ * 参数均可省略：from/to 为 ISO 时间（带时区或按本地时区解析的本地时间），user 同时匹配登录用户和操作者，
+ * type 为 {@link AuditEventType} 名称，target 为目标用户或角色ID，object 为授予或收回的角色ID/权限ID。
+ */
+public final class AuditQueryTool {
+
+	private AuditQueryTool() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = parse(args);
+		Path directory = Path.of(options.getOrDefault("dir", "audit"));
+		long from = options.containsKey("from") ? parseTime(options.get("from")) : 0;
+		long to = options.containsKey("to") ? parseTime(options.get("to")) : Long.MAX_VALUE;
+		String user = options.get("user");
+		String tenant = options.get("tenant");
+		AuditEventType type = options.containsKey("type") ? AuditEventType.valueOf(options.get("type")) : null;
+		Long target = options.containsKey("target") ? Long.valueOf(options.get("target")) : null;
+		Long object = options.containsKey("object") ? Long.valueOf(options.get("object")) : null;
+
+		long[] matched = new long[1];
+		AuditSegments.scan(directory, from, to, entry -> {
+			if ((user == null || entry.isUser(user)) && (tenant == null || entry.isTenant(tenant))
+					&& (type == null || entry.getType() == type)
+					&& (target == null || entry.getTargetId() == target)
+					&& (object == null || entry.getObjectId() == object)) {
+				System.out.println(entry);
+				matched[0]++;
+			}
+		});
+		System.err.println("共 " + matched[0] + " 条记录");
+	}
+
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+				throw new IllegalArgumentException("参数格式应为 --name=value: " + arg);
+			}
+			int separator = arg.indexOf('=');
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+		return options;
+	}
+
+	private static long parseTime(String value) {
+		try {
+			return Instant.parse(value).toEpochMilli();
+		}
+		catch (DateTimeParseException ex) {
+			return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		}
+	}
+
+}
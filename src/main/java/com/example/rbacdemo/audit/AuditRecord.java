@@ -0,0 +1,121 @@
+package com.example.rbacdemo.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 审计记录的定长二进制布局（72 字节，大端序）：
+ *
+ * <pre>
+ *  0  long   时间戳（毫秒），0 表示空槽
+ *  8  long   操作者用户ID，未知为 0
+ * 16  long   目标ID（用户ID或角色ID）
+ * 24  int    租户ID的 hashCode
+ * 28  byte   事件类型
+ * 29  byte   标志位
+ * 30  short  数量（无符号，仅格式版本 1 的分配记录使用）
+ * 32  byte[32] 用户名 UTF-8，超长截断，不足补 0
+ * 64  long   对象ID（授予或收回的角色ID/权限ID），登录记录为 0
+ * </pre>
+ *
+ * 格式版本 1 的记录只有前 64 字节，读出时对象ID为 0。
+ */
+final class AuditRecord {
+
+	static final int SIZE = 72;
+
+	static final int LEGACY_SIZE = 64;
+
+	static final int USERNAME_BYTES = 32;
+
+	/**
+	 * 本次分配收回了用户原有的角色，仅出现在格式版本 1 的 {@link AuditEventType#ROLES_ASSIGNED} 记录中
+	 */
+	static final int FLAG_ROLES_REMOVED = 1;
+
+	/**
+	 * 经由表单登录，而非 REST 登录接口
+	 */
+	static final int FLAG_FORM_LOGIN = 1 << 1;
+
+	private static final int OFFSET_ACTOR = 8;
+
+	private static final int OFFSET_TARGET = 16;
+
+	private static final int OFFSET_TENANT = 24;
+
+	private static final int OFFSET_TYPE = 28;
+
+	private static final int OFFSET_FLAGS = 29;
+
+	private static final int OFFSET_COUNT = 30;
+
+	private static final int OFFSET_USERNAME = 32;
+
+	private static final int OFFSET_OBJECT = 64;
+
+	private AuditRecord() {
+	}
+
+	static void write(ByteBuffer buffer, int offset, long timestamp, AuditEventType type, int flags,
+			String tenantId, long actorId, long targetId, long objectId, byte[] username) {
+		buffer.putLong(offset, timestamp);
+		buffer.putLong(offset + OFFSET_ACTOR, actorId);
+		buffer.putLong(offset + OFFSET_TARGET, targetId);
+		buffer.putInt(offset + OFFSET_TENANT, tenantHash(tenantId));
+		buffer.put(offset + OFFSET_TYPE, type.getCode());
+		buffer.put(offset + OFFSET_FLAGS, (byte) flags);
+		buffer.putShort(offset + OFFSET_COUNT, (short) 0);
+		buffer.put(offset + OFFSET_USERNAME, username, 0, username.length);
+		for (int i = username.length; i < USERNAME_BYTES; i++) {
+			buffer.put(offset + OFFSET_USERNAME + i, (byte) 0);
+		}
+		buffer.putLong(offset + OFFSET_OBJECT, objectId);
+	}
+
+	static long timestamp(ByteBuffer buffer, int offset) {
+		return buffer.getLong(offset);
+	}
+
+	/**
+	 * @param recordSize 段文件头中的记录大小，{@link #LEGACY_SIZE} 的记录没有对象ID
+	 */
+	static AuditEntry read(ByteBuffer buffer, int offset, int recordSize) {
+		byte[] username = new byte[USERNAME_BYTES];
+		buffer.get(offset + OFFSET_USERNAME, username);
+		int length = 0;
+		while (length < USERNAME_BYTES && username[length] != 0) {
+			length++;
+		}
+		return new AuditEntry(buffer.getLong(offset), AuditEventType.fromCode(buffer.get(offset + OFFSET_TYPE)),
+				buffer.get(offset + OFFSET_FLAGS) & 0xFF, buffer.getShort(offset + OFFSET_COUNT) & 0xFFFF,
+				buffer.getInt(offset + OFFSET_TENANT), buffer.getLong(offset + OFFSET_ACTOR),
+				buffer.getLong(offset + OFFSET_TARGET),
+				recordSize > OFFSET_OBJECT ? buffer.getLong(offset + OFFSET_OBJECT) : 0,
+				new String(username, 0, length, StandardCharsets.UTF_8));
+	}
+
+	static int tenantHash(String tenantId) {
+		return tenantId == null ? 0 : tenantId.hashCode();
+	}
+
+	/**
+	 * 用户名编码为 UTF-8 并截断到 32 字节，截断点不落在多字节字符中间
+	 */
+	static byte[] encodeUsername(String username) {
+		if (username == null) {
+			return new byte[0];
+		}
+		byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length <= USERNAME_BYTES) {
+			return bytes;
+		}
+		int end = USERNAME_BYTES;
+		while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+			end--;
+		}
+		return Arrays.copyOf(bytes, end);
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.example.rbacdemo.audit;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 多生产者、单消费者的无锁环形缓冲区，槽位是预分配堆外内存中的定长审计记录。
+ * <p>
+ * 每个槽位有一个序号：等于写位置时表示空闲，等于写位置 + 1 时表示已发布。生产者用 CAS 抢占写位置后
+ * 就地编码记录，再发布序号；缓冲区满时 {@link #offer} 返回 false，由调用方等待写线程腾出槽位。
+ */
+final class AuditRingBuffer {
+
+	private final int capacity;
+
+	private final int mask;
+
+	private final ByteBuffer slots;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * 只由消费线程推进，volatile 仅为 {@link #size()} 可见
+	 */
+	private volatile long head;
+
+	AuditRingBuffer(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("环形缓冲区容量必须是 2 的幂: " + capacity);
+		}
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.slots = ByteBuffer.allocateDirect(capacity * AuditRecord.SIZE);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * @return 缓冲区已满时返回 false，记录未写入
+	 */
+	boolean offer(long timestamp, AuditEventType type, int flags, String tenantId, long actorId, long targetId,
+			long objectId, byte[] username) {
+		long position;
+		int index;
+		while (true) {
+			position = tail.get();
+			index = (int) (position & mask);
+			long sequence = sequences.get(index);
+			if (sequence == position) {
+				if (tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+			}
+			else if (sequence < position) {
+				return false;
+			}
+		}
+		AuditRecord.write(slots, index * AuditRecord.SIZE, timestamp, type, flags, tenantId, actorId, targetId,
+				objectId, username);
+		sequences.set(index, position + 1);
+		return true;
+	}
+
+	/**
+	 * 把已发布的记录依次拷贝到目标缓冲区的当前位置，最多 {@code maxRecords} 条；只能由消费线程调用
+	 * @return 拷贝的记录数
+	 */
+	int drainTo(ByteBuffer target, int maxRecords) {
+		long position = head;
+		int drained = 0;
+		while (drained < maxRecords) {
+			int index = (int) (position & mask);
+			if (sequences.get(index) != position + 1) {
+				break;
+			}
+			target.put(target.position(), slots, index * AuditRecord.SIZE, AuditRecord.SIZE);
+			target.position(target.position() + AuditRecord.SIZE);
+			sequences.set(index, position + capacity);
+			position++;
+			drained++;
+		}
+		head = position;
+		return drained;
+	}
+
+	int size() {
+		return (int) Math.max(0, tail.get() - head);
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.example.rbacdemo.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 把环形缓冲区中的记录追加到内存映射的段文件，段写满后轮换新文件，并只保留最近的若干个段。
+ * <p>
+ * 只由审计写线程使用，非线程安全。段文件创建时即按容量预分配并整体映射，追加只是内存拷贝；
+ * 写入的数据在进程崩溃后仍由操作系统落盘，定期 {@link #force()} 用于防范宕机。
+ */
+@Slf4j
+final class AuditSegmentWriter implements Closeable {
+
+	private final Path directory;
+
+	private final int segmentRecords;
+
+	private final int maxSegments;
+
+	private FileChannel channel;
+
+	private MappedByteBuffer buffer;
+
+	private boolean dirty;
+
+	AuditSegmentWriter(Path directory, int segmentRecords, int maxSegments) {
+		this.directory = directory;
+		this.segmentRecords = segmentRecords;
+		this.maxSegments = maxSegments;
+	}
+
+	/**
+	 * 从环形缓冲区取出记录写入当前段，当前段写满时先轮换
+	 * @return 写入的记录数
+	 */
+	int drain(AuditRingBuffer ring) throws IOException {
+		if (ring.size() == 0) {
+			return 0;
+		}
+		if (buffer == null || !buffer.hasRemaining()) {
+			rotate();
+		}
+		int drained = ring.drainTo(buffer, buffer.remaining() / AuditRecord.SIZE);
+		dirty |= drained > 0;
+		return drained;
+	}
+
+	void force() {
+		if (buffer != null && dirty) {
+			buffer.force();
+			dirty = false;
+		}
+	}
+
+	private void rotate() throws IOException {
+		close();
+		Files.createDirectories(directory);
+		long createdAt = System.currentTimeMillis();
+		Path file = directory.resolve(AuditSegments.fileName(createdAt));
+		while (Files.exists(file)) {
+			file = directory.resolve(AuditSegments.fileName(++createdAt));
+		}
+		channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+				AuditSegments.HEADER_SIZE + (long) segmentRecords * AuditRecord.SIZE);
+		AuditSegments.writeHeader(buffer, segmentRecords, createdAt);
+		buffer.position(AuditSegments.HEADER_SIZE);
+		log.debug("审计段文件已创建: {}", file);
+		deleteExpiredSegments();
+	}
+
+	private void deleteExpiredSegments() throws IOException {
+		List<Path> segments = AuditSegments.list(directory);
+		for (int i = 0; i < segments.size() - maxSegments; i++) {
+			Files.deleteIfExists(segments.get(i));
+			log.info("审计段文件超出保留个数，已删除: {}", segments.get(i));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		force();
+		// 映射在缓冲区被回收时才解除，这里只关闭通道
+		buffer = null;
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+package com.example.rbacdemo.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 审计段文件格式与读取。
+ * <p>
+ * 文件名为 {@code audit-<创建时间毫秒>.seg}，按名称排序即按时间排序。文件头 64 字节：
+ * 魔数、格式版本、记录大小、记录容量、创建时间；其后是定长记录，时间戳为 0 的第一个槽位之后均为空。
+ */
+public final class AuditSegments {
+
+	static final int HEADER_SIZE = 64;
+
+	private static final int MAGIC = 0x52424155;
+
+	private static final short VERSION = 2;
+
+	/**
+	 * 记录不含对象ID的旧格式，仍可读取
+	 */
+	private static final short LEGACY_VERSION = 1;
+
+	private static final String PREFIX = "audit-";
+
+	private static final String SUFFIX = ".seg";
+
+	/**
+	 * 多个请求线程的时间戳与入队顺序之间允许的偏差，按首末记录判断段的时间范围时放宽这么多
+	 */
+	private static final long ORDER_SLACK_MILLIS = 60_000;
+
+	private AuditSegments() {
+	}
+
+	static String fileName(long createdAt) {
+		return String.format("%s%013d%s", PREFIX, createdAt, SUFFIX);
+	}
+
+	static void writeHeader(ByteBuffer buffer, int capacity, long createdAt) {
+		buffer.putInt(0, MAGIC);
+		buffer.putShort(4, VERSION);
+		buffer.putShort(6, (short) AuditRecord.SIZE);
+		buffer.putInt(8, capacity);
+		buffer.putLong(12, createdAt);
+	}
+
+	/**
+	 * 列出目录下的段文件，按创建时间升序
+	 */
+	public static List<Path> list(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> {
+				String name = file.getFileName().toString();
+				return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+			}).sorted().collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * 按时间范围扫描目录下所有段文件，范围为闭区间，按段内写入顺序回调
+	 */
+	public static void scan(Path directory, long fromMillis, long toMillis, Consumer<AuditEntry> consumer)
+			throws IOException {
+		for (Path segment : list(directory)) {
+			scanSegment(segment, fromMillis, toMillis, consumer);
+		}
+	}
+
+	public static void scanSegment(Path segment, long fromMillis, long toMillis, Consumer<AuditEntry> consumer)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				return;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			short version = buffer.getShort(4);
+			int recordSize = buffer.getShort(6);
+			if (buffer.getInt(0) != MAGIC
+					|| !(version == VERSION && recordSize == AuditRecord.SIZE
+							|| version == LEGACY_VERSION && recordSize == AuditRecord.LEGACY_SIZE)) {
+				throw new IOException("不是可识别的审计段文件: " + segment);
+			}
+			int capacity = (int) Math.min(buffer.getInt(8), (channel.size() - HEADER_SIZE) / recordSize);
+			int count = recordCount(buffer, capacity, recordSize);
+			if (count == 0 || AuditRecord.timestamp(buffer, offset(0, recordSize)) - ORDER_SLACK_MILLIS > toMillis
+					|| AuditRecord.timestamp(buffer, offset(count - 1, recordSize))
+							+ ORDER_SLACK_MILLIS < fromMillis) {
+				return;
+			}
+			for (int i = 0; i < count; i++) {
+				long timestamp = AuditRecord.timestamp(buffer, offset(i, recordSize));
+				if (timestamp >= fromMillis && timestamp <= toMillis) {
+					consumer.accept(AuditRecord.read(buffer, offset(i, recordSize), recordSize));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 记录从头连续写入，二分查找第一个空槽
+	 */
+	private static int recordCount(ByteBuffer buffer, int capacity, int recordSize) {
+		int low = 0;
+		int high = capacity;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (AuditRecord.timestamp(buffer, offset(mid, recordSize)) != 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static int offset(int index, int recordSize) {
+		return HEADER_SIZE + index * recordSize;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.example.rbacdemo.availability;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.availability")
+public class AvailabilityProperties {
+
+	/**
+	 * 过滤器按至少这么多用户分配空间，实际用户数更多时按实际数量的 1.5 倍分配
+	 */
+	private long expectedUsers = 1_000_000;
+
+	/**
+	 * 假阳性率，假阳性的查询会回退到数据库
+	 */
+	private double falsePositiveRate = 0.01;
+
+	/**
+	 * 全量重建间隔
+	 */
+	private Duration rebuildInterval = Duration.ofHours(1);
+
+	/**
+	 * 增量拉取其他节点新注册用户的间隔
+	 */
+	private Duration refreshInterval = Duration.ofSeconds(5);
+
+	/**
+	 * 全量重建时 JDBC 每次取回的行数
+	 */
+	private int fetchSize = 1000;
+
+}
@@ -0,0 +1,111 @@
+package com.example.rbacdemo.availability;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器：判定不存在时一定不存在，判定可能存在时有一定假阳性。
+ * <p>
+ * 位数组用 {@link AtomicLongArray} 保存，添加时 CAS 置位，读写都不加锁。k 个哈希位置由两个 64 位哈希值
+ * 线性组合得到（h1 + i * h2）。
+ */
+public final class BloomFilter {
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final AtomicLongArray words;
+
+	private final long bitSize;
+
+	private final int hashCount;
+
+	private BloomFilter(long bitSize, int hashCount) {
+		int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bitSize + 63) >>> 6);
+		this.words = new AtomicLongArray(wordCount);
+		this.bitSize = (long) wordCount << 6;
+		this.hashCount = hashCount;
+	}
+
+	/**
+	 * 按预期元素数和假阳性率计算位数组大小与哈希次数
+	 * @param expectedInsertions 预期元素数
+	 * @param falsePositiveRate 假阳性率，0 到 1 之间
+	 */
+	public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+		long n = Math.max(1, expectedInsertions);
+		double ln2 = Math.log(2);
+		long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+		int hashes = Math.max(1, (int) Math.round((double) bits / n * ln2));
+		return new BloomFilter(Math.max(64, bits), hashes);
+	}
+
+	public void add(String value) {
+		long hash = fnv1a(value);
+		long h1 = mix(hash);
+		long h2 = mix(hash + GOLDEN_GAMMA) | 1;
+		for (int i = 0; i < hashCount; i++) {
+			long bit = Math.floorMod(h1 + i * h2, bitSize);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current = words.get(word);
+			while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+				current = words.get(word);
+			}
+		}
+	}
+
+	public boolean mightContain(String value) {
+		long hash = fnv1a(value);
+		long h1 = mix(hash);
+		long h2 = mix(hash + GOLDEN_GAMMA) | 1;
+		for (int i = 0; i < hashCount; i++) {
+			long bit = Math.floorMod(h1 + i * h2, bitSize);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long bitSize() {
+		return bitSize;
+	}
+
+	public int hashCount() {
+		return hashCount;
+	}
+
+	/**
+	 * 已置位比例，越接近 1 假阳性越高
+	 */
+	public double fillRatio() {
+		long set = 0;
+		for (int i = 0; i < words.length(); i++) {
+			set += Long.bitCount(words.get(i));
+		}
+		return (double) set / bitSize;
+	}
+
+	private static long fnv1a(String value) {
+		long hash = FNV_OFFSET;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * SplitMix64 的混合函数，把 FNV 结果的各位充分打散
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+}
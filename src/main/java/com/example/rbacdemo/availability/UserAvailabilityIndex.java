@@ -0,0 +1,172 @@
+package com.example.rbacdemo.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * 已占用用户名和邮箱的布隆过滤器，键为 (租户, 类型, 规范化后的值)。
+ * <p>
+ * 过滤器定期全量重建；两次重建之间，本节点注册的用户立即加入，其他节点注册的用户按自增ID增量拉取。
+ * 首次构建完成前所有查询都视为可能存在，由调用方回退到数据库。
+ * <p>
+ * 调度线程池有两个线程，重建与增量拉取互斥：拉取写入的是旧过滤器，若与重建交错，推进后的水位会跳过
+ * 新过滤器扫描之后提交的用户。重建进行中时跳过本次拉取，由重建的全量扫描覆盖。
+ */
+@Slf4j
+@Component
+public class UserAvailabilityIndex {
+
+	private static final String USERS_SQL = "SELECT id, tenant_id, username, email FROM users";
+
+	/**
+	 * 增量拉取时从已见最大ID往回多取的行数，覆盖自增ID乱序提交的事务
+	 */
+	private static final long REFRESH_OVERLAP = 1000;
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+	private final AvailabilityProperties properties;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate readOnly;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private volatile BloomFilter filter;
+
+	/**
+	 * 重建期间新注册的用户同时写入正在构建的过滤器，避免切换后丢失
+	 */
+	private volatile BloomFilter building;
+
+	private volatile long maxUserId;
+
+	public UserAvailabilityIndex(AvailabilityProperties properties, DataSource dataSource,
+			PlatformTransactionManager transactionManager) {
+		this.properties = properties;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(properties.getFetchSize());
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+	}
+
+	/**
+	 * @return false 表示用户名一定未被占用；true 表示可能已被占用，需查数据库确认
+	 */
+	public boolean mightContainUsername(String tenantId, String username) {
+		BloomFilter current = filter;
+		return current == null || current.mightContain(usernameKey(tenantId, username));
+	}
+
+	/**
+	 * @return false 表示邮箱一定未被占用；true 表示可能已被占用，需查数据库确认
+	 */
+	public boolean mightContainEmail(String tenantId, String email) {
+		BloomFilter current = filter;
+		return current == null || current.mightContain(emailKey(tenantId, email));
+	}
+
+	/**
+	 * 新用户注册后立即加入过滤器
+	 */
+	public void add(String tenantId, String username, String email) {
+		addTo(filter, tenantId, username, email);
+		addTo(building, tenantId, username, email);
+	}
+
+	@Scheduled(fixedDelayString = "${app.availability.rebuild-interval:1h}")
+	public void rebuild() {
+		lock.lock();
+		try {
+			long start = System.currentTimeMillis();
+			long userCount = readOnly
+				.execute(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+			BloomFilter next = BloomFilter.create(2 * Math.max(properties.getExpectedUsers(), userCount * 3 / 2),
+					properties.getFalsePositiveRate());
+			building = next;
+			try {
+				long[] maxId = new long[1];
+				readOnly.executeWithoutResult(status -> jdbcTemplate.query(USERS_SQL, collect(next, maxId)));
+				filter = next;
+				// 水位取本次扫描读到的最大ID，不与旧水位取最大值：新过滤器只包含本次扫描读到的用户
+				maxUserId = maxId[0];
+			}
+			finally {
+				building = null;
+			}
+			log.info("用户名/邮箱过滤器已重建: {} 个用户，{} 位，{} 个哈希，耗时 {}ms", userCount, next.bitSize(),
+					next.hashCount(), System.currentTimeMillis() - start);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.availability.refresh-interval:5s}")
+	public void refresh() {
+		if (!lock.tryLock()) {
+			return;
+		}
+		try {
+			BloomFilter current = filter;
+			if (current == null) {
+				return;
+			}
+			long[] maxId = { maxUserId };
+			readOnly.executeWithoutResult(status -> jdbcTemplate.query(USERS_SQL + " WHERE id > ?",
+					collect(current, maxId), Math.max(0, maxUserId - REFRESH_OVERLAP)));
+			maxUserId = maxId[0];
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private static RowCallbackHandler collect(BloomFilter target, long[] maxId) {
+		return rs -> {
+			maxId[0] = Math.max(maxId[0], rs.getLong(1));
+			addTo(target, rs.getString(2), rs.getString(3), rs.getString(4));
+		};
+	}
+
+	private static void addTo(BloomFilter target, String tenantId, String username, String email) {
+		if (target == null) {
+			return;
+		}
+		target.add(usernameKey(tenantId, username));
+		target.add(emailKey(tenantId, email));
+	}
+
+	private static String usernameKey(String tenantId, String username) {
+		return tenantId + "\u0000u\u0000" + normalize(username);
+	}
+
+	private static String emailKey(String tenantId, String email) {
+		return tenantId + "\u0000e\u0000" + normalize(email);
+	}
+
+	/**
+	 * 去掉首尾空白和重音符号并转小写。数据库唯一约束的排序规则不区分大小写和重音，
+	 * 规范化只能比它更宽松：多出的碰撞只是假阳性，不会漏判
+	 */
+	static String normalize(String value) {
+		if (value == null) {
+			return "";
+		}
+		String decomposed = Normalizer.normalize(value.strip(), Normalizer.Form.NFD);
+		return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+}
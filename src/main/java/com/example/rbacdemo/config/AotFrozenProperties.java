@@ -0,0 +1,131 @@
+package com.example.rbacdemo.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * AOT 构建时固化的条件属性。
+ * <p>
+ * processAot 按 prod profile 求值 @ConditionalOnProperty 等条件并生成固定的 Bean 定义，
+ * 运行时再修改这些属性不会生效（例如 AOT 镜像里设置 app.datasource.routing.enabled=true 不会启用读写分离）。
+ * 构建时由 {@link Recorder} 把属性值写入生成的资源文件，启用 AOT 启动时由 {@link Verifier} 比对，
+ * 被覆盖则直接启动失败，需要修改这些属性时应重新构建镜像。
+ */
+public final class AotFrozenProperties {
+
+	static final String RESOURCE = "META-INF/rbac-demo/aot-frozen.properties";
+
+	/**
+	 * 决定 Bean 是否注册的属性：应用自身的条件配置，以及 prod 镜像依赖的自动配置开关
+	 */
+	static final List<String> KEYS = List.of("app.datasource.routing.enabled", "spring.flyway.enabled",
+			"spring.session.jdbc.initialize-schema", "management.endpoint.health.probes.enabled");
+
+	/**
+	 * 构建时未设置的属性以空字符串记录，与运行时未设置等价
+	 */
+	private static final String ABSENT = "";
+
+	private AotFrozenProperties() {
+	}
+
+	private static String valueOf(Environment environment, String key) {
+		String value = environment.getProperty(key);
+		return value == null ? ABSENT : value.trim();
+	}
+
+	/**
+	 * processAot 阶段记录固化的属性值，通过 META-INF/spring/aot.factories 注册
+	 */
+	public static class Recorder implements BeanFactoryInitializationAotProcessor {
+
+		@Override
+		public BeanFactoryInitializationAotContribution processAheadOfTime(
+				ConfigurableListableBeanFactory beanFactory) {
+			Environment environment = beanFactory.getBean(ConfigurableApplicationContext.ENVIRONMENT_BEAN_NAME,
+					Environment.class);
+			Properties frozen = new Properties();
+			for (String key : KEYS) {
+				frozen.setProperty(key, valueOf(environment, key));
+			}
+			return (generationContext, code) -> generationContext.getGeneratedFiles()
+				.addResourceFile(RESOURCE, write(frozen));
+		}
+
+		private static String write(Properties properties) {
+			StringWriter writer = new StringWriter();
+			try {
+				properties.store(writer, "AOT 构建时固化的条件属性，运行时不可覆盖");
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			return writer.toString();
+		}
+
+	}
+
+	/**
+	 * 启用 AOT 启动时校验固化的属性没有被覆盖，通过 META-INF/spring.factories 注册。
+	 * <p>
+	 * 在配置文件加载之后执行，比对的是最终生效的值（含 profile 配置、环境变量与命令行参数）。
+	 */
+	public static class Verifier implements EnvironmentPostProcessor, Ordered {
+
+		@Override
+		public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+			if (!AotDetector.useGeneratedArtifacts()) {
+				return;
+			}
+			ClassPathResource resource = new ClassPathResource(RESOURCE);
+			if (!resource.exists()) {
+				throw new IllegalStateException("已启用 AOT 但未找到构建时固化的属性记录 " + RESOURCE + "，请使用 -Paot 重新构建");
+			}
+
+			Properties frozen;
+			try {
+				frozen = PropertiesLoaderUtils.loadProperties(resource);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			List<String> overridden = new ArrayList<>();
+			for (String key : frozen.stringPropertyNames()) {
+				String expected = frozen.getProperty(key);
+				String actual = valueOf(environment, key);
+				if (!Objects.equals(expected, actual)) {
+					overridden.add(key + "（构建时 '" + expected + "'，运行时 '" + actual + "'）");
+				}
+			}
+			if (!overridden.isEmpty()) {
+				throw new IllegalStateException("以下属性在 AOT 构建时已固化，运行时覆盖不会生效，请修改后重新构建镜像："
+						+ String.join("，", overridden));
+			}
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.LOWEST_PRECEDENCE;
+		}
+
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.example.rbacdemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * 启用 @Async，异步方法使用 Spring Boot 自动配置的 applicationTaskExecutor（spring.task.execution.*）
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+}
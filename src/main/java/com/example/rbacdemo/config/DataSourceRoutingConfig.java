@@ -0,0 +1,89 @@
+package com.example.rbacdemo.config;
+
+import com.example.rbacdemo.datasource.ReadWriteRoutingDataSource;
+import com.example.rbacdemo.datasource.ReadYourWritesFilter;
+import com.example.rbacdemo.datasource.RoutingDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.session.jdbc.config.annotation.SpringSessionDataSource;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离数据源配置，通过 app.datasource.routing.enabled=true 启用。
+ * <p>
+ * 主库沿用 spring.datasource.* 配置，副本连接池复制主库的 Hikari 参数后覆盖连接信息。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	/**
+	 * 主库连接池，同时作为会话存储的数据源：会话读写频繁且需要强一致，不参与读写分离路由
+	 */
+	@Bean
+	@SpringSessionDataSource
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("rbac-primary");
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, RoutingDataSourceProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < properties.getReplicas().size(); i++) {
+			RoutingDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+			HikariDataSource dataSource = new HikariDataSource();
+			primaryDataSource.copyStateTo(dataSource);
+			dataSource.setJdbcUrl(replica.getUrl());
+			dataSource.setUsername(replica.getUsername());
+			dataSource.setPassword(replica.getPassword());
+			dataSource.setPoolName("rbac-replica-" + i);
+			dataSource.setReadOnly(true);
+			meterRegistry.ifAvailable(
+					registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+			replicas.add(dataSource);
+		}
+
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicas);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	/**
+	 * Spring Session 按该名称查找会话读写使用的事务模板
+	 */
+	@Bean
+	public TransactionOperations springSessionTransactionOperations(HikariDataSource primaryDataSource) {
+		return new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+	}
+
+	@Bean
+	public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(RoutingDataSourceProperties properties) {
+		FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+				new ReadYourWritesFilter(properties.getStickyWindow()));
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+		return registration;
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.example.rbacdemo.config;
+
+import com.example.rbacdemo.datasource.RoutingDataSourceProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+	/**
+	 * 构建镜像时的 AppCDS 训练启动不连接数据库，跳过迁移。
+	 * <p>
+	 * AOT 模式下 spring.flyway.enabled 在构建时已固化，只能在运行时通过迁移策略跳过。
+	 * 本地内嵌副本没有复制链路，开启 app.datasource.routing.migrate-replicas 时对副本执行同样的迁移。
+	 */
+	@Bean
+	public FlywayMigrationStrategy flywayMigrationStrategy(Environment environment,
+			RoutingDataSourceProperties routingProperties) {
+		return flyway -> {
+			if (environment.getProperty("app.startup.training-run", Boolean.class, false)) {
+				log.info("训练启动，跳过数据库迁移");
+				return;
+			}
+			flyway.migrate();
+			if (routingProperties.isEnabled() && routingProperties.isMigrateReplicas()) {
+				for (RoutingDataSourceProperties.Replica replica : routingProperties.getReplicas()) {
+					Flyway.configure()
+						.configuration(flyway.getConfiguration())
+						.dataSource(replica.getUrl(), replica.getUsername(), replica.getPassword())
+						.load()
+						.migrate();
+				}
+			}
+		};
+	}
+
+}
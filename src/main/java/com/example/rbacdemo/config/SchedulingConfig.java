@@ -0,0 +1,13 @@
+package com.example.rbacdemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 启用 @Scheduled，定时任务使用 Spring Boot 自动配置的调度线程池（spring.task.scheduling.*）
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -1,37 +1,84 @@
 package com.example.rbacdemo.config;
 
+import com.example.rbacdemo.audit.AuditAuthenticationHandlers;
+import com.example.rbacdemo.audit.AuditLog;
+import com.example.rbacdemo.dashboard.DashboardViewService;
+import com.example.rbacdemo.security.RbacPersistentTokenRepository;
+import com.example.rbacdemo.security.RbacRememberMeServices;
+import com.example.rbacdemo.security.RememberMeProperties;
+import com.example.rbacdemo.security.RememberMeSeriesCache;
+import com.example.rbacdemo.session.SnapshotRefreshFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 public class SecurityConfig {
 
 	@Bean
-	public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+	public SecurityFilterChain securityFilterChain(HttpSecurity http, RbacRememberMeServices rememberMeServices,
+			RememberMeProperties rememberMeProperties, AuditLog auditLog, DashboardViewService dashboardViewService)
+			throws Exception {
+		AuthenticationSuccessHandler auditSuccessHandler = AuditAuthenticationHandlers.successHandler(auditLog,
+				"/dashboard");
 		http.csrf(AbstractHttpConfigurer::disable)
 			.authorizeHttpRequests(
-					auth -> auth.requestMatchers("/api/auth/**", "/login", "/register", "/css/**", "/js/**")
+					auth -> auth
+						.requestMatchers("/api/auth/**", "/login", "/register", "/css/**", "/js/**",
+								"/actuator/health/**")
 						.permitAll()
 						.anyRequest()
 						.authenticated())
 			.formLogin(form -> form.loginPage("/login")
 				.loginProcessingUrl("/login")
-				.defaultSuccessUrl("/dashboard")
+				.successHandler((request, response, authentication) -> {
+					// 登录时生成仪表板视图模型存入会话，页面访问无需再查询用户
+					dashboardViewService.remember(request, authentication);
+					auditSuccessHandler.onAuthenticationSuccess(request, response, authentication);
+				})
+				.failureHandler(AuditAuthenticationHandlers.failureHandler(auditLog, "/login?error", "username"))
 				.permitAll())
 			.logout(logout -> logout.logoutSuccessUrl("/login?logout").permitAll())
-			.rememberMe(remember -> remember.alwaysRemember(false).tokenValiditySeconds(86400));
+			.rememberMe(remember -> remember.rememberMeServices(rememberMeServices).key(rememberMeProperties.getKey()))
+			.addFilterAfter(new SnapshotRefreshFilter(), SecurityContextHolderFilter.class);
 		return http.build();
 	}
 
+	@Bean
+	public RbacRememberMeServices rememberMeServices(UserDetailsService userDetailsService,
+			RbacPersistentTokenRepository tokenRepository, RememberMeSeriesCache seriesCache,
+			RememberMeProperties properties) {
+		RbacRememberMeServices services = new RbacRememberMeServices(properties.getKey(), userDetailsService,
+				tokenRepository, seriesCache, properties.getBurstWindow());
+		services.setAlwaysRemember(false);
+		services.setTokenValiditySeconds((int) properties.getValidity().toSeconds());
+		return services;
+	}
+
+	@Bean
+	public static MethodSecurityExpressionHandler methodSecurityExpressionHandler(
+			PermissionEvaluator permissionEvaluator) {
+		DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+		handler.setPermissionEvaluator(permissionEvaluator);
+		return handler;
+	}
+
 	@Bean
 	public PasswordEncoder passwordEncoder() {
 		return new BCryptPasswordEncoder();
@@ -0,0 +1,40 @@
+package com.example.rbacdemo.config;
+
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.session.SessionAttributeCodec;
+import com.example.rbacdemo.session.SessionStoreMetricsPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+
+/**
+ * 会话存储配置：会话由 Spring Session JDBC 保存在数据库中（表结构见 V4 迁移），
+ * 去掉 spring-session-jdbc 依赖即回退到容器内存会话。
+ */
+@Configuration
+public class SessionConfig {
+
+	/**
+	 * Spring Session 按该名称查找会话属性的序列化服务
+	 */
+	@Bean("springSessionConversionService")
+	public ConversionService springSessionConversionService(AuthorityCatalogService authorityCatalogService,
+			MeterRegistry meterRegistry) {
+		SessionAttributeCodec codec = new SessionAttributeCodec(authorityCatalogService, meterRegistry,
+				getClass().getClassLoader());
+		GenericConversionService conversionService = new GenericConversionService();
+		conversionService.addConverter(Object.class, byte[].class, codec::serialize);
+		conversionService.addConverter(byte[].class, Object.class, codec::deserialize);
+		return conversionService;
+	}
+
+	@Bean
+	public static SessionStoreMetricsPostProcessor sessionStoreMetricsPostProcessor(
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		return new SessionStoreMetricsPostProcessor(meterRegistry);
+	}
+
+}
@@ -1,15 +1,30 @@
 package com.example.rbacdemo.config;
 
+import com.example.rbacdemo.degraded.DegradedModeInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
-public class WebConfig {
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+	private final DegradedModeInterceptor degradedModeInterceptor;
 
 	@Bean
 	public RestTemplate restTemplate() {
 		return new RestTemplate();
 	}
 
-}
\ No newline at end of file
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		// 登录虽是 POST 但不写数据库，降级期间照常处理
+		registry.addInterceptor(degradedModeInterceptor)
+			.addPathPatterns("/api/**")
+			.excludePathPatterns("/api/auth/login");
+	}
+
+}
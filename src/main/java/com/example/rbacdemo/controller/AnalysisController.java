@@ -0,0 +1,67 @@
+package com.example.rbacdemo.controller;
+
+import com.example.rbacdemo.analysis.ImpactSimulationService;
+import com.example.rbacdemo.analysis.RoleMiningService;
+import com.example.rbacdemo.dto.ImpactSimulationRequest;
+import com.example.rbacdemo.dto.ImpactSimulationResponse;
+import com.example.rbacdemo.dto.RoleMiningReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/analysis")
+@RequiredArgsConstructor
+public class AnalysisController {
+
+	private final RoleMiningService roleMiningService;
+
+	private final ImpactSimulationService impactSimulationService;
+
+	/**
+	 * 开始当前租户的角色冗余分析，大数据量下需要数分钟，结果通过 GET 获取
+	 * @return 是否已开始
+	 */
+	@PostMapping("/role-mining")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<String> startRoleMining() {
+		if (!roleMiningService.start()) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body("分析正在进行");
+		}
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body("分析已开始");
+	}
+
+	/**
+	 * 获取当前租户最近一次角色冗余分析的报告
+	 * @return 分析报告，尚未分析过时返回 404
+	 */
+	@GetMapping("/role-mining")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<RoleMiningReport> roleMiningReport() {
+		RoleMiningReport report = roleMiningService.getLastReport();
+		return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+	}
+
+	/**
+	 * 模拟授权变更的影响，不修改任何数据
+	 * @param request 拟议的角色权限增删、用户角色增删
+	 * @return 受影响的用户数、用户样本和各权限的获得/失去人数，授权矩阵尚未构建完成时返回 503
+	 */
+	@PostMapping("/impact")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<ImpactSimulationResponse> simulateImpact(@RequestBody ImpactSimulationRequest request) {
+		ImpactSimulationResponse response = impactSimulationService.simulate(request);
+		if (response == null) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+		}
+		return ResponseEntity.ok(response);
+	}
+
+}
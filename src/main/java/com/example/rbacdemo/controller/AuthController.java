@@ -1,21 +1,30 @@
 package com.example.rbacdemo.controller;
 
+import com.example.rbacdemo.audit.AuditLog;
+import com.example.rbacdemo.dashboard.DashboardViewService;
+import com.example.rbacdemo.degraded.DatabaseCircuitBreaker;
+import com.example.rbacdemo.dto.AvailabilityResponse;
 import com.example.rbacdemo.dto.LoginRequest;
 import com.example.rbacdemo.dto.LoginResponse;
 import com.example.rbacdemo.dto.RegisterRequest;
 import com.example.rbacdemo.dto.UserResponse;
 import com.example.rbacdemo.model.User;
+import com.example.rbacdemo.security.RbacUserDetails;
 import com.example.rbacdemo.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -27,6 +36,12 @@ public class AuthController {
 
 	private final AuthenticationManager authenticationManager;
 
+	private final AuditLog auditLog;
+
+	private final DatabaseCircuitBreaker circuitBreaker;
+
+	private final DashboardViewService dashboardViewService;
+
 	/**
 	 * 用户注册API
 	 * @param request 注册请求信息
@@ -46,19 +61,54 @@ public class AuthController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(response);
 	}
 
+	/**
+	 * 用户名/邮箱可用性检查API，供注册表单实时校验
+	 * @param username 用户名
+	 * @param email 邮箱
+	 * @return 各项是否可用，未传的参数不检查
+	 */
+	@GetMapping("/availability")
+	public ResponseEntity<AvailabilityResponse> availability(@RequestParam(required = false) String username,
+			@RequestParam(required = false) String email) {
+		AvailabilityResponse response = AvailabilityResponse.builder()
+			.username(username)
+			.usernameAvailable(username != null ? userService.isUsernameAvailable(username) : null)
+			.email(email)
+			.emailAvailable(email != null ? userService.isEmailAvailable(email) : null)
+			.build();
+
+		return ResponseEntity.ok(response);
+	}
+
 	/**
 	 * 用户登录API
 	 * @param request 登录请求信息
+	 * @param httpRequest HTTP 请求，用于把仪表板视图模型存入会话
 	 * @return 登录成功的令牌和用户信息
 	 */
 	@PostMapping("/login")
-	public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest request) {
-		Authentication authentication = authenticationManager
-			.authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+	public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+		Authentication authentication;
+		try {
+			authentication = authenticationManager
+				.authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+		}
+		catch (AuthenticationException ex) {
+			auditLog.loginFailed(request.getUsername(), false);
+			throw ex;
+		}
 
 		SecurityContextHolder.getContext().setAuthentication(authentication);
+		dashboardViewService.remember(httpRequest, authentication);
 
-		User user = userService.findByUsername(request.getUsername());
+		// 数据库熔断期间由缓存的用户信息完成认证，响应只含主体中的信息，也不记录最后登录时间
+		User authenticated = principalAsUser(authentication);
+		User user = circuitBreaker.call("findByUsername", () -> userService.findByUsername(request.getUsername()),
+				() -> authenticated);
+		auditLog.loginSucceeded(user.getId(), user.getUsername(), false);
+		if (!circuitBreaker.isDegraded()) {
+			userService.recordLogin(user.getId());
+		}
 
 		LoginResponse response = LoginResponse.builder()
 			.userId(user.getId())
@@ -70,4 +120,16 @@ public class AuthController {
 		return ResponseEntity.ok(response);
 	}
 
+	private static User principalAsUser(Authentication authentication) {
+		if (!(authentication.getPrincipal() instanceof RbacUserDetails details)) {
+			return null;
+		}
+		User user = new User();
+		user.setId(details.getUserId());
+		user.setTenantId(details.getTenantId());
+		user.setUsername(details.getUsername());
+		user.setEmail(details.getEmail());
+		return user;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.rbacdemo.controller;
+
+import com.example.rbacdemo.dto.PermissionCheckResponse;
+import com.example.rbacdemo.service.AuthorizationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/authz")
+@RequiredArgsConstructor
+public class AuthorizationController {
+
+	private static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
+	private final AuthorizationService authorizationService;
+
+	/**
+	 * 检查用户对资源的权限
+	 * @param permission 权限名称
+	 * @param resourceType 资源类型，不传表示只检查全局权限
+	 * @param resourceId 资源ID
+	 * @param username 被检查的用户名，不传表示当前登录用户；只有管理员可以检查其他用户
+	 * @param authentication 当前认证信息
+	 * @return 检查结果
+	 */
+	@GetMapping("/check")
+	public ResponseEntity<PermissionCheckResponse> check(@RequestParam String permission,
+			@RequestParam(required = false) String resourceType, @RequestParam(required = false) String resourceId,
+			@RequestParam(required = false) String username, Authentication authentication) {
+		String subject = authentication.getName();
+		if (username != null && !username.equals(subject)) {
+			// 普通用户逐项查询他人的判定结果，等同于枚举他人的权限
+			if (!isAdmin(authentication)) {
+				throw new AccessDeniedException("只有管理员可以检查其他用户的权限");
+			}
+			subject = username;
+		}
+
+		PermissionCheckResponse response = PermissionCheckResponse.builder()
+			.username(subject)
+			.permission(permission)
+			.resourceType(resourceType)
+			.resourceId(resourceId)
+			.granted(authorizationService.isGranted(subject, permission, resourceType, resourceId))
+			.build();
+
+		return ResponseEntity.ok(response);
+	}
+
+	private static boolean isAdmin(Authentication authentication) {
+		for (GrantedAuthority authority : authentication.getAuthorities()) {
+			if (ADMIN_AUTHORITY.equals(authority.getAuthority())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -28,7 +28,7 @@ public class PermissionController {
 		List<Permission> permissions = permissionService.findAllPermissions();
 
 		List<PermissionResponse> response = permissions.stream()
-			.map(permission -> PermissionResponse.builder().id(permission.getId()).name(permission.getName()).build())
+			.map(PermissionResponse::from)
 			.collect(Collectors.toList());
 
 		return ResponseEntity.ok(response);
@@ -41,14 +41,10 @@ public class PermissionController {
 	 */
 	@PostMapping
 	public ResponseEntity<PermissionResponse> createPermission(@RequestBody PermissionRequest request) {
-		Permission permission = permissionService.createPermission(request.getName());
+		Permission permission = permissionService.createPermission(request.getName(), request.getResourceType(),
+				request.getResourcePattern());
 
-		PermissionResponse response = PermissionResponse.builder()
-			.id(permission.getId())
-			.name(permission.getName())
-			.build();
-
-		return ResponseEntity.status(HttpStatus.CREATED).body(response);
+		return ResponseEntity.status(HttpStatus.CREATED).body(PermissionResponse.from(permission));
 	}
 
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.example.rbacdemo.controller;
 
 import com.example.rbacdemo.dto.RegisterRequest;
+import com.example.rbacdemo.tenant.TenantContext;
+import com.example.rbacdemo.tenant.TenantProperties;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +14,8 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 
@@ -21,6 +25,8 @@ public class RegisterController {
 
 	private final RestTemplate restTemplate;
 
+	private final TenantProperties tenantProperties;
+
 	@Value("${app.api.base-url:http://localhost:8080}")
 	private String apiBaseUrl;
 
@@ -40,8 +46,10 @@ public class RegisterController {
 		}
 
 		try {
-			ResponseEntity<?> response = restTemplate.postForEntity(apiBaseUrl + "/api/auth/register", registerRequest,
-					Object.class);
+			HttpHeaders headers = new HttpHeaders();
+			headers.set(tenantProperties.getHeader(), TenantContext.getTenantId());
+			ResponseEntity<?> response = restTemplate.postForEntity(apiBaseUrl + "/api/auth/register",
+					new HttpEntity<>(registerRequest, headers), Object.class);
 
 			if (response.getStatusCode().is2xxSuccessful()) {
 				redirectAttributes.addFlashAttribute("success", "注册成功！请登录");
@@ -11,7 +11,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/roles")
@@ -26,17 +25,7 @@ public class RoleController {
 	 */
 	@GetMapping
 	public ResponseEntity<List<RoleResponse>> getAllRoles() {
-		List<Role> roles = roleService.findAllRoles();
-
-		List<RoleResponse> response = roles.stream()
-			.map(role -> RoleResponse.builder()
-				.id(role.getId())
-				.name(role.getName())
-				.permissions(role.getPermissions())
-				.build())
-			.collect(Collectors.toList());
-
-		return ResponseEntity.ok(response);
+		return ResponseEntity.ok(roleService.findAllRoles());
 	}
 
 	/**
@@ -48,13 +37,7 @@ public class RoleController {
 	public ResponseEntity<RoleResponse> createRole(@RequestBody RoleRequest request) {
 		Role role = roleService.createRole(request.getName());
 
-		RoleResponse response = RoleResponse.builder()
-			.id(role.getId())
-			.name(role.getName())
-			.permissions(role.getPermissions())
-			.build();
-
-		return ResponseEntity.status(HttpStatus.CREATED).body(response);
+		return ResponseEntity.status(HttpStatus.CREATED).body(RoleResponse.from(role));
 	}
 
 	/**
@@ -71,4 +54,29 @@ public class RoleController {
 		return ResponseEntity.ok("权限分配成功");
 	}
 
+	/**
+	 * 为角色添加单个权限
+	 * @param roleId 角色ID
+	 * @param permissionId 权限ID
+	 * @return 添加结果
+	 */
+	@PostMapping("/{roleId}/permissions/{permissionId}")
+	public ResponseEntity<String> addPermissionToRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
+		roleService.addPermissionToRole(roleId, permissionId);
+		return ResponseEntity.ok("权限添加成功");
+	}
+
+	/**
+	 * 移除角色的单个权限
+	 * @param roleId 角色ID
+	 * @param permissionId 权限ID
+	 * @return 移除结果
+	 */
+	@DeleteMapping("/{roleId}/permissions/{permissionId}")
+	public ResponseEntity<String> removePermissionFromRole(@PathVariable Long roleId,
+			@PathVariable Long permissionId) {
+		roleService.removePermissionFromRole(roleId, permissionId);
+		return ResponseEntity.ok("权限移除成功");
+	}
+
 }
\ No newline at end of file
@@ -70,4 +70,28 @@ public class UserController {
 		return ResponseEntity.ok("角色分配成功");
 	}
 
+	/**
+	 * 为用户添加单个角色
+	 * @param userId 用户ID
+	 * @param roleId 角色ID
+	 * @return 添加结果
+	 */
+	@PostMapping("/{userId}/roles/{roleId}")
+	public ResponseEntity<String> addRoleToUser(@PathVariable Long userId, @PathVariable Long roleId) {
+		userService.addRoleToUser(userId, roleId);
+		return ResponseEntity.ok("角色添加成功");
+	}
+
+	/**
+	 * 移除用户的单个角色
+	 * @param userId 用户ID
+	 * @param roleId 角色ID
+	 * @return 移除结果
+	 */
+	@DeleteMapping("/{userId}/roles/{roleId}")
+	public ResponseEntity<String> removeRoleFromUser(@PathVariable Long userId, @PathVariable Long roleId) {
+		userService.removeRoleFromUser(userId, roleId);
+		return ResponseEntity.ok("角色移除成功");
+	}
+
 }
\ No newline at end of file
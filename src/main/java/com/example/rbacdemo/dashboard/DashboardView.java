@@ -0,0 +1,34 @@
+package com.example.rbacdemo.dashboard;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * 仪表板页面的用户信息视图模型，登录时生成一次并保存在会话中。
+ * <p>
+ * 角色与权限不在此保存，由会话中的授权快照按需渲染。
+ */
+@Value
+public class DashboardView implements Serializable {
+
+	String tenantId;
+
+	Long userId;
+
+	String username;
+
+	String email;
+
+	/**
+	 * 会话固定防护会把旧会话的属性迁移到新会话，切换登录用户后旧视图不能再使用
+	 * @param tenantId 当前认证用户的租户ID
+	 * @param userId 当前认证用户的ID
+	 * @return 是否属于该用户
+	 */
+	public boolean belongsTo(String tenantId, Long userId) {
+		return Objects.equals(this.tenantId, tenantId) && Objects.equals(this.userId, userId);
+	}
+
+}
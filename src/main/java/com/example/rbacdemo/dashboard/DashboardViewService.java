@@ -0,0 +1,175 @@
+package com.example.rbacdemo.dashboard;
+
+import com.example.rbacdemo.degraded.DatabaseCircuitBreaker;
+import com.example.rbacdemo.model.User;
+import com.example.rbacdemo.security.AuthoritySnapshot;
+import com.example.rbacdemo.security.RbacUserDetails;
+import com.example.rbacdemo.service.UserService;
+import com.example.rbacdemo.session.CompactAuthentication;
+import com.example.rbacdemo.tenant.TenantContext;
+import com.example.rbacdemo.tenant.TenantProperties;
+import com.example.rbacdemo.tenant.TenantScopedCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * 仪表板页面数据。
+ * <p>
+ * 用户信息在登录时生成 {@link DashboardView} 存入会话，访问页面不再查询数据库；
+ * 角色与权限列表的 HTML 片段按授权快照（版本号 + 角色ID + 权限ID）缓存，角色组合相同的用户共用，
+ * 授权变更使版本号递增后旧片段不再命中，由 LRU 自然淘汰。
+ */
+@Service
+public class DashboardViewService {
+
+	private static final String SESSION_ATTRIBUTE = DashboardView.class.getName();
+
+	private static final String AUTHORITIES_TEMPLATE = "fragments/authorities";
+
+	private static final Set<String> AUTHORITIES_FRAGMENT = Set.of("authorities");
+
+	private final ITemplateEngine templateEngine;
+
+	private final UserService userService;
+
+	private final DatabaseCircuitBreaker circuitBreaker;
+
+	private final TenantScopedCache<String> fragments;
+
+	public DashboardViewService(ITemplateEngine templateEngine, UserService userService,
+			DatabaseCircuitBreaker circuitBreaker, TenantProperties tenantProperties) {
+		this.templateEngine = templateEngine;
+		this.userService = userService;
+		this.circuitBreaker = circuitBreaker;
+		this.fragments = new TenantScopedCache<>(tenantProperties);
+	}
+
+	/**
+	 * 登录成功后由认证主体生成视图模型存入会话，不查询数据库
+	 * @param request 登录请求
+	 * @param authentication 认证结果
+	 */
+	public void remember(HttpServletRequest request, Authentication authentication) {
+		HttpSession session = request.getSession(false);
+		if (session != null && authentication.getPrincipal() instanceof RbacUserDetails details) {
+			session.setAttribute(SESSION_ATTRIBUTE, new DashboardView(details.getTenantId(), details.getUserId(),
+					details.getUsername(), details.getEmail()));
+		}
+	}
+
+	/**
+	 * 获取当前用户的视图模型。
+	 * <p>
+	 * 会话中没有时（记住我自动登录、升级前创建的会话）补建一次：认证主体带邮箱时直接生成，
+	 * 否则查询数据库；数据库熔断期间只返回用户名，且不写入会话，恢复后再补建。
+	 * @param session 当前会话
+	 * @param authentication 当前认证信息
+	 * @return 视图模型
+	 */
+	public DashboardView viewOf(HttpSession session, Authentication authentication) {
+		String tenantId = tenantIdOf(authentication);
+		Long userId = userIdOf(authentication);
+		if (session.getAttribute(SESSION_ATTRIBUTE) instanceof DashboardView cached
+				&& cached.belongsTo(tenantId, userId)) {
+			return cached;
+		}
+
+		String username = authentication.getName();
+		DashboardView view;
+		if (authentication.getPrincipal() instanceof RbacUserDetails details) {
+			view = new DashboardView(tenantId, userId, username, details.getEmail());
+		}
+		else {
+			User user = circuitBreaker.call("findByUsername", () -> userService.findByUsername(username),
+					() -> null);
+			if (user == null) {
+				return new DashboardView(tenantId, userId, username, null);
+			}
+			view = new DashboardView(tenantId, userId, username, user.getEmail());
+		}
+		session.setAttribute(SESSION_ATTRIBUTE, view);
+		return view;
+	}
+
+	/**
+	 * 渲染角色与权限列表片段，相同授权快照只渲染一次
+	 * @param authentication 当前认证信息
+	 * @return HTML 片段，内容已经过转义
+	 */
+	public String authoritiesHtml(Authentication authentication) {
+		// 先解析权限：会话中的快照落后于当前授权版本时会在这里刷新，缓存键要用刷新后的快照
+		Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+		AuthoritySnapshot snapshot = snapshotOf(authentication);
+		if (snapshot == null) {
+			return render(authorities);
+		}
+		return fragments.get(tenantIdOf(authentication), fragmentKey(snapshot), key -> render(authorities));
+	}
+
+	private String render(Collection<? extends GrantedAuthority> authorities) {
+		// 将权限按类型分组（ROLE_和普通权限）
+		List<String> roles = new ArrayList<>();
+		List<String> permissions = new ArrayList<>();
+		for (GrantedAuthority authority : authorities) {
+			String name = authority.getAuthority();
+			if (name.startsWith("ROLE_")) {
+				roles.add(name);
+			}
+			else {
+				permissions.add(name);
+			}
+		}
+		roles.sort(null);
+		permissions.sort(null);
+
+		Context context = new Context(LocaleContextHolder.getLocale());
+		context.setVariable("roles", roles);
+		context.setVariable("permissions", permissions);
+		return templateEngine.process(AUTHORITIES_TEMPLATE, AUTHORITIES_FRAGMENT, context);
+	}
+
+	private static String fragmentKey(AuthoritySnapshot snapshot) {
+		return snapshot.getVersion() + ":" + joinIds(snapshot.getRoleIds()) + ":"
+				+ joinIds(snapshot.getPermissionIds());
+	}
+
+	private static String joinIds(long[] ids) {
+		return LongStream.of(ids).mapToObj(Long::toString).collect(Collectors.joining(","));
+	}
+
+	private static AuthoritySnapshot snapshotOf(Authentication authentication) {
+		if (authentication instanceof CompactAuthentication compact) {
+			return compact.getSnapshot();
+		}
+		return authentication.getPrincipal() instanceof RbacUserDetails details ? details.getSnapshot() : null;
+	}
+
+	private static String tenantIdOf(Authentication authentication) {
+		if (authentication instanceof CompactAuthentication compact) {
+			return compact.getTenantId();
+		}
+		return authentication.getPrincipal() instanceof RbacUserDetails details ? details.getTenantId()
+				: TenantContext.getTenantId();
+	}
+
+	private static Long userIdOf(Authentication authentication) {
+		if (authentication instanceof CompactAuthentication compact) {
+			return compact.getUserId();
+		}
+		return authentication.getPrincipal() instanceof RbacUserDetails details ? details.getUserId() : null;
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.example.rbacdemo.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离路由：只读事务轮询分发到副本，其余（写事务、无事务访问）走主库。
+ * <p>
+ * 路由依赖事务的只读标记，必须包装在 {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * 中使用，保证获取连接时事务同步状态已经就绪。
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	static final String PRIMARY = "primary";
+
+	private final List<String> replicaKeys = new ArrayList<>();
+
+	private final AtomicInteger counter = new AtomicInteger();
+
+	public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas) {
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			String key = "replica-" + i;
+			targets.put(key, replicas.get(i));
+			replicaKeys.add(key);
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		if (readOnly && !replicaKeys.isEmpty() && !ReadYourWritesContext.isPinnedToPrimary()) {
+			return replicaKeys.get(Math.floorMod(counter.getAndIncrement(), replicaKeys.size()));
+		}
+		if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+			if (!ReadYourWritesContext.hasWritten() && TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCompletion(int status) {
+						ReadYourWritesContext.transactionCompleted();
+					}
+				});
+			}
+			ReadYourWritesContext.markWritten();
+		}
+		return PRIMARY;
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.example.rbacdemo.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的读己之写状态：是否应将读请求固定到主库，以及本次请求是否已发生写操作。
+ * <p>
+ * 请求线程上的状态由 {@link ReadYourWritesFilter} 在请求结束时清除；异步任务、预热、定时任务等非请求线程
+ * 没有人清除，写事务结束时即清除，避免线程池中的线程永久固定到主库。
+ */
+public final class ReadYourWritesContext {
+
+	private static final ThreadLocal<State> CURRENT = ThreadLocal.withInitial(State::new);
+
+	private ReadYourWritesContext() {
+	}
+
+	/**
+	 * 标记当前线程正在处理 HTTP 请求，写事务结束后保留状态直到请求结束
+	 */
+	public static void beginRequest() {
+		CURRENT.get().requestScoped = true;
+	}
+
+	public static void pinToPrimary() {
+		CURRENT.get().pinned = true;
+	}
+
+	/**
+	 * 在主库上执行一段读操作，结束后恢复原来的路由状态；用于必须读到最新数据、又不应固定整个请求的场景
+	 * @param action 读操作，需在其内部开启事务
+	 * @return 读操作的返回值
+	 */
+	public static <T> T onPrimary(Supplier<T> action) {
+		State state = CURRENT.get();
+		boolean pinned = state.pinned;
+		state.pinned = true;
+		try {
+			return action.get();
+		}
+		finally {
+			state.pinned = pinned;
+		}
+	}
+
+	public static boolean isPinnedToPrimary() {
+		return CURRENT.get().pinned;
+	}
+
+	/**
+	 * 记录发生了写操作，本线程后续的读也固定到主库
+	 */
+	public static void markWritten() {
+		State state = CURRENT.get();
+		state.written = true;
+		state.pinned = true;
+	}
+
+	public static boolean hasWritten() {
+		return CURRENT.get().written;
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * 事务结束时调用，非请求线程上清除状态
+	 */
+	static void transactionCompleted() {
+		if (!CURRENT.get().requestScoped) {
+			CURRENT.remove();
+		}
+	}
+
+	private static final class State {
+
+		private boolean pinned;
+
+		private boolean written;
+
+		private boolean requestScoped;
+
+	}
+
+}
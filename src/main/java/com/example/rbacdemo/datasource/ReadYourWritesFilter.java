@@ -0,0 +1,49 @@
+package com.example.rbacdemo.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 会话发生写操作后，在粘滞窗口内把该会话的读请求固定到主库，避免读到副本上尚未同步的数据。
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	static final String LAST_WRITE_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".LAST_WRITE";
+
+	private final long stickyWindowMillis;
+
+	public ReadYourWritesFilter(Duration stickyWindow) {
+		this.stickyWindowMillis = stickyWindow.toMillis();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ReadYourWritesContext.beginRequest();
+		HttpSession session = request.getSession(false);
+		if (session != null && session.getAttribute(LAST_WRITE_ATTRIBUTE) instanceof Long lastWrite
+				&& System.currentTimeMillis() - lastWrite < stickyWindowMillis) {
+			ReadYourWritesContext.pinToPrimary();
+		}
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			if (ReadYourWritesContext.hasWritten()) {
+				HttpSession current = request.getSession(false);
+				if (current != null) {
+					current.setAttribute(LAST_WRITE_ATTRIBUTE, System.currentTimeMillis());
+				}
+			}
+			ReadYourWritesContext.clear();
+		}
+	}
+
+}
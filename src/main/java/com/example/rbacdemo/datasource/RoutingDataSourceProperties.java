@@ -0,0 +1,45 @@
+package com.example.rbacdemo.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class RoutingDataSourceProperties {
+
+	/**
+	 * 是否启用读写分离路由
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 会话发生写操作后，读请求继续走主库的时长（读己之写）
+	 */
+	private Duration stickyWindow = Duration.ofSeconds(5);
+
+	/**
+	 * 启动时对副本执行数据库迁移，仅用于没有复制链路的本地内嵌副本
+	 */
+	private boolean migrateReplicas = false;
+
+	/**
+	 * 只读副本列表，连接池参数沿用主库的 spring.datasource.hikari 配置
+	 */
+	private List<Replica> replicas = new ArrayList<>();
+
+	@Data
+	public static class Replica {
+
+		private String url;
+
+		private String username;
+
+		private String password;
+
+	}
+
+}
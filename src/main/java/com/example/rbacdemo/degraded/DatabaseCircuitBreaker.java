@@ -0,0 +1,236 @@
+package com.example.rbacdemo.degraded;
+
+import com.example.rbacdemo.exception.DegradedModeException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * 认证路径上数据库调用的熔断器。
+ * <p>
+ * 在最近 windowSize 次调用的滑动窗口内统计慢调用和失败比例，任一比例超过阈值即熔断：熔断期间调用直接抛出
+ * {@link DegradedModeException}，不再占用连接池等待数据库；到期后放行少量探测调用，全部成功且不慢才恢复。
+ * 调用方可提供回退值（最近一次成功加载的数据），回退时记录指标并在响应头 {@value #STALE_HEADER} 中标明结果可能过期。
+ * <p>
+ * 指标：
+ * <ul>
+ * <li>rbac.degraded.state：0 正常，1 熔断，2 半开</li>
+ * <li>rbac.degraded.trips：熔断次数</li>
+ * <li>rbac.degraded.rejected：熔断期间被拒绝的调用，按 operation 区分</li>
+ * <li>rbac.degraded.stale：用过期数据回答的调用，按 operation 区分</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class DatabaseCircuitBreaker {
+
+	public static final String STALE_HEADER = "X-Rbac-Stale";
+
+	public enum State {
+
+		CLOSED, OPEN, HALF_OPEN
+
+	}
+
+	private final DegradedModeProperties properties;
+
+	private final MeterRegistry meterRegistry;
+
+	private final long slowCallNanos;
+
+	private final boolean[] slowCalls;
+
+	private final boolean[] failedCalls;
+
+	private int position;
+
+	private int recorded;
+
+	private int slowCount;
+
+	private int failedCount;
+
+	private int halfOpenIssued;
+
+	private int halfOpenSucceeded;
+
+	private volatile State state = State.CLOSED;
+
+	private volatile long openedAt;
+
+	public DatabaseCircuitBreaker(DegradedModeProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+		this.slowCalls = new boolean[Math.max(1, properties.getWindowSize())];
+		this.failedCalls = new boolean[slowCalls.length];
+		Gauge.builder("rbac.degraded.state", this, breaker -> breaker.state.ordinal())
+			.description("数据库熔断状态：0 正常，1 熔断，2 半开")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * 经熔断器执行数据库调用
+	 * @param operation 调用名称，用于指标和日志
+	 * @param call 数据库调用
+	 * @return 调用结果
+	 * @throws DegradedModeException 熔断期间
+	 */
+	public <T> T call(String operation, Supplier<T> call) {
+		if (!properties.isEnabled()) {
+			return call.get();
+		}
+		acquirePermission(operation);
+		long start = System.nanoTime();
+		try {
+			T result = call.get();
+			record(System.nanoTime() - start, false);
+			return result;
+		}
+		catch (RuntimeException ex) {
+			// 业务异常（如用户不存在）说明数据库正常应答，只按耗时统计
+			record(System.nanoTime() - start, isDatabaseFailure(ex));
+			throw ex;
+		}
+	}
+
+	/**
+	 * 经熔断器执行数据库调用，熔断或数据库出错时改用回退值
+	 * @param operation 调用名称，用于指标和日志
+	 * @param call 数据库调用
+	 * @param fallback 最近一次成功加载的数据，没有时返回 null，此时原异常照常抛出
+	 * @return 调用结果或回退值
+	 */
+	public <T> T call(String operation, Supplier<T> call, Supplier<T> fallback) {
+		try {
+			return call(operation, call);
+		}
+		catch (RuntimeException ex) {
+			if (!(ex instanceof DegradedModeException) && !isDatabaseFailure(ex)) {
+				throw ex;
+			}
+			T value = fallback.get();
+			if (value == null) {
+				throw ex;
+			}
+			markStale(operation);
+			return value;
+		}
+	}
+
+	/**
+	 * 标记当前请求的结果来自过期数据
+	 * @param operation 调用名称
+	 */
+	public void markStale(String operation) {
+		meterRegistry.counter("rbac.degraded.stale", "operation", operation).increment();
+		if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+				&& attributes.getResponse() != null) {
+			attributes.getResponse().setHeader(STALE_HEADER, "true");
+		}
+	}
+
+	/**
+	 * @return 是否处于熔断或半开状态，此时写操作应直接拒绝
+	 */
+	public boolean isDegraded() {
+		return properties.isEnabled() && state != State.CLOSED;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	private void acquirePermission(String operation) {
+		if (state == State.CLOSED) {
+			return;
+		}
+		synchronized (this) {
+			if (state == State.OPEN && System.nanoTime() - openedAt >= properties.getOpenDuration().toNanos()) {
+				state = State.HALF_OPEN;
+				halfOpenIssued = 0;
+				halfOpenSucceeded = 0;
+				log.info("数据库熔断到期，放行探测调用");
+			}
+			if (state == State.CLOSED) {
+				return;
+			}
+			if (state == State.HALF_OPEN && halfOpenIssued < properties.getHalfOpenCalls()) {
+				halfOpenIssued++;
+				return;
+			}
+		}
+		meterRegistry.counter("rbac.degraded.rejected", "operation", operation).increment();
+		throw new DegradedModeException("数据库不可用，暂停访问: " + operation);
+	}
+
+	private synchronized void record(long elapsedNanos, boolean failure) {
+		boolean slow = elapsedNanos >= slowCallNanos;
+		if (state == State.HALF_OPEN) {
+			if (slow || failure) {
+				trip(failure ? "探测调用失败" : "探测调用过慢");
+			}
+			else if (++halfOpenSucceeded >= properties.getHalfOpenCalls()) {
+				state = State.CLOSED;
+				resetWindow();
+				log.info("数据库恢复，退出降级模式");
+			}
+			return;
+		}
+		if (state != State.CLOSED) {
+			// 熔断前已放行的调用，结果不再计入
+			return;
+		}
+		if (recorded == slowCalls.length) {
+			slowCount -= slowCalls[position] ? 1 : 0;
+			failedCount -= failedCalls[position] ? 1 : 0;
+		}
+		else {
+			recorded++;
+		}
+		slowCalls[position] = slow;
+		failedCalls[position] = failure;
+		slowCount += slow ? 1 : 0;
+		failedCount += failure ? 1 : 0;
+		position = (position + 1) % slowCalls.length;
+
+		if (recorded < properties.getMinimumCalls()) {
+			return;
+		}
+		if (failedCount >= properties.getFailureRateThreshold() * recorded) {
+			trip("最近 " + recorded + " 次调用失败 " + failedCount + " 次");
+		}
+		else if (slowCount >= properties.getSlowCallRateThreshold() * recorded) {
+			trip("最近 " + recorded + " 次调用慢调用 " + slowCount + " 次");
+		}
+	}
+
+	private void trip(String reason) {
+		state = State.OPEN;
+		openedAt = System.nanoTime();
+		resetWindow();
+		meterRegistry.counter("rbac.degraded.trips").increment();
+		log.warn("{}，数据库熔断 {}，进入降级模式", reason, properties.getOpenDuration());
+	}
+
+	private void resetWindow() {
+		position = 0;
+		recorded = 0;
+		slowCount = 0;
+		failedCount = 0;
+	}
+
+	private static boolean isDatabaseFailure(RuntimeException ex) {
+		return ex instanceof DataAccessException || ex instanceof TransactionException
+				|| ex instanceof PersistenceException;
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.example.rbacdemo.degraded;
+
+import com.example.rbacdemo.exception.DegradedModeException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * 降级期间直接拒绝写请求（注册、分配角色与权限等），不进入事务，也不排队等待数据库连接
+ */
+@Component
+@RequiredArgsConstructor
+public class DegradedModeInterceptor implements HandlerInterceptor {
+
+	private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+	private final DatabaseCircuitBreaker circuitBreaker;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (circuitBreaker.isDegraded() && !READ_METHODS.contains(request.getMethod())) {
+			throw new DegradedModeException("数据库不可用，暂不接受写操作");
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.rbacdemo.degraded;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.degraded")
+public class DegradedModeProperties {
+
+	/**
+	 * 是否启用数据库熔断，关闭后认证路径上的查询直接访问数据库
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * 滑动窗口内统计的最近调用次数
+	 */
+	private int windowSize = 50;
+
+	/**
+	 * 窗口内至少有这么多次调用才计算比例，避免低流量时一两次慢查询就熔断
+	 */
+	private int minimumCalls = 10;
+
+	/**
+	 * 耗时超过该值的调用记为慢调用
+	 */
+	private Duration slowCallThreshold = Duration.ofMillis(500);
+
+	/**
+	 * 慢调用比例达到该值时熔断
+	 */
+	private double slowCallRateThreshold = 0.5;
+
+	/**
+	 * 失败比例达到该值时熔断
+	 */
+	private double failureRateThreshold = 0.5;
+
+	/**
+	 * 熔断持续时间，到期后放行少量探测调用
+	 */
+	private Duration openDuration = Duration.ofSeconds(10);
+
+	/**
+	 * 半开状态下放行的探测调用数，全部成功且不慢才恢复
+	 */
+	private int halfOpenCalls = 3;
+
+}
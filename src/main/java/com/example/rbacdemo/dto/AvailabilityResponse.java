@@ -0,0 +1,28 @@
+package com.example.rbacdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+
+	private String username;
+
+	/**
+	 * 用户名是否可用，未查询用户名时为 null
+	 */
+	private Boolean usernameAvailable;
+
+	private String email;
+
+	/**
+	 * 邮箱是否可用，未查询邮箱时为 null
+	 */
+	private Boolean emailAvailable;
+
+}
@@ -0,0 +1,62 @@
+package com.example.rbacdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 拟议的授权变更，只用于模拟，不会写入数据库
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImpactSimulationRequest {
+
+	private List<RoleChange> roleChanges;
+
+	private List<UserChange> userChanges;
+
+	/**
+	 * 返回的受影响用户样本数，不传使用默认值，超过 app.analysis.max-sample-size 时按上限返回
+	 */
+	private Integer sampleSize;
+
+	/**
+	 * 角色增删权限
+	 */
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class RoleChange {
+
+		private Long roleId;
+
+		private List<Long> addPermissionIds;
+
+		private List<Long> removePermissionIds;
+
+	}
+
+	/**
+	 * 用户增删角色
+	 */
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class UserChange {
+
+		private Long userId;
+
+		private List<Long> addRoleIds;
+
+		private List<Long> removeRoleIds;
+
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.example.rbacdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 授权变更的影响：哪些用户的有效权限会变化，每个权限被多少用户获得或失去
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImpactSimulationResponse {
+
+	/**
+	 * 模拟所用模型的授权版本号与读取时间，之后的变更不在模拟范围内
+	 */
+	private long authorityVersion;
+
+	private Date modelReadAt;
+
+	private long durationMillis;
+
+	/**
+	 * 持有被修改角色或被直接修改角色的用户数
+	 */
+	private int candidateUserCount;
+
+	/**
+	 * 有效权限实际发生变化的用户数
+	 */
+	private int affectedUserCount;
+
+	private int usersGaining;
+
+	private int usersLosing;
+
+	private List<AffectedUser> sampleUsers;
+
+	private List<PermissionImpact> permissionImpacts;
+
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class AffectedUser {
+
+		private Long userId;
+
+		private String username;
+
+		private List<String> gained;
+
+		private List<String> lost;
+
+	}
+
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class PermissionImpact {
+
+		private Long permissionId;
+
+		private String permission;
+
+		private int gainedBy;
+
+		private int lostBy;
+
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.example.rbacdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionCheckResponse {
+
+	private String username;
+
+	private String permission;
+
+	private String resourceType;
+
+	private String resourceId;
+
+	private boolean granted;
+
+}
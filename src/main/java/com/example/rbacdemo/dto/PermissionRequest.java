@@ -13,4 +13,8 @@ public class PermissionRequest {
 
 	private String name;
 
+	private String resourceType;
+
+	private String resourcePattern;
+
 }
\ No newline at end of file
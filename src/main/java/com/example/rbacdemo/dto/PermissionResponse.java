@@ -1,18 +1,35 @@
 package com.example.rbacdemo.dto;
 
-import lombok.AllArgsConstructor;
+import com.example.rbacdemo.model.Permission;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-@Data
+@Value
 @Builder
-@NoArgsConstructor
-@AllArgsConstructor
 public class PermissionResponse {
 
-	private Long id;
+	Long id;
 
-	private String name;
+	String name;
 
-}
\ No newline at end of file
+	/**
+	 * 资源类型，全局权限为 null
+	 */
+	String resourceType;
+
+	String resourcePattern;
+
+	public static PermissionResponse from(Permission permission) {
+		return PermissionResponse.builder()
+			.id(permission.getId())
+			.name(permission.getName())
+			.resourceType(emptyToNull(permission.getResourceType()))
+			.resourcePattern(emptyToNull(permission.getResourcePattern()))
+			.build();
+	}
+
+	private static String emptyToNull(String value) {
+		return value == null || value.isEmpty() ? null : value;
+	}
+
+}
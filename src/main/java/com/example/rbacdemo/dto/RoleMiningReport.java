@@ -0,0 +1,163 @@
+package com.example.rbacdemo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 角色冗余分析报告，各类结果给出总数和前若干个样本
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleMiningReport {
+
+	/**
+	 * 分析的租户，报告只包含该租户的用户、角色和权限
+	 */
+	private String tenantId;
+
+	/**
+	 * 分析所用模型的授权版本号
+	 */
+	private long authorityVersion;
+
+	private Date analyzedAt;
+
+	private long durationMillis;
+
+	private int userCount;
+
+	private int roleCount;
+
+	private int permissionCount;
+
+	/**
+	 * 权限集合完全相同的角色组数，以及组内除保留角色外的角色数
+	 */
+	private int identicalGroupCount;
+
+	private int duplicateRoleCount;
+
+	private List<RoleGroup> identicalGroups;
+
+	/**
+	 * 权限集合是同租户另一角色真子集的角色数
+	 */
+	private int subsetRoleCount;
+
+	private List<SubsetRole> subsetRoles;
+
+	/**
+	 * 不属于任何角色的权限
+	 */
+	private int unusedPermissionCount;
+
+	private List<String> unusedPermissions;
+
+	/**
+	 * 只属于无人持有的角色、实际上授予不到任何用户的权限
+	 */
+	private int unreachablePermissionCount;
+
+	private List<String> unreachablePermissions;
+
+	/**
+	 * 无人持有的角色
+	 */
+	private int unheldRoleCount;
+
+	/**
+	 * 持有冗余角色（权限被自己的另一个角色覆盖）的用户数与冗余分配数
+	 */
+	private int usersWithRedundantRoles;
+
+	private long redundantAssignments;
+
+	private List<RedundantUser> redundantUsers;
+
+	/**
+	 * 合并相同角色、去掉冗余分配后仍有人持有的角色数，以及可删除的角色
+	 */
+	private int proposedRoleCount;
+
+	private int removableRoleCount;
+
+	private List<Long> removableRoleIds;
+
+	/**
+	 * 全部用户的角色分配数与认证信息中的权限条目数（角色 + 全局权限），合并前后对比
+	 */
+	private long roleAssignmentsBefore;
+
+	private long roleAssignmentsAfter;
+
+	private long authorityEntriesBefore;
+
+	private long authorityEntriesAfter;
+
+	private double authorityReductionPercent;
+
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class RoleGroup {
+
+		private String tenantId;
+
+		/**
+		 * 保留的角色（组内ID最小的）
+		 */
+		private Long roleId;
+
+		private String roleName;
+
+		private int permissionCount;
+
+		private List<Long> duplicateRoleIds;
+
+	}
+
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class SubsetRole {
+
+		private String tenantId;
+
+		private Long roleId;
+
+		private String roleName;
+
+		private int permissionCount;
+
+		private int supersetCount;
+
+		private List<Long> supersetRoleIds;
+
+	}
+
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class RedundantUser {
+
+		private String tenantId;
+
+		private Long userId;
+
+		private String username;
+
+		private List<Long> redundantRoleIds;
+
+	}
+
+}
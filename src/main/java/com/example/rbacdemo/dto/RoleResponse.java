@@ -1,23 +1,32 @@
 package com.example.rbacdemo.dto;
 
-import com.example.rbacdemo.model.Permission;
-import lombok.AllArgsConstructor;
+import com.example.rbacdemo.model.Role;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
-@Data
+/**
+ * 角色信息，不可变，角色列表缓存直接共享该对象
+ */
+@Value
 @Builder
-@NoArgsConstructor
-@AllArgsConstructor
 public class RoleResponse {
 
-	private Long id;
+	Long id;
 
-	private String name;
+	String name;
 
-	private Set<Permission> permissions;
+	Set<PermissionResponse> permissions;
 
-}
\ No newline at end of file
+	public static RoleResponse from(Role role) {
+		Set<PermissionResponse> permissions = role.getPermissions() == null ? Set.of()
+				: role.getPermissions()
+					.stream()
+					.map(PermissionResponse::from)
+					.collect(Collectors.toUnmodifiableSet());
+		return RoleResponse.builder().id(role.getId()).name(role.getName()).permissions(permissions).build();
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.example.rbacdemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 并发修改冲突，重试次数用完仍未成功
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConcurrentUpdateException extends RuntimeException {
+
+	public ConcurrentUpdateException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
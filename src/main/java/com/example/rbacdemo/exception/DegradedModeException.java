@@ -0,0 +1,16 @@
+package com.example.rbacdemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 数据库熔断期间拒绝的请求
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DegradedModeException extends RuntimeException {
+
+	public DegradedModeException(String message) {
+		super(message);
+	}
+
+}
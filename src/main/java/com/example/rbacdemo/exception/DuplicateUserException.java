@@ -0,0 +1,16 @@
+package com.example.rbacdemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 用户名或邮箱已被占用
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateUserException extends RuntimeException {
+
+	public DuplicateUserException(String message) {
+		super(message);
+	}
+
+}
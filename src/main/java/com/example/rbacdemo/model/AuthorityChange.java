@@ -0,0 +1,49 @@
+package com.example.rbacdemo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 授权变更记录：哪个用户的角色或哪个角色的权限发生了变化
+ */
+@Entity
+@Table(name = "authority_changes",
+		indexes = @Index(name = "idx_authority_changes_changed_at", columnList = "changed_at"))
+@Data
+public class AuthorityChange {
+
+	public enum SubjectType {
+
+		/**
+		 * 用户的角色分配变化，subjectId 为用户ID
+		 */
+		USER,
+
+		/**
+		 * 角色的权限分配变化，subjectId 为角色ID
+		 */
+		ROLE
+
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "tenant_id", nullable = false, length = 64)
+	private String tenantId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "subject_type", nullable = false, length = 10)
+	private SubjectType subjectType;
+
+	@Column(name = "subject_id", nullable = false)
+	private Long subjectId;
+
+	@Column(name = "changed_at", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date changedAt;
+
+}
@@ -0,0 +1,23 @@
+package com.example.rbacdemo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * 租户的授权版本号，该租户的角色或权限分配发生变化时递增，用于判断会话与各级缓存中的权限是否过期。
+ * <p>
+ * 按租户分行，一个租户的授权变更不会让其他租户的缓存失效；没有记录的租户版本号视为 0
+ */
+@Entity
+@Table(name = "authority_version")
+@Data
+public class AuthorityVersion {
+
+	@Id
+	@Column(name = "tenant_id", length = 64)
+	private String tenantId;
+
+	@Column(nullable = false)
+	private Long version;
+
+}
@@ -4,15 +4,46 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
-@Table(name = "permissions")
+@Table(name = "permissions", uniqueConstraints = @UniqueConstraint(name = "uk_permissions_tenant_scope",
+		columnNames = { "tenant_id", "name", "resource_type", "resource_pattern" }))
 @Data
 public class Permission {
 
+	/**
+	 * 资源模式中的通配符，只允许出现在末尾，表示前缀匹配
+	 */
+	public static final String WILDCARD = "*";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(columnDefinition = "INTEGER")
 	private Long id;
 
-	@Column(nullable = false, unique = true)
+	@Column(name = "tenant_id", nullable = false, length = 64)
+	private String tenantId;
+
+	@Column(nullable = false)
 	private String name;
 
-}
\ No newline at end of file
+	/**
+	 * 资源类型，空串表示不限定资源的全局权限。
+	 * <p>
+	 * 不用 NULL：唯一约束中 NULL 互不相等，同名全局权限会被重复插入
+	 */
+	@Column(name = "resource_type", nullable = false, length = 50)
+	private String resourceType = "";
+
+	/**
+	 * 资源标识或前缀模式（如 "42"、"tenant-42/*"），空串或 "*" 表示该类型下的全部资源
+	 */
+	@Column(name = "resource_pattern", nullable = false, length = 100)
+	private String resourcePattern = "";
+
+	/**
+	 * 是否为全局权限（未限定资源类型）
+	 */
+	public boolean isGlobal() {
+		return resourceType == null || resourceType.isBlank();
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.example.rbacdemo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 持久化的记住我令牌，每个设备一个 series，令牌值在每次自动登录时轮换
+ */
+@Entity
+@Table(name = "persistent_logins",
+		indexes = @Index(name = "idx_persistent_logins_tenant_user", columnList = "tenant_id, username"))
+@Data
+public class PersistentLogin {
+
+	@Id
+	@Column(length = 64)
+	private String series;
+
+	@Column(name = "tenant_id", nullable = false, length = 64)
+	private String tenantId;
+
+	@Column(nullable = false, length = 64)
+	private String username;
+
+	@Column(nullable = false, length = 64)
+	private String token;
+
+	@Column(name = "last_used", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date lastUsed;
+
+	/**
+	 * 最近一次轮换之前的令牌值
+	 */
+	@Column(name = "previous_token", length = 64)
+	private String previousToken;
+
+	@Column(name = "rotated_at")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date rotatedAt;
+
+	/**
+	 * 令牌是否为窗口内刚被轮换掉的旧值：同一设备的并发请求可能携带旧令牌到达任一节点
+	 * @param token cookie 中的令牌值
+	 * @param windowMillis 容忍窗口
+	 * @return 是否在容忍范围内
+	 */
+	public boolean isRecentlyRotatedFrom(String token, long windowMillis) {
+		return previousToken != null && rotatedAt != null && previousToken.equals(token)
+				&& System.currentTimeMillis() - rotatedAt.getTime() <= windowMillis;
+	}
+
+}
@@ -6,20 +6,32 @@ import lombok.Data;
 import java.util.Set;
 
 @Entity
-@Table(name = "roles")
+@Table(name = "roles",
+		uniqueConstraints = @UniqueConstraint(name = "uk_roles_tenant_name", columnNames = { "tenant_id", "name" }))
 @Data
 public class Role {
 
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(columnDefinition = "INTEGER")
 	private Long id;
 
-	@Column(nullable = false, unique = true)
+	@Column(name = "tenant_id", nullable = false, length = 64)
+	private String tenantId;
+
+	@Column(nullable = false)
 	private String name;
 
+	/**
+	 * 乐观锁版本号，单条增删关联的接口不修改主表，也就不递增版本号
+	 */
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
 	@ManyToMany(fetch = FetchType.EAGER)
-	@JoinTable(name = "role_permissions", joinColumns = @JoinColumn(name = "role_id"),
-			inverseJoinColumns = @JoinColumn(name = "permission_id"))
+	@JoinTable(name = "role_permissions", joinColumns = @JoinColumn(name = "role_id", columnDefinition = "INTEGER"),
+			inverseJoinColumns = @JoinColumn(name = "permission_id", columnDefinition = "INTEGER"))
 	private Set<Permission> permissions;
 
 }
\ No newline at end of file
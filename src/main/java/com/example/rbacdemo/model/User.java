@@ -3,10 +3,15 @@ package com.example.rbacdemo.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.util.Date;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+		uniqueConstraints = {
+				@UniqueConstraint(name = "uk_users_tenant_username", columnNames = { "tenant_id", "username" }),
+				@UniqueConstraint(name = "uk_users_tenant_email", columnNames = { "tenant_id", "email" }) },
+		indexes = @Index(name = "idx_users_last_login", columnList = "last_login"))
 @Data
 public class User {
 
@@ -14,18 +19,32 @@ public class User {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
 
-	@Column(nullable = false, unique = true)
+	@Column(name = "tenant_id", nullable = false, length = 64)
+	private String tenantId;
+
+	@Column(nullable = false)
 	private String username;
 
-	@Column(nullable = false, unique = true)
+	@Column(nullable = false)
 	private String email;
 
 	@Column(nullable = false)
 	private String password;
 
+	@Column(name = "last_login")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date lastLogin;
+
+	/**
+	 * 乐观锁版本号，单条增删关联的接口不修改主表，也就不递增版本号
+	 */
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
 	@ManyToMany(fetch = FetchType.EAGER)
 	@JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"),
-			inverseJoinColumns = @JoinColumn(name = "role_id"))
+			inverseJoinColumns = @JoinColumn(name = "role_id", columnDefinition = "INTEGER"))
 	private Set<Role> roles;
 
 }
\ No newline at end of file
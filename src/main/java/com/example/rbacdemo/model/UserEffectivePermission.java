@@ -0,0 +1,38 @@
+package com.example.rbacdemo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 用户有效权限的物化记录（用户经由任一角色获得的权限），由服务层在分配角色/权限时维护
+ */
+@Entity
+@Table(name = "user_effective_permissions")
+@IdClass(UserEffectivePermission.Key.class)
+@Data
+public class UserEffectivePermission {
+
+	@Id
+	@Column(name = "user_id")
+	private Long userId;
+
+	@Id
+	@Column(name = "permission_id", columnDefinition = "INTEGER")
+	private Long permissionId;
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Key implements Serializable {
+
+		private Long userId;
+
+		private Long permissionId;
+
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.example.rbacdemo.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从容器中的数据源 Bean 展开出实际的 Hikari 连接池，包括读写分离路由背后未注册为 Bean 的副本连接池。
+ */
+final class DataSourcePools {
+
+	private DataSourcePools() {
+	}
+
+	static List<HikariDataSource> collect(Collection<DataSource> dataSources) {
+		Map<HikariDataSource, Boolean> pools = new IdentityHashMap<>();
+		dataSources.forEach(dataSource -> collect(dataSource, pools));
+		return new ArrayList<>(pools.keySet());
+	}
+
+	private static void collect(DataSource dataSource, Map<HikariDataSource, Boolean> pools) {
+		if (dataSource instanceof HikariDataSource hikari) {
+			pools.put(hikari, Boolean.TRUE);
+		}
+		else if (dataSource instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+			collect(delegating.getTargetDataSource(), pools);
+		}
+		else if (dataSource instanceof AbstractRoutingDataSource routing) {
+			routing.getResolvedDataSources().values().forEach(target -> collect(target, pools));
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.example.rbacdemo.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 记录 JVM 启动到第一个请求处理完成的耗时（rbac.startup.time-to-first-request）
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+	private final AtomicBoolean recorded = new AtomicBoolean();
+
+	private final MeterRegistry meterRegistry;
+
+	public FirstRequestTimer(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			if (!recorded.get() && recorded.compareAndSet(false, true)) {
+				long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+				Timer.builder("rbac.startup.time-to-first-request")
+					.description("JVM 启动到第一个请求处理完成的耗时")
+					.register(meterRegistry)
+					.record(uptime, TimeUnit.MILLISECONDS);
+				log.info("首个请求处理完成: {} {}，距 JVM 启动 {}ms", request.getMethod(), request.getRequestURI(), uptime);
+			}
+		}
+	}
+
+}
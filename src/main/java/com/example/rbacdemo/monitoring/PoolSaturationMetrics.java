@@ -0,0 +1,59 @@
+package com.example.rbacdemo.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.stream.Collectors;
+
+/**
+ * 连接池饱和度指标，补充 Hikari 自带的 hikaricp.connections.* 指标：
+ * <ul>
+ * <li>rbac.datasource.pool.saturation：活跃连接数 / 最大连接数</li>
+ * <li>rbac.datasource.pool.waiting：等待获取连接的线程数</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class PoolSaturationMetrics implements MeterBinder {
+
+	private final ObjectProvider<DataSource> dataSources;
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (HikariDataSource pool : DataSourcePools.collect(dataSources.stream().collect(Collectors.toList()))) {
+			Gauge.builder("rbac.datasource.pool.saturation", pool, PoolSaturationMetrics::saturation)
+				.tag("pool", poolName(pool))
+				.description("活跃连接数占最大连接数的比例")
+				.register(registry);
+			Gauge.builder("rbac.datasource.pool.waiting", pool, PoolSaturationMetrics::waiting)
+				.tag("pool", poolName(pool))
+				.description("等待获取连接的线程数")
+				.register(registry);
+		}
+	}
+
+	private static String poolName(HikariDataSource pool) {
+		return pool.getPoolName() != null ? pool.getPoolName() : "default";
+	}
+
+	private static double saturation(HikariDataSource pool) {
+		HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+		if (mxBean == null || pool.getMaximumPoolSize() <= 0) {
+			return 0;
+		}
+		return (double) mxBean.getActiveConnections() / pool.getMaximumPoolSize();
+	}
+
+	private static double waiting(HikariDataSource pool) {
+		HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+		return mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection();
+	}
+
+}
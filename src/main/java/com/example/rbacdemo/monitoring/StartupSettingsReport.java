@@ -0,0 +1,65 @@
+package com.example.rbacdemo.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * 启动完成后输出实际生效的连接池、JDBC 与 Hibernate 配置，并对明显不适合生产的配置给出警告。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupSettingsReport {
+
+	private static final List<String> DRIVER_SETTINGS = List.of("cachePrepStmts", "prepStmtCacheSize",
+			"useServerPrepStmts", "rewriteBatchedStatements");
+
+	private final Environment environment;
+
+	private final ObjectProvider<DataSource> dataSources;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void report() {
+		boolean prod = Arrays.asList(environment.getActiveProfiles()).contains("prod");
+		log.info("生效配置: profiles={}, ddl-auto={}, show-sql={}, hibernate.jdbc.batch_size={}, log_slow_query={}",
+				Arrays.toString(environment.getActiveProfiles()),
+				environment.getProperty("spring.jpa.hibernate.ddl-auto"),
+				environment.getProperty("spring.jpa.show-sql"),
+				environment.getProperty("spring.jpa.properties.hibernate.jdbc.batch_size"),
+				environment.getProperty("spring.jpa.properties.hibernate.log_slow_query"));
+
+		for (HikariDataSource pool : DataSourcePools.collect(dataSources.stream().collect(Collectors.toList()))) {
+			Properties driver = pool.getDataSourceProperties();
+			log.info("连接池 {}: maximumPoolSize={}, minimumIdle={}, connectionTimeout={}ms, maxLifetime={}ms, "
+					+ "readOnly={}, driver={}", pool.getPoolName(), pool.getMaximumPoolSize(), pool.getMinimumIdle(),
+					pool.getConnectionTimeout(), pool.getMaxLifetime(), pool.isReadOnly(),
+					DRIVER_SETTINGS.stream()
+						.map(key -> key + "=" + driver.getProperty(key))
+						.collect(Collectors.joining(", ", "{", "}")));
+
+			if (prod && !Boolean.parseBoolean(driver.getProperty("cachePrepStmts"))) {
+				log.warn("连接池 {} 未开启预编译语句缓存", pool.getPoolName());
+			}
+		}
+
+		if (prod && environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+			log.warn("生产环境开启了 spring.jpa.show-sql，将显著降低吞吐");
+		}
+		if (prod && "update".equals(environment.getProperty("spring.jpa.hibernate.ddl-auto"))) {
+			log.warn("生产环境使用 ddl-auto=update，启动时会执行表结构比对");
+		}
+	}
+
+}
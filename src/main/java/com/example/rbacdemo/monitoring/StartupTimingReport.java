@@ -0,0 +1,73 @@
+package com.example.rbacdemo.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * 启动完成后输出耗时报告：JVM 启动到就绪的总耗时，以及最慢的启动步骤（类路径扫描、Bean 实例化、
+ * Hibernate 元模型构建等），同时记录为 rbac.startup.* 指标。详细时间线见 /actuator/startup。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupTimingReport {
+
+	private static final int SLOWEST_STEPS = 10;
+
+	private final MeterRegistry meterRegistry;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void report(ApplicationReadyEvent event) {
+		long jvmUptime = ManagementFactory.getRuntimeMXBean().getUptime();
+		Timer.builder("rbac.startup.time-to-ready")
+			.description("JVM 启动到应用就绪的耗时")
+			.register(meterRegistry)
+			.record(jvmUptime, TimeUnit.MILLISECONDS);
+		log.info("启动耗时: JVM 启动到就绪 {}ms, 其中 Spring 上下文 {}ms", jvmUptime,
+				event.getTimeTaken() == null ? -1 : event.getTimeTaken().toMillis());
+
+		if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+			return;
+		}
+		StartupTimeline timeline = startup.getBufferedTimeline();
+		String slowest = timeline.getEvents()
+			.stream()
+			.sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+			.limit(SLOWEST_STEPS)
+			.map(step -> String.format("%n  %6dms %s%s", step.getDuration().toMillis(),
+					step.getStartupStep().getName(), describe(step.getStartupStep())))
+			.collect(Collectors.joining());
+		log.info("最慢的 {} 个启动步骤:{}", SLOWEST_STEPS, slowest);
+
+		timeline.getEvents()
+			.stream()
+			.collect(Collectors.groupingBy(step -> step.getStartupStep().getName(),
+					Collectors.summingLong(step -> step.getDuration().toMillis())))
+			.forEach((name, millis) -> Timer.builder("rbac.startup.phase")
+				.description("各启动阶段的累计耗时")
+				.tag("phase", name)
+				.register(meterRegistry)
+				.record(millis, TimeUnit.MILLISECONDS));
+	}
+
+	private static String describe(StartupStep step) {
+		return StreamSupport.stream(step.getTags().spliterator(), false)
+			.map(tag -> tag.getKey() + "=" + tag.getValue())
+			.collect(Collectors.joining(", ", " [", "]"));
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.example.rbacdemo.repository;
+
+/**
+ * 认证与授权路径上查询的超时提示。
+ * <p>
+ * 这些查询经过 {@link com.example.rbacdemo.degraded.DatabaseCircuitBreaker}，数据库卡住时需要尽快失败，
+ * 由熔断器统计后进入降级模式；批量加载与有效权限重建不使用此超时，也不经过共用熔断器。
+ */
+final class AuthQueries {
+
+	static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+	static final String TIMEOUT_MILLIS = "2000";
+
+	private AuthQueries() {
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.example.rbacdemo.repository;
+
+import com.example.rbacdemo.model.AuthorityChange;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface AuthorityChangeRepository extends JpaRepository<AuthorityChange, Long> {
+
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	List<AuthorityChange> findByChangedAtGreaterThanEqual(Date changedAt);
+
+	/**
+	 * 删除早于指定时间的变更记录，所有仍在使用的快照都不再需要它们
+	 * @param changedAt 截止时间（不含）
+	 * @return 删除的记录数
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from AuthorityChange c where c.changedAt < :changedAt")
+	int deleteByChangedAtBefore(@Param("changedAt") Date changedAt);
+
+}
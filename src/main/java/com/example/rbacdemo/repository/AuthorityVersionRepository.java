@@ -0,0 +1,38 @@
+package com.example.rbacdemo.repository;
+
+import com.example.rbacdemo.model.AuthorityVersion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AuthorityVersionRepository extends JpaRepository<AuthorityVersion, String> {
+
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	Optional<AuthorityVersion> findByTenantId(String tenantId);
+
+	/**
+	 * 递增租户的版本号，租户还没有版本记录时以 1 插入
+	 * @param tenantId 租户ID
+	 * @return 影响的行数
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO authority_version (tenant_id, version) VALUES (:tenantId, 1) "
+			+ "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+	int increment(@Param("tenantId") String tenantId);
+
+	/**
+	 * 所有租户版本号之和，任一租户发生变更都会增大
+	 * @return 版本号之和
+	 */
+	@Query("select coalesce(sum(v.version), 0) from AuthorityVersion v")
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	long sumVersions();
+
+}
@@ -1,14 +1,29 @@
 package com.example.rbacdemo.repository;
 
 import com.example.rbacdemo.model.Permission;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PermissionRepository extends JpaRepository<Permission, Long> {
 
-	Optional<Permission> findByName(String name);
+	List<Permission> findAllByTenantIdAndName(String tenantId, String name);
 
-}
\ No newline at end of file
+	Optional<Permission> findByIdAndTenantId(Long id, String tenantId);
+
+	/**
+	 * 按ID读取权限并生成权限标识，授权路径上使用，带查询超时
+	 */
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	Optional<Permission> findForAuthorityById(Long id);
+
+	boolean existsByIdAndTenantId(Long id, String tenantId);
+
+	List<Permission> findAllByTenantId(String tenantId);
+
+}
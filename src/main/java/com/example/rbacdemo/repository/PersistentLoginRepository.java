@@ -0,0 +1,33 @@
+package com.example.rbacdemo.repository;
+
+import com.example.rbacdemo.model.PersistentLogin;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+
+@Repository
+public interface PersistentLoginRepository extends JpaRepository<PersistentLogin, String> {
+
+	@Modifying
+	@Query("update PersistentLogin p set p.token = :token, p.lastUsed = :lastUsed where p.series = :series")
+	int updateToken(@Param("series") String series, @Param("token") String token, @Param("lastUsed") Date lastUsed);
+
+	/**
+	 * 令牌仍为 presentedToken 时轮换为新值，并保留旧值与轮换时间
+	 * @return 影响的行数，为 0 表示令牌已被其他请求轮换或已吊销
+	 */
+	@Modifying
+	@Query("update PersistentLogin p set p.previousToken = p.token, p.token = :token, p.lastUsed = :rotatedAt, "
+			+ "p.rotatedAt = :rotatedAt where p.series = :series and p.token = :presentedToken")
+	int rotateToken(@Param("series") String series, @Param("presentedToken") String presentedToken,
+			@Param("token") String token, @Param("rotatedAt") Date rotatedAt);
+
+	@Modifying
+	@Query("delete from PersistentLogin p where p.tenantId = :tenantId and p.username = :username")
+	int deleteByTenantIdAndUsername(@Param("tenantId") String tenantId, @Param("username") String username);
+
+}
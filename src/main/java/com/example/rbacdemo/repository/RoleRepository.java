@@ -1,14 +1,53 @@
 package com.example.rbacdemo.repository;
 
 import com.example.rbacdemo.model.Role;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
-	Optional<Role> findByName(String name);
+	Optional<Role> findByTenantIdAndName(String tenantId, String name);
 
-}
\ No newline at end of file
+	Optional<Role> findByIdAndTenantId(Long id, String tenantId);
+
+	/**
+	 * 按ID读取角色并生成角色标识，授权路径上使用，带查询超时
+	 */
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	Optional<Role> findForAuthorityById(Long id);
+
+	List<Role> findAllByTenantId(String tenantId);
+
+	boolean existsByIdAndTenantId(Long id, String tenantId);
+
+	/**
+	 * 单条添加角色权限，已存在时不插入；不加载角色实体，也不修改 roles 行
+	 * @return 插入的行数
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = """
+			INSERT INTO role_permissions (role_id, permission_id)
+			SELECT :roleId, :permissionId FROM DUAL
+			WHERE NOT EXISTS (
+			    SELECT 1 FROM role_permissions WHERE role_id = :roleId AND permission_id = :permissionId)""")
+	int insertRolePermission(@Param("roleId") Long roleId, @Param("permissionId") Long permissionId);
+
+	/**
+	 * 单条移除角色权限
+	 * @return 删除的行数
+	 */
+	@Modifying
+	@Query(nativeQuery = true,
+			value = "DELETE FROM role_permissions WHERE role_id = :roleId AND permission_id = :permissionId")
+	int deleteRolePermission(@Param("roleId") Long roleId, @Param("permissionId") Long permissionId);
+
+}
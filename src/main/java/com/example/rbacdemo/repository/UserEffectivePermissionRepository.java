@@ -0,0 +1,104 @@
+package com.example.rbacdemo.repository;
+
+import com.example.rbacdemo.model.UserEffectivePermission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserEffectivePermissionRepository
+		extends JpaRepository<UserEffectivePermission, UserEffectivePermission.Key> {
+
+	@Query("select p.permissionId from UserEffectivePermission p where p.userId = :userId")
+	List<Long> findPermissionIdsByUserId(@Param("userId") Long userId);
+
+	@Query("select p.userId from UserEffectivePermission p where p.permissionId = :permissionId")
+	List<Long> findUserIdsByPermissionId(@Param("permissionId") Long permissionId);
+
+	/**
+	 * 重建单个用户的有效权限
+	 * @param userId 用户ID
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = "DELETE FROM user_effective_permissions WHERE user_id = :userId")
+	void deleteByUserId(@Param("userId") Long userId);
+
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			INSERT INTO user_effective_permissions (user_id, permission_id)
+			SELECT DISTINCT ur.user_id, rp.permission_id
+			FROM user_roles ur
+			JOIN role_permissions rp ON rp.role_id = ur.role_id
+			WHERE ur.user_id = :userId""")
+	void insertForUser(@Param("userId") Long userId);
+
+	/**
+	 * 重建持有指定角色的全部用户的有效权限，借助 user_roles(role_id, user_id) 反向索引定位用户
+	 * @param roleId 角色ID
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			DELETE FROM user_effective_permissions
+			WHERE user_id IN (SELECT ur.user_id FROM user_roles ur WHERE ur.role_id = :roleId)""")
+	void deleteByRoleHolders(@Param("roleId") Long roleId);
+
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			INSERT INTO user_effective_permissions (user_id, permission_id)
+			SELECT DISTINCT ur.user_id, rp.permission_id
+			FROM user_roles ur
+			JOIN role_permissions rp ON rp.role_id = ur.role_id
+			WHERE ur.user_id IN (SELECT holder.user_id FROM user_roles holder WHERE holder.role_id = :roleId)""")
+	void insertForRoleHolders(@Param("roleId") Long roleId);
+
+	/**
+	 * 用户新增一个角色后补齐该角色带来的有效权限，不重建用户已有的行
+	 * @param userId 用户ID
+	 * @param roleId 新增的角色ID
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			INSERT INTO user_effective_permissions (user_id, permission_id)
+			SELECT DISTINCT :userId, rp.permission_id
+			FROM role_permissions rp
+			WHERE rp.role_id = :roleId
+			  AND NOT EXISTS (SELECT 1 FROM user_effective_permissions e
+			                  WHERE e.user_id = :userId AND e.permission_id = rp.permission_id)""")
+	void insertForUserRole(@Param("userId") Long userId, @Param("roleId") Long roleId);
+
+	/**
+	 * 角色新增一个权限后给持有该角色的用户补齐这一条有效权限
+	 * @param roleId 角色ID
+	 * @param permissionId 新增的权限ID
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			INSERT INTO user_effective_permissions (user_id, permission_id)
+			SELECT ur.user_id, :permissionId
+			FROM user_roles ur
+			WHERE ur.role_id = :roleId
+			  AND NOT EXISTS (SELECT 1 FROM user_effective_permissions e
+			                  WHERE e.user_id = ur.user_id AND e.permission_id = :permissionId)""")
+	void insertForRolePermission(@Param("roleId") Long roleId, @Param("permissionId") Long permissionId);
+
+	/**
+	 * 角色移除一个权限后，删除持有该角色、且没有其他角色再授予该权限的用户的这一条有效权限
+	 * @param roleId 角色ID
+	 * @param permissionId 移除的权限ID
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			DELETE FROM user_effective_permissions
+			WHERE permission_id = :permissionId
+			  AND user_id IN (SELECT ur.user_id FROM user_roles ur WHERE ur.role_id = :roleId)
+			  AND NOT EXISTS (SELECT 1 FROM user_roles other
+			                  JOIN role_permissions rp ON rp.role_id = other.role_id
+			                  WHERE other.user_id = user_effective_permissions.user_id
+			                    AND rp.permission_id = :permissionId)""")
+	void deleteForRolePermission(@Param("roleId") Long roleId, @Param("permissionId") Long permissionId);
+
+}
@@ -1,16 +1,80 @@
 package com.example.rbacdemo.repository;
 
 import com.example.rbacdemo.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
-	Optional<User> findByUsername(String username);
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	Optional<User> findByTenantIdAndUsername(String tenantId, String username);
 
-	Optional<User> findByEmail(String email);
+	/**
+	 * 认证与授权路径加载用户，角色和权限在同一条带超时的查询中取回，不再逐个懒加载
+	 */
+	@EntityGraph(attributePaths = { "roles", "roles.permissions" })
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	Optional<User> findForAuthorizationByTenantIdAndUsername(String tenantId, String username);
 
-}
\ No newline at end of file
+	@EntityGraph(attributePaths = { "roles", "roles.permissions" })
+	@QueryHints(@QueryHint(name = AuthQueries.TIMEOUT_HINT, value = AuthQueries.TIMEOUT_MILLIS))
+	Optional<User> findForAuthorizationById(Long id);
+
+	Optional<User> findByTenantIdAndEmail(String tenantId, String email);
+
+	Optional<User> findByIdAndTenantId(Long id, String tenantId);
+
+	List<User> findAllByTenantId(String tenantId);
+
+	/**
+	 * 批量加载用户，角色和权限在同一条查询中取回
+	 */
+	@EntityGraph(attributePaths = { "roles", "roles.permissions" })
+	List<User> findAllByIdIn(Collection<Long> ids);
+
+	/**
+	 * 按最近登录时间倒序取用户ID，不区分租户
+	 */
+	@Query("select u.id from User u where u.lastLogin is not null order by u.lastLogin desc")
+	List<Long> findRecentlyActiveIds(Pageable pageable);
+
+	@Query("select u.username from User u where u.id = :id and u.tenantId = :tenantId")
+	Optional<String> findUsernameByIdAndTenantId(@Param("id") Long id, @Param("tenantId") String tenantId);
+
+	/**
+	 * 单条添加用户角色，已存在时不插入；不加载用户实体，也不修改 users 行
+	 * @return 插入的行数
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = """
+			INSERT INTO user_roles (user_id, role_id)
+			SELECT :userId, :roleId FROM DUAL
+			WHERE NOT EXISTS (SELECT 1 FROM user_roles WHERE user_id = :userId AND role_id = :roleId)""")
+	int insertUserRole(@Param("userId") Long userId, @Param("roleId") Long roleId);
+
+	/**
+	 * 单条移除用户角色
+	 * @return 删除的行数
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = "DELETE FROM user_roles WHERE user_id = :userId AND role_id = :roleId")
+	int deleteUserRole(@Param("userId") Long userId, @Param("roleId") Long roleId);
+
+	@Modifying
+	@Query("update User u set u.lastLogin = :lastLogin where u.id = :id")
+	int updateLastLogin(@Param("id") Long id, @Param("lastLogin") Date lastLogin);
+
+}
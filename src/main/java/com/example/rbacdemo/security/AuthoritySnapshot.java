@@ -0,0 +1,19 @@
+package com.example.rbacdemo.security;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * 某一授权版本下用户持有的角色ID与全局权限ID（均已排序）
+ */
+@Value
+public class AuthoritySnapshot implements Serializable {
+
+	long version;
+
+	long[] roleIds;
+
+	long[] permissionIds;
+
+}
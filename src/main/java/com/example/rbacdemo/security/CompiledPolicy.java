@@ -0,0 +1,89 @@
+package com.example.rbacdemo.security;
+
+import com.example.rbacdemo.model.Permission;
+import com.example.rbacdemo.model.Role;
+import com.example.rbacdemo.model.User;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户授权的编译结果：全局权限集合 + 按资源类型、权限名称分组的资源前缀树。
+ * <p>
+ * 构建完成后只读，可在多线程间安全共享。
+ */
+public final class CompiledPolicy {
+
+	private static final CompiledPolicy EMPTY = new CompiledPolicy(Collections.emptySet(), Collections.emptyMap());
+
+	private final Set<String> globalPermissions;
+
+	private final Map<String, Map<String, ResourceTrie>> scopedPermissions;
+
+	private CompiledPolicy(Set<String> globalPermissions, Map<String, Map<String, ResourceTrie>> scopedPermissions) {
+		this.globalPermissions = globalPermissions;
+		this.scopedPermissions = scopedPermissions;
+	}
+
+	/**
+	 * 将用户的角色与权限编译为授权索引
+	 * @param user 用户（角色与权限需已加载）
+	 * @return 编译结果
+	 */
+	public static CompiledPolicy compile(User user) {
+		if (user == null || user.getRoles() == null) {
+			return EMPTY;
+		}
+		Set<String> globals = new HashSet<>();
+		Map<String, Map<String, ResourceTrie>> scoped = new HashMap<>();
+		for (Role role : user.getRoles()) {
+			if (role.getPermissions() == null) {
+				continue;
+			}
+			for (Permission permission : role.getPermissions()) {
+				String name = normalize(permission.getName());
+				if (permission.isGlobal()) {
+					globals.add(name);
+				}
+				else {
+					scoped.computeIfAbsent(normalize(permission.getResourceType()), t -> new HashMap<>())
+						.computeIfAbsent(name, n -> new ResourceTrie())
+						.add(permission.getResourcePattern());
+				}
+			}
+		}
+		return new CompiledPolicy(globals, scoped);
+	}
+
+	/**
+	 * 判断是否拥有某项权限
+	 * @param permission 权限名称
+	 * @param resourceType 资源类型，为空表示只检查全局权限
+	 * @param resourceId 资源ID
+	 * @return 是否授权
+	 */
+	public boolean isGranted(String permission, String resourceType, String resourceId) {
+		String name = normalize(permission);
+		if (globalPermissions.contains(name)) {
+			return true;
+		}
+		if (resourceType == null) {
+			return false;
+		}
+		Map<String, ResourceTrie> byName = scopedPermissions.get(normalize(resourceType));
+		if (byName == null) {
+			return false;
+		}
+		ResourceTrie trie = byName.get(name);
+		return trie != null && trie.matches(resourceId);
+	}
+
+	private static String normalize(String value) {
+		return value.toUpperCase(Locale.ROOT);
+	}
+
+}
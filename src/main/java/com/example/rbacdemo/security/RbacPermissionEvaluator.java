@@ -0,0 +1,49 @@
+package com.example.rbacdemo.security;
+
+import com.example.rbacdemo.service.AuthorizationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+
+/**
+ * 方法级安全的权限判定，支持以下两种表达式：
+ * <ul>
+ * <li>{@code hasPermission(null, 'REPORT_EXPORT')}：全局权限</li>
+ * <li>{@code hasPermission(#orderId, 'order', 'ORDER_READ')}：资源级权限</li>
+ * </ul>
+ * 该 Bean 会随方法安全配置提前初始化，因此延迟获取 {@link AuthorizationService}，避免其事务代理失效。
+ */
+@Component
+@RequiredArgsConstructor
+public class RbacPermissionEvaluator implements PermissionEvaluator {
+
+	private final ObjectProvider<AuthorizationService> authorizationService;
+
+	@Override
+	public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+		if (targetDomainObject != null) {
+			// 领域对象无法推断资源类型，只能按全局权限判定
+			return false;
+		}
+		return check(authentication, permission, null, null);
+	}
+
+	@Override
+	public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType,
+			Object permission) {
+		return check(authentication, permission, targetType, targetId == null ? null : targetId.toString());
+	}
+
+	private boolean check(Authentication authentication, Object permission, String resourceType, String resourceId) {
+		if (authentication == null || !authentication.isAuthenticated() || permission == null) {
+			return false;
+		}
+		return authorizationService.getObject()
+			.isGranted(authentication.getName(), permission.toString(), resourceType, resourceId);
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.example.rbacdemo.security;
+
+import com.example.rbacdemo.model.PersistentLogin;
+import com.example.rbacdemo.repository.PersistentLoginRepository;
+import com.example.rbacdemo.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+
+/**
+ * 基于 persistent_logins 表的记住我令牌仓库，令牌按租户隔离
+ */
+@Component
+@RequiredArgsConstructor
+public class RbacPersistentTokenRepository implements PersistentTokenRepository {
+
+	private final PersistentLoginRepository persistentLoginRepository;
+
+	private final RememberMeSeriesCache seriesCache;
+
+	@Override
+	@Transactional
+	public void createNewToken(PersistentRememberMeToken token) {
+		PersistentLogin login = new PersistentLogin();
+		login.setSeries(token.getSeries());
+		login.setTenantId(TenantContext.getTenantId());
+		login.setUsername(token.getUsername());
+		login.setToken(token.getTokenValue());
+		login.setLastUsed(token.getDate());
+		persistentLoginRepository.save(login);
+	}
+
+	@Override
+	@Transactional
+	public void updateToken(String series, String tokenValue, Date lastUsed) {
+		persistentLoginRepository.updateToken(series, tokenValue, lastUsed);
+	}
+
+	/**
+	 * 轮换令牌：只有数据库中仍是 presentedToken 时才更新，多个节点并发轮换同一 series 时只有一个成功
+	 * @param series 设备 series
+	 * @param presentedToken 请求携带的令牌
+	 * @param tokenValue 新令牌
+	 * @param rotatedAt 轮换时间
+	 * @return 是否由本次调用完成轮换
+	 */
+	@Transactional
+	public boolean rotateToken(String series, String presentedToken, String tokenValue, Date rotatedAt) {
+		return persistentLoginRepository.rotateToken(series, presentedToken, tokenValue, rotatedAt) > 0;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PersistentRememberMeToken getTokenForSeries(String seriesId) {
+		return persistentLoginRepository.findById(seriesId)
+			.map(login -> new PersistentRememberMeToken(login.getUsername(), login.getSeries(), login.getToken(),
+					login.getLastUsed()))
+			.orElse(null);
+	}
+
+	/**
+	 * 查询 series 对应的令牌记录（含租户）
+	 * @param seriesId 设备 series
+	 * @return 令牌记录，不存在返回 null
+	 */
+	@Transactional(readOnly = true)
+	public PersistentLogin findLogin(String seriesId) {
+		return persistentLoginRepository.findById(seriesId).orElse(null);
+	}
+
+	@Override
+	@Transactional
+	public void removeUserTokens(String username) {
+		revokeUserTokens(TenantContext.getTenantId(), username);
+	}
+
+	/**
+	 * 吊销用户在所有设备上的记住我令牌
+	 * @param tenantId 租户ID
+	 * @param username 用户名
+	 */
+	@Transactional
+	public void revokeUserTokens(String tenantId, String username) {
+		persistentLoginRepository.deleteByTenantIdAndUsername(tenantId, username);
+		// 提交后再清除轮换缓存，提交前并发的自动登录仍可能把令牌写回缓存
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				seriesCache.evictUser(tenantId, username);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.example.rbacdemo.security;
+
+import com.example.rbacdemo.model.PersistentLogin;
+import com.example.rbacdemo.tenant.TenantContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.rememberme.CookieTheftException;
+import org.springframework.security.web.authentication.rememberme.InvalidCookieException;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenBasedRememberMeServices;
+import org.springframework.security.web.authentication.rememberme.RememberMeAuthenticationException;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * 持久化令牌的记住我实现：每次自动登录轮换令牌，按租户加载用户。
+ * <p>
+ * 同一设备在容忍窗口内的并发请求不轮换也不做盗用检测：发往本节点的由 {@link RememberMeSeriesCache} 识别，
+ * 直接复用上次校验的用户；发往其他节点的按令牌表中保存的上一个令牌识别，采用已完成的轮换结果。
+ */
+public class RbacRememberMeServices extends PersistentTokenBasedRememberMeServices {
+
+	private final RbacPersistentTokenRepository tokenRepository;
+
+	private final RememberMeSeriesCache seriesCache;
+
+	private final long burstWindowMillis;
+
+	public RbacRememberMeServices(String key, UserDetailsService userDetailsService,
+			RbacPersistentTokenRepository tokenRepository, RememberMeSeriesCache seriesCache, Duration burstWindow) {
+		super(key, userDetailsService, tokenRepository);
+		this.tokenRepository = tokenRepository;
+		this.seriesCache = seriesCache;
+		this.burstWindowMillis = burstWindow.toMillis();
+	}
+
+	@Override
+	protected UserDetails processAutoLoginCookie(String[] cookieTokens, HttpServletRequest request,
+			HttpServletResponse response) {
+		if (cookieTokens.length != 2) {
+			throw new InvalidCookieException("记住我 cookie 格式错误");
+		}
+		String series = cookieTokens[0];
+		String presentedToken = cookieTokens[1];
+
+		RememberMeSeriesCache.Entry recent = seriesCache.find(series, presentedToken);
+		if (recent != null) {
+			return reuse(recent, series, presentedToken, request, response);
+		}
+
+		PersistentLogin login = tokenRepository.findLogin(series);
+		if (login == null) {
+			throw new RememberMeAuthenticationException("记住我令牌不存在: series=" + series);
+		}
+		if (!presentedToken.equals(login.getToken())) {
+			// 查缓存之后、读数据库之前可能正好有本节点的并发请求完成了轮换
+			recent = seriesCache.find(series, presentedToken);
+			if (recent != null) {
+				return reuse(recent, series, presentedToken, request, response);
+			}
+			if (login.isRecentlyRotatedFrom(presentedToken, burstWindowMillis)) {
+				return adoptRotation(login, series, presentedToken, request, response);
+			}
+			// series 匹配而令牌不匹配，说明旧令牌被他人使用过，吊销该用户全部令牌
+			tokenRepository.revokeUserTokens(login.getTenantId(), login.getUsername());
+			throw new CookieTheftException("记住我令牌不匹配，疑似被盗用");
+		}
+		checkExpiry(login);
+
+		TenantContext.setTenantId(login.getTenantId());
+		UserDetails user = getUserDetailsService().loadUserByUsername(login.getUsername());
+
+		// 先登记轮换前后的令牌对再更新数据库，轮换期间携带旧令牌的并发请求命中缓存，不会被误判为盗用
+		RememberMeSeriesCache.Entry rotation = seriesCache.claim(series,
+				new RememberMeSeriesCache.Entry(login.getTenantId(), presentedToken, generateTokenData(), user));
+		if (rotation.getUser() != user) {
+			// 本节点的并发请求已登记了这次轮换，沿用它的新令牌
+			return reuse(rotation, series, presentedToken, request, response);
+		}
+		boolean rotated;
+		try {
+			rotated = tokenRepository.rotateToken(series, presentedToken, rotation.getIssuedToken(), new Date());
+		}
+		catch (DataAccessException ex) {
+			seriesCache.evictSeries(series);
+			throw new RememberMeAuthenticationException("记住我令牌更新失败", ex);
+		}
+		if (!rotated) {
+			// 其他节点的并发请求先完成了轮换，改用它的结果
+			login = tokenRepository.findLogin(series);
+			if (login == null || !login.isRecentlyRotatedFrom(presentedToken, burstWindowMillis)) {
+				seriesCache.evictSeries(series);
+				throw new RememberMeAuthenticationException("记住我令牌已失效: series=" + series);
+			}
+			return adoptRotation(login, series, presentedToken, request, response);
+		}
+		setCookie(new String[] { series, rotation.getIssuedToken() }, getTokenValiditySeconds(), request, response);
+		return user;
+	}
+
+	/**
+	 * 本节点窗口内的并发请求：不查询令牌表也不重新加载用户，携带旧令牌时下发新令牌
+	 */
+	private UserDetails reuse(RememberMeSeriesCache.Entry recent, String series, String presentedToken,
+			HttpServletRequest request, HttpServletResponse response) {
+		TenantContext.setTenantId(recent.getTenantId());
+		if (recent.isPresentedToken(presentedToken)) {
+			setCookie(new String[] { series, recent.getIssuedToken() }, getTokenValiditySeconds(), request, response);
+		}
+		return recent.getUser();
+	}
+
+	/**
+	 * 其他节点在窗口内刚完成轮换：下发数据库中的新令牌，并登记到本节点缓存
+	 */
+	private UserDetails adoptRotation(PersistentLogin login, String series, String presentedToken,
+			HttpServletRequest request, HttpServletResponse response) {
+		checkExpiry(login);
+		TenantContext.setTenantId(login.getTenantId());
+		UserDetails user = getUserDetailsService().loadUserByUsername(login.getUsername());
+		seriesCache.record(series,
+				new RememberMeSeriesCache.Entry(login.getTenantId(), presentedToken, login.getToken(), user));
+		setCookie(new String[] { series, login.getToken() }, getTokenValiditySeconds(), request, response);
+		return user;
+	}
+
+	private void checkExpiry(PersistentLogin login) {
+		if (login.getLastUsed().getTime() + getTokenValiditySeconds() * 1000L < System.currentTimeMillis()) {
+			throw new RememberMeAuthenticationException("记住我令牌已过期");
+		}
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.example.rbacdemo.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * 携带用户ID、租户、邮箱和授权ID快照的认证主体，会话序列化时只保存ID而不保存权限字符串
+ */
+@Getter
+public class RbacUserDetails extends User {
+
+	private final Long userId;
+
+	private final String tenantId;
+
+	private final String email;
+
+	private final AuthoritySnapshot snapshot;
+
+	public RbacUserDetails(Long userId, String tenantId, String username, String email, String password,
+			Collection<? extends GrantedAuthority> authorities, AuthoritySnapshot snapshot) {
+		super(username, password, true, true, true, true, authorities);
+		this.userId = userId;
+		this.tenantId = tenantId;
+		this.email = email;
+		this.snapshot = snapshot;
+	}
+
+}
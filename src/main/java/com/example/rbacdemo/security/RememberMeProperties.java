@@ -0,0 +1,34 @@
+package com.example.rbacdemo.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Data
+@ConfigurationProperties(prefix = "app.remember-me")
+public class RememberMeProperties {
+
+	/**
+	 * 记住我认证令牌的签名密钥，只在本节点内校验，默认每次启动随机生成
+	 */
+	private String key = UUID.randomUUID().toString();
+
+	/**
+	 * 令牌有效期
+	 */
+	private Duration validity = Duration.ofDays(1);
+
+	/**
+	 * 同一设备并发请求的容忍窗口：窗口内携带刚被轮换掉的旧令牌的请求直接复用上次校验结果；
+	 * 其他节点上的令牌吊销最迟在窗口结束后对本节点生效
+	 */
+	private Duration burstWindow = Duration.ofSeconds(10);
+
+	/**
+	 * 最近校验过的 series 缓存条目上限
+	 */
+	private int cacheMaxEntries = 1024;
+
+}
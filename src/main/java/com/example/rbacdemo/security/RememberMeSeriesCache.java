@@ -0,0 +1,147 @@
+package com.example.rbacdemo.security;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 最近校验通过的记住我 series 缓存。
+ * <p>
+ * 浏览器同时发出的多个请求会携带同一个 cookie，第一个请求轮换令牌后，其余请求携带的旧令牌会被视为盗用；
+ * 轮换前先在这里登记轮换前后的令牌对和校验通过的用户，容忍窗口内携带其中任一令牌的请求直接复用，
+ * 不查询令牌表也不加载用户，不轮换也不触发盗用检测。
+ * <p>
+ * 缓存只在本节点有效，发往其他节点的并发请求由 persistent_logins 中保存的上一个令牌识别；
+ * 本节点的吊销立即清除缓存，其他节点上的吊销最迟在窗口结束后生效。
+ */
+@Component
+public class RememberMeSeriesCache {
+
+	private final long burstWindowMillis;
+
+	private final Map<String, Entry> entries;
+
+	public RememberMeSeriesCache(RememberMeProperties properties) {
+		this.burstWindowMillis = properties.getBurstWindow().toMillis();
+		int maxEntries = properties.getCacheMaxEntries();
+		this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * 查找窗口内校验过、且令牌为轮换前或轮换后值的记录
+	 * @param series 设备 series
+	 * @param token cookie 中的令牌值
+	 * @return 命中的记录，未命中返回 null
+	 */
+	public synchronized Entry find(String series, String token) {
+		Entry entry = entries.get(series);
+		if (entry == null) {
+			return null;
+		}
+		if (System.currentTimeMillis() - entry.validatedAt > burstWindowMillis) {
+			entries.remove(series);
+			return null;
+		}
+		return token.equals(entry.presentedToken) || token.equals(entry.issuedToken) ? entry : null;
+	}
+
+	/**
+	 * 登记一次令牌轮换。窗口内已有请求以同一旧令牌登记过时不覆盖，返回已有记录，调用方沿用其新令牌
+	 * @param series 设备 series
+	 * @param entry 本次轮换的记录
+	 * @return 生效的记录
+	 */
+	public synchronized Entry claim(String series, Entry entry) {
+		Entry existing = entries.get(series);
+		if (existing != null && System.currentTimeMillis() - existing.validatedAt <= burstWindowMillis
+				&& existing.presentedToken.equals(entry.presentedToken)) {
+			return existing;
+		}
+		entries.put(series, entry);
+		return entry;
+	}
+
+	/**
+	 * 登记令牌轮换，覆盖已有记录，用于采用其他节点完成的轮换结果
+	 * @param series 设备 series
+	 * @param entry 轮换记录
+	 */
+	public synchronized void record(String series, Entry entry) {
+		entries.put(series, entry);
+	}
+
+	/**
+	 * 移除某用户的全部缓存记录
+	 * @param tenantId 租户ID
+	 * @param username 用户名
+	 */
+	public synchronized void evictUser(String tenantId, String username) {
+		entries.values()
+			.removeIf(entry -> entry.tenantId.equals(tenantId) && entry.username.equals(username));
+	}
+
+	public synchronized void evictSeries(String series) {
+		entries.remove(series);
+	}
+
+	public static final class Entry {
+
+		private final String tenantId;
+
+		private final String presentedToken;
+
+		private final String username;
+
+		private final long validatedAt;
+
+		private final String issuedToken;
+
+		private final UserDetails user;
+
+		public Entry(String tenantId, String presentedToken, String issuedToken, UserDetails user) {
+			this.tenantId = tenantId;
+			this.presentedToken = presentedToken;
+			this.issuedToken = issuedToken;
+			this.username = user.getUsername();
+			this.user = user;
+			this.validatedAt = System.currentTimeMillis();
+		}
+
+		public String getTenantId() {
+			return tenantId;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public String getIssuedToken() {
+			return issuedToken;
+		}
+
+		/**
+		 * 校验令牌时加载的用户，窗口内的并发请求直接复用
+		 */
+		public UserDetails getUser() {
+			return user;
+		}
+
+		/**
+		 * 令牌是否为轮换前的旧值，携带旧值的请求需要在响应中下发新令牌
+		 * @param token cookie 中的令牌值
+		 * @return 是否为旧值
+		 */
+		public boolean isPresentedToken(String token) {
+			return presentedToken.equals(token);
+		}
+
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.example.rbacdemo.security;
+
+import com.example.rbacdemo.model.Permission;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 某一资源类型下、某一权限的资源授权索引。
+ * <p>
+ * 精确资源ID走哈希查找，前缀模式编入字符前缀树，查询耗时只与资源ID长度有关，与授权条数无关。
+ */
+final class ResourceTrie {
+
+	private boolean matchesAll;
+
+	private final Set<String> exactIds = new HashSet<>();
+
+	private final Node root = new Node();
+
+	/**
+	 * 编入一条资源模式
+	 * @param pattern 资源标识或前缀模式，为空或 "*" 表示全部资源
+	 */
+	void add(String pattern) {
+		if (pattern == null || pattern.isBlank() || Permission.WILDCARD.equals(pattern)) {
+			matchesAll = true;
+			return;
+		}
+		if (!pattern.endsWith(Permission.WILDCARD)) {
+			exactIds.add(pattern);
+			return;
+		}
+		Node node = root;
+		String prefix = pattern.substring(0, pattern.length() - 1);
+		for (int i = 0; i < prefix.length(); i++) {
+			node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+		}
+		node.terminal = true;
+	}
+
+	/**
+	 * 判断资源是否被授权
+	 * @param resourceId 资源ID
+	 * @return 是否匹配任一授权模式
+	 */
+	boolean matches(String resourceId) {
+		if (matchesAll) {
+			return true;
+		}
+		if (resourceId == null) {
+			return false;
+		}
+		if (exactIds.contains(resourceId)) {
+			return true;
+		}
+		Node node = root;
+		for (int i = 0; i < resourceId.length(); i++) {
+			if (node.terminal) {
+				return true;
+			}
+			node = node.children.get(resourceId.charAt(i));
+			if (node == null) {
+				return false;
+			}
+		}
+		return node.terminal;
+	}
+
+	private static final class Node {
+
+		private final Map<Character, Node> children = new HashMap<>(4);
+
+		private boolean terminal;
+
+	}
+
+}
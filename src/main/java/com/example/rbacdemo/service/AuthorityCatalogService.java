@@ -0,0 +1,76 @@
+package com.example.rbacdemo.service;
+
+import com.example.rbacdemo.model.AuthorityChange;
+import com.example.rbacdemo.model.User;
+import com.example.rbacdemo.security.AuthoritySnapshot;
+
+import java.util.Map;
+
+public interface AuthorityCatalogService {
+
+	/**
+	 * 获取租户当前的授权版本号（本地短暂缓存），只随本租户的授权变更递增
+	 * @param tenantId 租户ID
+	 * @return 版本号
+	 */
+	long currentVersion(String tenantId);
+
+	/**
+	 * 一次读取所有租户当前的授权版本号，不经过本地缓存，用于跨租户的批量加载
+	 * @return 租户ID到版本号的映射，没有记录的租户版本号为 0
+	 */
+	Map<String, Long> currentVersions();
+
+	/**
+	 * 获取整体授权模型的版本号（本地短暂缓存），即所有租户版本号之和，任一租户变更都会使其增大；
+	 * 用于快照、授权矩阵等包含全部租户的模型判断是否需要刷新
+	 * @return 版本号
+	 */
+	long modelVersion();
+
+	/**
+	 * 记录变更主体，事务提交后由后台线程在独立的短事务中递增租户的授权版本号；需在修改角色或权限分配的事务中调用
+	 * @param subjectType 变更主体类型
+	 * @param tenantId 租户ID
+	 * @param subjectId 用户ID或角色ID
+	 */
+	void bumpVersion(AuthorityChange.SubjectType subjectType, String tenantId, Long subjectId);
+
+	/**
+	 * 根据角色ID获取权限字符串（ROLE_ 前缀）
+	 * @param roleId 角色ID
+	 * @return 权限字符串，角色不存在时返回 null
+	 */
+	String roleAuthority(Long roleId);
+
+	/**
+	 * 根据权限ID获取权限字符串
+	 * @param permissionId 权限ID
+	 * @return 权限字符串，权限不存在时返回 null
+	 */
+	String permissionAuthority(Long permissionId);
+
+	/**
+	 * 生成用户当前的授权快照
+	 * @param user 用户（角色与权限需已加载）
+	 * @param version 读取用户数据之前获取的版本号
+	 * @return 授权快照
+	 */
+	AuthoritySnapshot snapshotOf(User user, long version);
+
+	/**
+	 * 从数据库重新加载用户的授权快照
+	 * @param tenantId 用户所属租户ID
+	 * @param userId 用户ID
+	 * @param current 当前持有的快照，数据库熔断或出错时原样返回
+	 * @return 授权快照
+	 */
+	AuthoritySnapshot loadSnapshot(String tenantId, Long userId, AuthoritySnapshot current);
+
+	/**
+	 * 一次性加载所有角色和权限的权限字符串，用于启动预热
+	 * @return 加载的角色数与权限数之和
+	 */
+	int warmUp();
+
+}
@@ -0,0 +1,37 @@
+package com.example.rbacdemo.service;
+
+import com.example.rbacdemo.model.User;
+
+public interface AuthorizationService {
+
+	/**
+	 * 检查当前租户下的用户是否拥有对指定资源的权限
+	 * @param username 用户名
+	 * @param permission 权限名称
+	 * @param resourceType 资源类型，为空表示只检查全局权限
+	 * @param resourceId 资源ID
+	 * @return 是否授权
+	 */
+	boolean isGranted(String username, String permission, String resourceType, String resourceId);
+
+	/**
+	 * 使指定用户的授权缓存失效
+	 * @param tenantId 租户ID
+	 * @param username 用户名
+	 */
+	void evictUser(String tenantId, String username);
+
+	/**
+	 * 使单个租户的授权缓存失效，不影响其他租户
+	 * @param tenantId 租户ID
+	 */
+	void evictTenant(String tenantId);
+
+	/**
+	 * 预先编译用户的授权策略并放入缓存，用于启动预热
+	 * @param user 用户（角色与权限需已加载）
+	 * @param version 读取用户数据之前获取的授权版本号
+	 */
+	void preload(User user, long version);
+
+}
@@ -9,9 +9,11 @@ public interface PermissionService {
 	/**
 	 * 创建新权限
 	 * @param name 权限名称
+	 * @param resourceType 资源类型，为空表示全局权限
+	 * @param resourcePattern 资源标识或前缀模式（以 * 结尾）
 	 * @return 创建成功的权限信息
 	 */
-	Permission createPermission(String name);
+	Permission createPermission(String name, String resourceType, String resourcePattern);
 
 	/**
 	 * 获取所有权限
@@ -1,5 +1,6 @@
 package com.example.rbacdemo.service;
 
+import com.example.rbacdemo.dto.RoleResponse;
 import com.example.rbacdemo.model.Role;
 
 import java.util.List;
@@ -15,10 +16,10 @@ public interface RoleService {
 	Role createRole(String name);
 
 	/**
-	 * 获取所有角色
-	 * @return 角色列表
+	 * 获取当前租户的所有角色，结果按授权版本号缓存
+	 * @return 角色列表，不可修改
 	 */
-	List<Role> findAllRoles();
+	List<RoleResponse> findAllRoles();
 
 	/**
 	 * 为角色分配权限
@@ -27,4 +28,24 @@ public interface RoleService {
 	 */
 	void assignPermissionsToRole(Long roleId, Set<Long> permissionIds);
 
+	/**
+	 * 为角色添加单个权限，已拥有时不做任何修改
+	 * @param roleId 角色ID
+	 * @param permissionId 权限ID
+	 */
+	void addPermissionToRole(Long roleId, Long permissionId);
+
+	/**
+	 * 移除角色的单个权限，未拥有时不做任何修改
+	 * @param roleId 角色ID
+	 * @param permissionId 权限ID
+	 */
+	void removePermissionFromRole(Long roleId, Long permissionId);
+
+	/**
+	 * 加载所有租户的角色列表到缓存，用于启动预热
+	 * @return 加载的角色数
+	 */
+	int warmUpCatalog();
+
 }
\ No newline at end of file
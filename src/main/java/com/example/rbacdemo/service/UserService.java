@@ -43,4 +43,38 @@ public interface UserService {
 	 */
 	void assignRolesToUser(Long userId, Set<Long> roleIds);
 
+	/**
+	 * 为用户添加单个角色，已持有时不做任何修改
+	 * @param userId 用户ID
+	 * @param roleId 角色ID
+	 */
+	void addRoleToUser(Long userId, Long roleId);
+
+	/**
+	 * 移除用户的单个角色，未持有时不做任何修改
+	 * @param userId 用户ID
+	 * @param roleId 角色ID
+	 */
+	void removeRoleFromUser(Long userId, Long roleId);
+
+	/**
+	 * 异步记录用户的最近登录时间，不阻塞登录请求
+	 * @param userId 用户ID
+	 */
+	void recordLogin(Long userId);
+
+	/**
+	 * 检查当前租户下用户名是否未被占用，过滤器判定不存在时不查询数据库
+	 * @param username 用户名
+	 * @return 是否可用
+	 */
+	boolean isUsernameAvailable(String username);
+
+	/**
+	 * 检查当前租户下邮箱是否未被注册，过滤器判定不存在时不查询数据库
+	 * @param email 邮箱
+	 * @return 是否可用
+	 */
+	boolean isEmailAvailable(String email);
+
 }
\ No newline at end of file
@@ -1,29 +1,92 @@
 package com.example.rbacdemo.service.impl;
 
+import com.example.rbacdemo.degraded.DatabaseCircuitBreaker;
+import com.example.rbacdemo.model.Permission;
 import com.example.rbacdemo.model.Role;
 import com.example.rbacdemo.model.User;
 import com.example.rbacdemo.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.rbacdemo.security.RbacUserDetails;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.tenant.TenantContext;
+import com.example.rbacdemo.tenant.TenantProperties;
+import com.example.rbacdemo.tenant.TenantScopedCache;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 public class AuthUserDetailsService implements UserDetailsService {
 
 	private final UserRepository userRepository;
 
+	private final AuthorityCatalogService authorityCatalogService;
+
+	private final DatabaseCircuitBreaker circuitBreaker;
+
+	private final TransactionTemplate readOnly;
+
+	/**
+	 * 按授权版本校验的用户缓存：快照版本落后于当前版本即视为失效，角色或权限分配变更后自动重新加载。
+	 * 数据库熔断期间失效的条目仍可用于认证，即最近登录过的用户可以继续登录
+	 */
+	private final TenantScopedCache<RbacUserDetails> userDetails;
+
+	public AuthUserDetailsService(UserRepository userRepository, AuthorityCatalogService authorityCatalogService,
+			DatabaseCircuitBreaker circuitBreaker, PlatformTransactionManager transactionManager,
+			TenantProperties tenantProperties) {
+		this.userRepository = userRepository;
+		this.authorityCatalogService = authorityCatalogService;
+		this.circuitBreaker = circuitBreaker;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.userDetails = new TenantScopedCache<>(tenantProperties);
+	}
+
+	/**
+	 * 不在方法上开启事务：缓存命中和降级回退都不需要数据库连接，熔断期间也不会卡在获取连接上
+	 */
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		User user = userRepository.findByUsername(username)
+		// 先取版本号再读用户数据，保证快照版本不会比实际数据新
+		String tenantId = TenantContext.getTenantId();
+		long version = authorityCatalogService.currentVersion(tenantId);
+
+		RbacUserDetails cached = userDetails.getIfPresent(tenantId, username);
+		if (cached != null && cached.getSnapshot().getVersion() >= version) {
+			return copyOf(cached);
+		}
+
+		RbacUserDetails details = circuitBreaker.call("loadUserByUsername", () -> load(tenantId, username, version),
+				() -> cached);
+		return copyOf(details);
+	}
+
+	/**
+	 * 把已加载的用户放入缓存，用于启动预热
+	 * @param user 用户（角色与权限需已加载）
+	 * @param version 读取用户数据之前获取的版本号
+	 */
+	public void preload(User user, long version) {
+		userDetails.put(user.getTenantId(), user.getUsername(), toUserDetails(user, version));
+	}
+
+	private RbacUserDetails load(String tenantId, String username, long version) {
+		RbacUserDetails details = readOnly
+			.execute(status -> userRepository.findForAuthorizationByTenantIdAndUsername(tenantId, username)
+				.map(user -> toUserDetails(user, version)))
 			.orElseThrow(() -> new UsernameNotFoundException("用户不存在: " + username));
+		userDetails.put(tenantId, username, details);
+		return details;
+	}
 
+	private RbacUserDetails toUserDetails(User user, long version) {
 		List<SimpleGrantedAuthority> authorities = new ArrayList<>();
 
 		// 添加角色作为权限
@@ -31,20 +94,27 @@ public class AuthUserDetailsService implements UserDetailsService {
 			for (Role role : user.getRoles()) {
 				authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName().toUpperCase()));
 
-				// 如果角色有关联的权限，也添加这些权限
+				// 如果角色有关联的全局权限，也添加这些权限；资源级权限由 RbacPermissionEvaluator 判定
 				if (role.getPermissions() != null) {
 					role.getPermissions()
+						.stream()
+						.filter(Permission::isGlobal)
 						.forEach(permission -> authorities
 							.add(new SimpleGrantedAuthority(permission.getName().toUpperCase())));
 				}
 			}
 		}
 
-		return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), true, // 账户是否可用
-				true, // 账户是否未过期
-				true, // 凭证是否未过期
-				true, // 账户是否未锁定
-				authorities);
+		return new RbacUserDetails(user.getId(), user.getTenantId(), user.getUsername(), user.getEmail(),
+				user.getPassword(), authorities, authorityCatalogService.snapshotOf(user, version));
+	}
+
+	/**
+	 * 认证成功后 ProviderManager 会擦除返回对象的密码，缓存中的对象不能直接交出去
+	 */
+	private static RbacUserDetails copyOf(RbacUserDetails details) {
+		return new RbacUserDetails(details.getUserId(), details.getTenantId(), details.getUsername(),
+				details.getEmail(), details.getPassword(), details.getAuthorities(), details.getSnapshot());
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,291 @@
+package com.example.rbacdemo.service.impl;
+
+import com.example.rbacdemo.datasource.ReadYourWritesContext;
+import com.example.rbacdemo.degraded.DatabaseCircuitBreaker;
+import com.example.rbacdemo.model.AuthorityChange;
+import com.example.rbacdemo.model.AuthorityVersion;
+import com.example.rbacdemo.model.Permission;
+import com.example.rbacdemo.model.Role;
+import com.example.rbacdemo.model.User;
+import com.example.rbacdemo.repository.AuthorityChangeRepository;
+import com.example.rbacdemo.repository.AuthorityVersionRepository;
+import com.example.rbacdemo.repository.PermissionRepository;
+import com.example.rbacdemo.repository.RoleRepository;
+import com.example.rbacdemo.repository.UserRepository;
+import com.example.rbacdemo.security.AuthoritySnapshot;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.tenant.TenantProperties;
+import com.example.rbacdemo.tenant.TenantScopedCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class AuthorityCatalogServiceImpl implements AuthorityCatalogService {
+
+	/**
+	 * 版本号本地缓存时长，避免每次请求都查询数据库
+	 */
+	private static final long VERSION_TTL_MILLIS = 1000;
+
+	/**
+	 * 租户版本号在租户分区内的缓存键
+	 */
+	private static final String VERSION_KEY = "version";
+
+	private final AuthorityVersionRepository authorityVersionRepository;
+
+	private final AuthorityChangeRepository authorityChangeRepository;
+
+	private final RoleRepository roleRepository;
+
+	private final PermissionRepository permissionRepository;
+
+	private final UserRepository userRepository;
+
+	private final DatabaseCircuitBreaker circuitBreaker;
+
+	private final TransactionTemplate readOnly;
+
+	/**
+	 * 版本号在写事务提交之后用独立的短事务递增，租户版本行上的锁不跨越写事务
+	 */
+	private final TransactionTemplate versionIncrement;
+
+	/**
+	 * 递增版本号的单个后台线程：提交回调里写事务的连接尚未归还，在回调中再取连接，
+	 * 写者多于连接池时会互相等待；按提交顺序逐个递增，每次提交都对应一次递增
+	 */
+	private final ExecutorService versionExecutor = Executors
+		.newSingleThreadExecutor(Thread.ofPlatform().name("authority-version").daemon().factory());
+
+	private final Map<Long, String> roleAuthorities = new ConcurrentHashMap<>();
+
+	private final Map<Long, String> permissionAuthorities = new ConcurrentHashMap<>();
+
+	/**
+	 * 各租户的版本号及读取时间，分区数与授权缓存一样有上限
+	 */
+	private final TenantScopedCache<CachedVersion> tenantVersions;
+
+	private volatile long cachedModelVersion;
+
+	private volatile long modelVersionCachedAt;
+
+	private volatile boolean modelVersionLoaded;
+
+	public AuthorityCatalogServiceImpl(AuthorityVersionRepository authorityVersionRepository,
+			AuthorityChangeRepository authorityChangeRepository, RoleRepository roleRepository,
+			PermissionRepository permissionRepository, UserRepository userRepository,
+			DatabaseCircuitBreaker circuitBreaker, PlatformTransactionManager transactionManager,
+			TenantProperties tenantProperties) {
+		this.authorityVersionRepository = authorityVersionRepository;
+		this.authorityChangeRepository = authorityChangeRepository;
+		this.roleRepository = roleRepository;
+		this.permissionRepository = permissionRepository;
+		this.userRepository = userRepository;
+		this.circuitBreaker = circuitBreaker;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.versionIncrement = new TransactionTemplate(transactionManager);
+		this.tenantVersions = new TenantScopedCache<>(tenantProperties);
+	}
+
+	/**
+	 * 本节点的授权变更提交后会清除对应租户的缓存版本号，提交前开始的读取不会把旧版本号写回
+	 */
+	@Override
+	public long currentVersion(String tenantId) {
+		long now = System.currentTimeMillis();
+		CachedVersion cached = tenantVersions.getIfPresent(tenantId, VERSION_KEY);
+		if (cached != null && now - cached.readAt() <= VERSION_TTL_MILLIS) {
+			return cached.version();
+		}
+		long generation = tenantVersions.generation(tenantId);
+		// 数据库不可用时沿用最后读到的版本号，各级缓存按旧版本继续提供服务
+		long version = circuitBreaker.call("currentVersion",
+				() -> authorityVersionRepository.findByTenantId(tenantId).map(AuthorityVersion::getVersion).orElse(0L),
+				() -> cached != null ? cached.version() : null);
+		tenantVersions.putIfUnchanged(tenantId, VERSION_KEY, new CachedVersion(version, now), generation);
+		return version;
+	}
+
+	@Override
+	public Map<String, Long> currentVersions() {
+		return readOnly.execute(status -> authorityVersionRepository.findAll()
+			.stream()
+			.collect(Collectors.toMap(AuthorityVersion::getTenantId, AuthorityVersion::getVersion)));
+	}
+
+	@Override
+	public long modelVersion() {
+		long now = System.currentTimeMillis();
+		if (now - modelVersionCachedAt > VERSION_TTL_MILLIS) {
+			cachedModelVersion = circuitBreaker.call("modelVersion", authorityVersionRepository::sumVersions,
+					() -> modelVersionLoaded ? cachedModelVersion : null);
+			modelVersionLoaded = true;
+			modelVersionCachedAt = now;
+		}
+		return cachedModelVersion;
+	}
+
+	@Override
+	@Transactional
+	public void bumpVersion(AuthorityChange.SubjectType subjectType, String tenantId, Long subjectId) {
+		AuthorityChange change = new AuthorityChange();
+		change.setSubjectType(subjectType);
+		change.setTenantId(tenantId);
+		change.setSubjectId(subjectId);
+		change.setChangedAt(new Date());
+		authorityChangeRepository.save(change);
+		// 版本号若在写事务中递增，同一租户的所有写者都会在这一行上排队到各自提交；改为提交之后由后台线程递增，
+		// 读到新版本号时数据和变更记录都已可见
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					versionExecutor.execute(() -> incrementVersion(tenantId));
+				}
+			});
+		}
+		else {
+			versionExecutor.execute(() -> incrementVersion(tenantId));
+		}
+	}
+
+	/**
+	 * 关闭前把已提交变更的版本号递增完
+	 */
+	@PreDestroy
+	void shutdown() throws InterruptedException {
+		versionExecutor.shutdown();
+		versionExecutor.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 递增失败时数据已经提交，只能记录日志：本节点的缓存已由调用方清除，其他节点要到该租户下一次变更才刷新
+	 */
+	private void incrementVersion(String tenantId) {
+		try {
+			versionIncrement.executeWithoutResult(status -> authorityVersionRepository.increment(tenantId));
+		}
+		catch (RuntimeException ex) {
+			log.error("授权变更已提交但递增租户版本号失败: tenant={}", tenantId, ex);
+		}
+		finally {
+			tenantVersions.evict(tenantId, VERSION_KEY);
+			modelVersionCachedAt = 0;
+		}
+	}
+
+	@Override
+	public String roleAuthority(Long roleId) {
+		String authority = roleAuthorities.get(roleId);
+		if (authority == null) {
+			authority = circuitBreaker.call("roleAuthority",
+					() -> roleRepository.findForAuthorityById(roleId)
+						.map(AuthorityCatalogServiceImpl::toAuthority)
+						.orElse(null));
+			if (authority != null) {
+				roleAuthorities.put(roleId, authority);
+			}
+		}
+		return authority;
+	}
+
+	@Override
+	public String permissionAuthority(Long permissionId) {
+		String authority = permissionAuthorities.get(permissionId);
+		if (authority == null) {
+			authority = circuitBreaker.call("permissionAuthority",
+					() -> permissionRepository.findForAuthorityById(permissionId)
+						.map(AuthorityCatalogServiceImpl::toAuthority)
+						.orElse(null));
+			if (authority != null) {
+				permissionAuthorities.put(permissionId, authority);
+			}
+		}
+		return authority;
+	}
+
+	@Override
+	public AuthoritySnapshot snapshotOf(User user, long version) {
+		TreeSet<Long> roleIds = new TreeSet<>();
+		TreeSet<Long> permissionIds = new TreeSet<>();
+		if (user.getRoles() != null) {
+			for (Role role : user.getRoles()) {
+				roleIds.add(role.getId());
+				roleAuthorities.putIfAbsent(role.getId(), toAuthority(role));
+				if (role.getPermissions() == null) {
+					continue;
+				}
+				for (Permission permission : role.getPermissions()) {
+					if (permission.isGlobal()) {
+						permissionIds.add(permission.getId());
+						permissionAuthorities.putIfAbsent(permission.getId(), toAuthority(permission));
+					}
+				}
+			}
+		}
+		return new AuthoritySnapshot(version, toArray(roleIds), toArray(permissionIds));
+	}
+
+	/**
+	 * 版本号与用户数据在主库的同一事务中读取：副本之间的复制进度不同，分开读可能给旧数据打上新版本号，
+	 * 之后再也不会刷新。不在方法上开启事务，熔断期间不占用连接
+	 */
+	@Override
+	public AuthoritySnapshot loadSnapshot(String tenantId, Long userId, AuthoritySnapshot current) {
+		return circuitBreaker.call("loadSnapshot",
+				() -> ReadYourWritesContext.onPrimary(() -> readOnly.execute(status -> {
+					long version = authorityVersionRepository.findByTenantId(tenantId)
+						.map(AuthorityVersion::getVersion)
+						.orElse(0L);
+					return userRepository.findForAuthorizationById(userId)
+						.map(user -> snapshotOf(user, version))
+						.orElseGet(() -> new AuthoritySnapshot(version, new long[0], new long[0]));
+				})), () -> current);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public int warmUp() {
+		List<Role> roles = roleRepository.findAll();
+		roles.forEach(role -> roleAuthorities.put(role.getId(), toAuthority(role)));
+		List<Permission> permissions = permissionRepository.findAll();
+		permissions.forEach(permission -> permissionAuthorities.put(permission.getId(), toAuthority(permission)));
+		return roles.size() + permissions.size();
+	}
+
+	static String toAuthority(Role role) {
+		return "ROLE_" + role.getName().toUpperCase();
+	}
+
+	static String toAuthority(Permission permission) {
+		return permission.getName().toUpperCase();
+	}
+
+	private static long[] toArray(TreeSet<Long> ids) {
+		return ids.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private record CachedVersion(long version, long readAt) {
+	}
+
+}
@@ -0,0 +1,161 @@
+package com.example.rbacdemo.service.impl;
+
+import com.example.rbacdemo.degraded.DatabaseCircuitBreaker;
+import com.example.rbacdemo.model.User;
+import com.example.rbacdemo.repository.UserRepository;
+import com.example.rbacdemo.security.CompiledPolicy;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.service.AuthorizationService;
+import com.example.rbacdemo.snapshot.RbacSnapshotService;
+import com.example.rbacdemo.tenant.TenantContext;
+import com.example.rbacdemo.tenant.TenantProperties;
+import com.example.rbacdemo.tenant.TenantScopedCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class AuthorizationServiceImpl implements AuthorizationService {
+
+	private final UserRepository userRepository;
+
+	private final RbacSnapshotService snapshotService;
+
+	private final AuthorityCatalogService authorityCatalogService;
+
+	private final DatabaseCircuitBreaker circuitBreaker;
+
+	private final TransactionTemplate readOnly;
+
+	/**
+	 * 编译结果带授权版本号，版本号落后于当前版本即视为未命中，其他节点的授权变更也能及时生效
+	 */
+	private final TenantScopedCache<VersionedPolicy> policies;
+
+	/**
+	 * 最近一次成功编译的策略，只在数据库熔断期间用于回答授权检查；授权变更时同样清除，
+	 * 熔断期间不能再用撤销前的策略放行。写入一律经过 {@link TenantScopedCache#putIfUnchanged}：
+	 * 读取用户数据之后发生过清除的编译结果不写入，否则与撤销并发的编译会把撤销前的策略放回来
+	 */
+	private final TenantScopedCache<VersionedPolicy> lastKnownGood;
+
+	public AuthorizationServiceImpl(UserRepository userRepository, RbacSnapshotService snapshotService,
+			AuthorityCatalogService authorityCatalogService, DatabaseCircuitBreaker circuitBreaker,
+			PlatformTransactionManager transactionManager, TenantProperties tenantProperties) {
+		this.userRepository = userRepository;
+		this.snapshotService = snapshotService;
+		this.authorityCatalogService = authorityCatalogService;
+		this.circuitBreaker = circuitBreaker;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.policies = new TenantScopedCache<>(tenantProperties);
+		this.lastKnownGood = new TenantScopedCache<>(tenantProperties);
+	}
+
+	@Override
+	public boolean isGranted(String username, String permission, String resourceType, String resourceId) {
+		if (username == null || permission == null) {
+			return false;
+		}
+		// 先取版本号再读用户数据，保证编译结果的版本号不会比实际数据新
+		String tenantId = TenantContext.getTenantId();
+		long version = authorityCatalogService.currentVersion(tenantId);
+		VersionedPolicy cached = policies.getIfPresent(tenantId, username);
+		if (cached != null && cached.version() >= version) {
+			return cached.policy().isGranted(permission, resourceType, resourceId);
+		}
+		// 缓存未命中时先查快照，快照无法回答（新用户或授权在快照之后有变化）再从数据库编译
+		Boolean granted = snapshotService.isGranted(tenantId, username, permission, resourceType, resourceId);
+		if (granted != null) {
+			return granted;
+		}
+		return circuitBreaker.call("isGranted",
+				() -> compile(tenantId, username, version).isGranted(permission, resourceType, resourceId),
+				() -> staleDecision(tenantId, username, permission, resourceType, resourceId));
+	}
+
+	/**
+	 * 在事务中调用时推迟到提交之后清除，避免并发请求在提交前把旧授权重新编译进缓存
+	 */
+	@Override
+	public void evictUser(String tenantId, String username) {
+		afterCommit(() -> {
+			policies.evict(tenantId, username);
+			lastKnownGood.evict(tenantId, username);
+		});
+	}
+
+	@Override
+	public void evictTenant(String tenantId) {
+		afterCommit(() -> {
+			policies.evictTenant(tenantId);
+			lastKnownGood.evictTenant(tenantId);
+		});
+	}
+
+	/**
+	 * 用户数据在调用之前就已读出，无法在读取前取清除代数；改为先取代数再核对授权版本号，
+	 * 版本号已前进说明读取之后有过授权变更，整条丢弃
+	 */
+	@Override
+	public void preload(User user, long version) {
+		String tenantId = user.getTenantId();
+		long generation = lastKnownGood.generation(tenantId);
+		if (authorityCatalogService.currentVersion(tenantId) > version) {
+			return;
+		}
+		VersionedPolicy policy = new VersionedPolicy(version, CompiledPolicy.compile(user));
+		policies.put(tenantId, user.getUsername(), policy);
+		lastKnownGood.putIfUnchanged(tenantId, user.getUsername(), policy, generation);
+	}
+
+	/**
+	 * 从数据库编译用户策略；用户不存在时返回空策略但不缓存，避免任意用户名占满缓存
+	 */
+	private CompiledPolicy compile(String tenantId, String username, long version) {
+		long generation = lastKnownGood.generation(tenantId);
+		CompiledPolicy policy = readOnly.execute(status -> userRepository
+			.findForAuthorizationByTenantIdAndUsername(tenantId, username)
+			.map(CompiledPolicy::compile)
+			.orElse(null));
+		if (policy == null) {
+			return CompiledPolicy.compile(null);
+		}
+		VersionedPolicy versioned = new VersionedPolicy(version, policy);
+		policies.put(tenantId, username, versioned);
+		lastKnownGood.putIfUnchanged(tenantId, username, versioned, generation);
+		return policy;
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		}
+		else {
+			action.run();
+		}
+	}
+
+	/**
+	 * 数据库不可用时的判定：先用最近一次编译的策略，再用忽略后续变更的快照，都没有则返回 null 由熔断器抛出异常
+	 */
+	private Boolean staleDecision(String tenantId, String username, String permission, String resourceType,
+			String resourceId) {
+		VersionedPolicy lastKnown = lastKnownGood.getIfPresent(tenantId, username);
+		if (lastKnown != null) {
+			return lastKnown.policy().isGranted(permission, resourceType, resourceId);
+		}
+		return snapshotService.isGrantedIgnoringChanges(tenantId, username, permission, resourceType, resourceId);
+	}
+
+	private record VersionedPolicy(long version, CompiledPolicy policy) {
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.example.rbacdemo.service.impl;
+
+import com.example.rbacdemo.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 授权分配写操作的事务模板：每次尝试开启新事务，遇到乐观锁冲突、死锁或并发插入同一关联行时退避后重试。
+ * <p>
+ * 调用方不能再包一层事务，否则冲突发生在外层提交时，这里无从重试。
+ */
+@Slf4j
+@Component
+public class ConflictRetryTemplate {
+
+	private static final int MAX_ATTEMPTS = 5;
+
+	private static final long BASE_BACKOFF_MILLIS = 5;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final MeterRegistry meterRegistry;
+
+	public ConflictRetryTemplate(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * 在新事务中执行写操作，冲突时重试
+	 * @param operation 操作名称，用于指标和日志
+	 * @param action 写操作，会被重复执行，除数据库外不应有其他副作用
+	 * @return 写操作的返回值
+	 * @throws ConcurrentUpdateException 重试次数用完仍冲突
+	 */
+	public <T> T execute(String operation, Supplier<T> action) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> action.get());
+			}
+			catch (ConcurrencyFailureException | DataIntegrityViolationException ex) {
+				if (!isConflict(ex)) {
+					throw ex;
+				}
+				meterRegistry.counter("rbac.authority.update.conflicts", "operation", operation).increment();
+				if (attempt >= MAX_ATTEMPTS) {
+					throw new ConcurrentUpdateException("并发修改冲突，请稍后重试: " + operation, ex);
+				}
+				log.debug("{} 第 {} 次尝试冲突，重试", operation, attempt, ex);
+				backoff(attempt);
+			}
+		}
+	}
+
+	/**
+	 * 无返回值的写操作
+	 */
+	public void run(String operation, Runnable action) {
+		execute(operation, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/**
+	 * JPA 路径上唯一键冲突被转换为 {@link DataIntegrityViolationException} 而不是 {@link DuplicateKeyException}，
+	 * 需按 Hibernate 识别的约束类型判断；外键、非空等其他约束违反重试也不会成功，直接抛出
+	 */
+	private static boolean isConflict(RuntimeException ex) {
+		if (ex instanceof ConcurrencyFailureException || ex instanceof DuplicateKeyException) {
+			return true;
+		}
+		return ex.getCause() instanceof ConstraintViolationException violation
+				&& violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+	}
+
+	/**
+	 * 指数退避加随机抖动，避免冲突的写者同时重试再次冲突
+	 */
+	private static void backoff(int attempt) {
+		long ceiling = BASE_BACKOFF_MILLIS << attempt;
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new ConcurrentUpdateException("等待重试时被中断", ex);
+		}
+	}
+
+}
@@ -3,8 +3,10 @@ package com.example.rbacdemo.service.impl;
 import com.example.rbacdemo.model.Permission;
 import com.example.rbacdemo.repository.PermissionRepository;
 import com.example.rbacdemo.service.PermissionService;
+import com.example.rbacdemo.tenant.TenantContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,15 +17,26 @@ public class PermissionServiceImpl implements PermissionService {
 	private final PermissionRepository permissionRepository;
 
 	@Override
-	public Permission createPermission(String name) {
+	@Transactional
+	public Permission createPermission(String name, String resourceType, String resourcePattern) {
+		if (resourcePattern != null && resourcePattern.indexOf(Permission.WILDCARD) >= 0
+				&& resourcePattern.indexOf(Permission.WILDCARD) != resourcePattern.length() - 1) {
+			throw new RuntimeException("资源模式只允许以 * 结尾: " + resourcePattern);
+		}
+
 		Permission permission = new Permission();
+		permission.setTenantId(TenantContext.getTenantId());
 		permission.setName(name);
+		boolean global = resourceType == null || resourceType.isBlank();
+		permission.setResourceType(global ? "" : resourceType);
+		permission.setResourcePattern(global || resourcePattern == null ? "" : resourcePattern);
 		return permissionRepository.save(permission);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Permission> findAllPermissions() {
-		return permissionRepository.findAll();
+		return permissionRepository.findAllByTenantId(TenantContext.getTenantId());
 	}
 
 }
\ No newline at end of file
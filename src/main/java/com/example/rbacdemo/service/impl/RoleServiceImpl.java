@@ -1,52 +1,220 @@
 package com.example.rbacdemo.service.impl;
 
+import com.example.rbacdemo.audit.AuditLog;
+import com.example.rbacdemo.datasource.ReadYourWritesContext;
+import com.example.rbacdemo.dto.RoleResponse;
+import com.example.rbacdemo.model.AuthorityChange;
 import com.example.rbacdemo.model.Permission;
 import com.example.rbacdemo.model.Role;
 import com.example.rbacdemo.repository.PermissionRepository;
 import com.example.rbacdemo.repository.RoleRepository;
+import com.example.rbacdemo.repository.UserEffectivePermissionRepository;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.service.AuthorizationService;
 import com.example.rbacdemo.service.RoleService;
-import lombok.RequiredArgsConstructor;
+import com.example.rbacdemo.tenant.TenantContext;
+import com.example.rbacdemo.tenant.TenantProperties;
+import com.example.rbacdemo.tenant.TenantScopedCache;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class RoleServiceImpl implements RoleService {
 
+	/**
+	 * 角色列表在租户分区内的缓存键
+	 */
+	private static final String ALL_ROLES = "*";
+
 	private final RoleRepository roleRepository;
 
 	private final PermissionRepository permissionRepository;
 
+	private final UserEffectivePermissionRepository effectivePermissionRepository;
+
+	private final AuthorizationService authorizationService;
+
+	private final AuthorityCatalogService authorityCatalogService;
+
+	private final AuditLog auditLog;
+
+	private final ConflictRetryTemplate conflictRetry;
+
+	private final TransactionTemplate readOnly;
+
+	/**
+	 * 角色列表缓存，值为不可变 DTO 并带有加载前读取的授权版本号，版本号落后时视为未命中
+	 */
+	private final TenantScopedCache<VersionedRoles> roleCatalog;
+
+	public RoleServiceImpl(RoleRepository roleRepository, PermissionRepository permissionRepository,
+			UserEffectivePermissionRepository effectivePermissionRepository, AuthorizationService authorizationService,
+			AuthorityCatalogService authorityCatalogService, AuditLog auditLog, ConflictRetryTemplate conflictRetry,
+			PlatformTransactionManager transactionManager, TenantProperties tenantProperties) {
+		this.roleRepository = roleRepository;
+		this.permissionRepository = permissionRepository;
+		this.effectivePermissionRepository = effectivePermissionRepository;
+		this.authorizationService = authorizationService;
+		this.authorityCatalogService = authorityCatalogService;
+		this.auditLog = auditLog;
+		this.conflictRetry = conflictRetry;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.roleCatalog = new TenantScopedCache<>(tenantProperties);
+	}
+
+	/**
+	 * 新角色同样递增授权版本号，其他实例的角色列表缓存据此失效
+	 */
 	@Override
+	@Transactional
 	public Role createRole(String name) {
 		Role role = new Role();
+		role.setTenantId(TenantContext.getTenantId());
 		role.setName(name);
 		role.setPermissions(new HashSet<>());
-		return roleRepository.save(role);
+		Role saved = roleRepository.save(role);
+		authorityCatalogService.bumpVersion(AuthorityChange.SubjectType.ROLE, saved.getTenantId(), saved.getId());
+		afterCommit(() -> roleCatalog.evictTenant(saved.getTenantId()));
+		return saved;
 	}
 
+	/**
+	 * 先取版本号再读角色数据；角色在主库读取，副本的复制延迟可能给旧数据打上新版本号，之后再也不会刷新
+	 */
 	@Override
-	public List<Role> findAllRoles() {
-		return roleRepository.findAll();
+	public List<RoleResponse> findAllRoles() {
+		String tenantId = TenantContext.getTenantId();
+		long version = authorityCatalogService.currentVersion(tenantId);
+		VersionedRoles cached = roleCatalog.getIfPresent(tenantId, ALL_ROLES);
+		if (cached != null && cached.version() >= version) {
+			return cached.roles();
+		}
+		List<RoleResponse> roles = ReadYourWritesContext.onPrimary(() -> readOnly
+			.execute(status -> roleRepository.findAllByTenantId(tenantId).stream().map(RoleResponse::from).toList()));
+		roleCatalog.put(tenantId, ALL_ROLES, new VersionedRoles(version, roles));
+		return roles;
 	}
 
+	/**
+	 * 整体替换角色权限。roles.version 乐观锁保证并发替换不会互相覆盖，冲突时在新事务中重新读取后重试
+	 */
 	@Override
-	@Transactional
 	public void assignPermissionsToRole(Long roleId, Set<Long> permissionIds) {
-		Role role = roleRepository.findById(roleId).orElseThrow(() -> new RuntimeException("角色不存在: ID=" + roleId));
+		String tenantId = TenantContext.getTenantId();
+		conflictRetry.run("assignPermissionsToRole", () -> {
+			Role role = roleRepository.findByIdAndTenantId(roleId, tenantId)
+				.orElseThrow(() -> new RuntimeException("角色不存在: ID=" + roleId));
+
+			Set<Permission> permissions = permissionIds.stream()
+				.map(permissionId -> permissionRepository.findByIdAndTenantId(permissionId, tenantId)
+					.orElseThrow(() -> new RuntimeException("权限不存在: ID=" + permissionId)))
+				.collect(Collectors.toSet());
+
+			Set<Long> previousPermissionIds = role.getPermissions() == null ? Set.of()
+					: role.getPermissions().stream().map(Permission::getId).collect(Collectors.toSet());
 
-		Set<Permission> permissions = permissionIds.stream()
-			.map(permissionId -> permissionRepository.findById(permissionId)
-				.orElseThrow(() -> new RuntimeException("权限不存在: ID=" + permissionId)))
-			.collect(Collectors.toSet());
+			role.setPermissions(permissions);
+			roleRepository.save(role);
+			effectivePermissionRepository.deleteByRoleHolders(roleId);
+			effectivePermissionRepository.insertForRoleHolders(roleId);
+			authorityCatalogService.bumpVersion(AuthorityChange.SubjectType.ROLE, tenantId, roleId);
+			authorizationService.evictTenant(tenantId);
+			afterCommit(() -> roleCatalog.evictTenant(tenantId));
+			permissionIds.stream()
+				.filter(permissionId -> !previousPermissionIds.contains(permissionId))
+				.forEach(permissionId -> auditLog.permissionGranted(roleId, permissionId));
+			previousPermissionIds.stream()
+				.filter(permissionId -> !permissionIds.contains(permissionId))
+				.forEach(permissionId -> auditLog.permissionRevoked(roleId, permissionId));
+		});
+	}
+
+	/**
+	 * 单行插入 role_permissions，有效权限只补齐这一条，不重建角色持有者的全部有效权限
+	 */
+	@Override
+	public void addPermissionToRole(Long roleId, Long permissionId) {
+		String tenantId = TenantContext.getTenantId();
+		conflictRetry.run("addPermissionToRole", () -> {
+			if (!roleRepository.existsByIdAndTenantId(roleId, tenantId)) {
+				throw new RuntimeException("角色不存在: ID=" + roleId);
+			}
+			if (!permissionRepository.existsByIdAndTenantId(permissionId, tenantId)) {
+				throw new RuntimeException("权限不存在: ID=" + permissionId);
+			}
+			if (roleRepository.insertRolePermission(roleId, permissionId) == 0) {
+				return;
+			}
+			effectivePermissionRepository.insertForRolePermission(roleId, permissionId);
+			permissionChanged(tenantId, roleId);
+			auditLog.permissionGranted(roleId, permissionId);
+		});
+	}
+
+	@Override
+	public void removePermissionFromRole(Long roleId, Long permissionId) {
+		String tenantId = TenantContext.getTenantId();
+		conflictRetry.run("removePermissionFromRole", () -> {
+			if (!roleRepository.existsByIdAndTenantId(roleId, tenantId)) {
+				throw new RuntimeException("角色不存在: ID=" + roleId);
+			}
+			if (roleRepository.deleteRolePermission(roleId, permissionId) == 0) {
+				return;
+			}
+			effectivePermissionRepository.deleteForRolePermission(roleId, permissionId);
+			permissionChanged(tenantId, roleId);
+			auditLog.permissionRevoked(roleId, permissionId);
+		});
+	}
+
+	@Override
+	public int warmUpCatalog() {
+		Map<String, Long> versions = authorityCatalogService.currentVersions();
+		Map<String, List<RoleResponse>> catalog = ReadYourWritesContext.onPrimary(() -> readOnly
+			.execute(status -> roleRepository.findAll()
+				.stream()
+				.collect(Collectors.groupingBy(Role::getTenantId,
+						Collectors.mapping(RoleResponse::from, Collectors.toUnmodifiableList())))));
+		catalog.forEach((tenantId, roles) -> roleCatalog.put(tenantId, ALL_ROLES,
+				new VersionedRoles(versions.getOrDefault(tenantId, 0L), roles)));
+		return catalog.values().stream().mapToInt(List::size).sum();
+	}
+
+	private void permissionChanged(String tenantId, Long roleId) {
+		authorityCatalogService.bumpVersion(AuthorityChange.SubjectType.ROLE, tenantId, roleId);
+		authorizationService.evictTenant(tenantId);
+		afterCommit(() -> roleCatalog.evictTenant(tenantId));
+	}
+
+	/**
+	 * 缓存清除推迟到事务提交之后：冲突重试时被回滚的尝试不会清除，提交前的并发读取也不会把旧数据重新放回缓存
+	 */
+	private static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		}
+		else {
+			action.run();
+		}
+	}
 
-		role.setPermissions(permissions);
-		roleRepository.save(role);
+	private record VersionedRoles(long version, List<RoleResponse> roles) {
 	}
 
 }
\ No newline at end of file
@@ -1,15 +1,26 @@
 package com.example.rbacdemo.service.impl;
 
+import com.example.rbacdemo.audit.AuditLog;
+import com.example.rbacdemo.availability.UserAvailabilityIndex;
+import com.example.rbacdemo.exception.DuplicateUserException;
+import com.example.rbacdemo.model.AuthorityChange;
 import com.example.rbacdemo.model.Role;
 import com.example.rbacdemo.model.User;
 import com.example.rbacdemo.repository.RoleRepository;
+import com.example.rbacdemo.repository.UserEffectivePermissionRepository;
 import com.example.rbacdemo.repository.UserRepository;
+import com.example.rbacdemo.security.RbacPersistentTokenRepository;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.service.AuthorizationService;
 import com.example.rbacdemo.service.UserService;
+import com.example.rbacdemo.tenant.TenantContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -23,44 +34,161 @@ public class UserServiceImpl implements UserService {
 
 	private final RoleRepository roleRepository;
 
+	private final UserEffectivePermissionRepository effectivePermissionRepository;
+
 	private final PasswordEncoder passwordEncoder;
 
+	private final AuthorizationService authorizationService;
+
+	private final AuthorityCatalogService authorityCatalogService;
+
+	private final RbacPersistentTokenRepository persistentTokenRepository;
+
+	private final AuditLog auditLog;
+
+	private final UserAvailabilityIndex availabilityIndex;
+
+	private final ConflictRetryTemplate conflictRetry;
+
 	@Override
+	@Transactional
 	public User registerUser(String username, String email, String password) {
+		// 在计算 BCrypt 哈希之前拦截重复注册
+		if (!isUsernameAvailable(username)) {
+			throw new DuplicateUserException("用户名已存在: " + username);
+		}
+		if (!isEmailAvailable(email)) {
+			throw new DuplicateUserException("邮箱已被注册: " + email);
+		}
+
 		User user = new User();
+		user.setTenantId(TenantContext.getTenantId());
 		user.setUsername(username);
 		user.setEmail(email);
 		user.setPassword(passwordEncoder.encode(password));
 		user.setRoles(new HashSet<>());
-		return userRepository.save(user);
+		User saved = userRepository.save(user);
+		availabilityIndex.add(saved.getTenantId(), saved.getUsername(), saved.getEmail());
+		authorizationService.evictUser(saved.getTenantId(), saved.getUsername());
+		return saved;
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public User findByUsername(String username) {
-		return userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("用户不存在: " + username));
+		return userRepository.findByTenantIdAndUsername(TenantContext.getTenantId(), username)
+			.orElseThrow(() -> new RuntimeException("用户不存在: " + username));
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<User> findAllUsers() {
-		return userRepository.findAll();
+		return userRepository.findAllByTenantId(TenantContext.getTenantId());
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public User findUserById(Long id) {
-		return userRepository.findById(id).orElseThrow(() -> new RuntimeException("用户不存在: ID=" + id));
+		return userRepository.findByIdAndTenantId(id, TenantContext.getTenantId())
+			.orElseThrow(() -> new RuntimeException("用户不存在: ID=" + id));
 	}
 
+	/**
+	 * 整体替换用户角色。users.version 乐观锁保证并发替换不会互相覆盖，冲突时在新事务中重新读取后重试
+	 */
 	@Override
-	@Transactional
 	public void assignRolesToUser(Long userId, Set<Long> roleIds) {
-		User user = findUserById(userId);
-		Set<Role> roles = roleIds.stream()
-			.map(roleId -> roleRepository.findById(roleId)
-				.orElseThrow(() -> new RuntimeException("角色不存在: ID=" + roleId)))
-			.collect(Collectors.toSet());
-
-		user.setRoles(roles);
-		userRepository.save(user);
+		conflictRetry.run("assignRolesToUser", () -> {
+			User user = findUserById(userId);
+			Set<Role> roles = roleIds.stream()
+				.map(roleId -> roleRepository.findByIdAndTenantId(roleId, user.getTenantId())
+					.orElseThrow(() -> new RuntimeException("角色不存在: ID=" + roleId)))
+				.collect(Collectors.toSet());
+
+			Set<Long> previousRoleIds = user.getRoles() == null ? Set.of()
+					: user.getRoles().stream().map(Role::getId).collect(Collectors.toSet());
+			Set<Long> grantedRoleIds = roleIds.stream()
+				.filter(roleId -> !previousRoleIds.contains(roleId))
+				.collect(Collectors.toSet());
+			Set<Long> revokedRoleIds = previousRoleIds.stream()
+				.filter(roleId -> !roleIds.contains(roleId))
+				.collect(Collectors.toSet());
+
+			user.setRoles(roles);
+			userRepository.save(user);
+			effectivePermissionRepository.deleteByUserId(userId);
+			effectivePermissionRepository.insertForUser(userId);
+			authorityCatalogService.bumpVersion(AuthorityChange.SubjectType.USER, user.getTenantId(), userId);
+			// 权限被收回时吊销该用户所有设备的记住我令牌，迫使其重新登录
+			if (!revokedRoleIds.isEmpty()) {
+				persistentTokenRepository.revokeUserTokens(user.getTenantId(), user.getUsername());
+			}
+			authorizationService.evictUser(user.getTenantId(), user.getUsername());
+			grantedRoleIds.forEach(roleId -> auditLog.roleGranted(userId, roleId));
+			revokedRoleIds.forEach(roleId -> auditLog.roleRevoked(userId, roleId));
+		});
+	}
+
+	/**
+	 * 单行插入 user_roles，不加载也不更新用户实体，不同管理端对同一用户的增删互不冲突
+	 */
+	@Override
+	public void addRoleToUser(Long userId, Long roleId) {
+		String tenantId = TenantContext.getTenantId();
+		conflictRetry.run("addRoleToUser", () -> {
+			String username = userRepository.findUsernameByIdAndTenantId(userId, tenantId)
+				.orElseThrow(() -> new RuntimeException("用户不存在: ID=" + userId));
+			if (!roleRepository.existsByIdAndTenantId(roleId, tenantId)) {
+				throw new RuntimeException("角色不存在: ID=" + roleId);
+			}
+			if (userRepository.insertUserRole(userId, roleId) == 0) {
+				return;
+			}
+			effectivePermissionRepository.insertForUserRole(userId, roleId);
+			authorityCatalogService.bumpVersion(AuthorityChange.SubjectType.USER, tenantId, userId);
+			authorizationService.evictUser(tenantId, username);
+			auditLog.roleGranted(userId, roleId);
+		});
+	}
+
+	@Override
+	public void removeRoleFromUser(Long userId, Long roleId) {
+		String tenantId = TenantContext.getTenantId();
+		conflictRetry.run("removeRoleFromUser", () -> {
+			String username = userRepository.findUsernameByIdAndTenantId(userId, tenantId)
+				.orElseThrow(() -> new RuntimeException("用户不存在: ID=" + userId));
+			if (userRepository.deleteUserRole(userId, roleId) == 0) {
+				return;
+			}
+			// 其他角色可能授予相同的权限，只重建这一个用户的有效权限
+			effectivePermissionRepository.deleteByUserId(userId);
+			effectivePermissionRepository.insertForUser(userId);
+			authorityCatalogService.bumpVersion(AuthorityChange.SubjectType.USER, tenantId, userId);
+			persistentTokenRepository.revokeUserTokens(tenantId, username);
+			authorizationService.evictUser(tenantId, username);
+			auditLog.roleRevoked(userId, roleId);
+		});
+	}
+
+	@Override
+	public boolean isUsernameAvailable(String username) {
+		String tenantId = TenantContext.getTenantId();
+		return !availabilityIndex.mightContainUsername(tenantId, username)
+				|| userRepository.findByTenantIdAndUsername(tenantId, username).isEmpty();
+	}
+
+	@Override
+	public boolean isEmailAvailable(String email) {
+		String tenantId = TenantContext.getTenantId();
+		return !availabilityIndex.mightContainEmail(tenantId, email)
+				|| userRepository.findByTenantIdAndEmail(tenantId, email).isEmpty();
+	}
+
+	@Override
+	@Async
+	@Transactional
+	public void recordLogin(Long userId) {
+		userRepository.updateLastLogin(userId, new Date());
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.example.rbacdemo.session;
+
+import com.example.rbacdemo.security.AuthoritySnapshot;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 从会话中反序列化出的精简认证信息，只保存用户ID与授权ID快照。
+ * <p>
+ * 权限字符串在首次调用 {@link #getAuthorities()} 时才解析；若快照版本落后于当前授权版本，
+ * 会先从数据库重新加载快照，并标记 {@link #isRefreshed()} 以便写回会话。
+ * <p>
+ * 依赖的授权目录服务无法随对象序列化，只能由 {@link SessionAttributeCodec} 编码，拒绝 Java 序列化。
+ */
+public class CompactAuthentication implements Authentication {
+
+	private final String tenantId;
+
+	private final Long userId;
+
+	private final String username;
+
+	private final boolean rememberMe;
+
+	private final transient AuthorityCatalogService catalog;
+
+	private volatile AuthoritySnapshot snapshot;
+
+	private volatile boolean authenticated = true;
+
+	private transient volatile List<GrantedAuthority> authorities;
+
+	private transient boolean refreshed;
+
+	CompactAuthentication(String tenantId, Long userId, String username, boolean rememberMe,
+			AuthoritySnapshot snapshot, AuthorityCatalogService catalog) {
+		this.tenantId = tenantId;
+		this.userId = userId;
+		this.username = username;
+		this.rememberMe = rememberMe;
+		this.snapshot = snapshot;
+		this.catalog = catalog;
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		List<GrantedAuthority> resolved = authorities;
+		if (resolved == null) {
+			synchronized (this) {
+				if (authorities == null) {
+					if (catalog.currentVersion(tenantId) > snapshot.getVersion()) {
+						AuthoritySnapshot loaded = catalog.loadSnapshot(tenantId, userId, snapshot);
+						refreshed = loaded != snapshot;
+						snapshot = loaded;
+					}
+					authorities = resolve();
+				}
+				resolved = authorities;
+			}
+		}
+		return resolved;
+	}
+
+	private List<GrantedAuthority> resolve() {
+		List<GrantedAuthority> result = new ArrayList<>(
+				snapshot.getRoleIds().length + snapshot.getPermissionIds().length);
+		for (long roleId : snapshot.getRoleIds()) {
+			String authority = catalog.roleAuthority(roleId);
+			if (authority != null) {
+				result.add(new SimpleGrantedAuthority(authority));
+			}
+		}
+		for (long permissionId : snapshot.getPermissionIds()) {
+			String authority = catalog.permissionAuthority(permissionId);
+			if (authority != null) {
+				result.add(new SimpleGrantedAuthority(authority));
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	@Override
+	public Object getCredentials() {
+		return null;
+	}
+
+	@Override
+	public Object getDetails() {
+		return null;
+	}
+
+	@Override
+	public Object getPrincipal() {
+		return username;
+	}
+
+	@Override
+	public boolean isAuthenticated() {
+		return authenticated;
+	}
+
+	@Override
+	public void setAuthenticated(boolean isAuthenticated) {
+		if (isAuthenticated) {
+			throw new IllegalArgumentException("会话恢复的认证信息不能被重新标记为已认证");
+		}
+		this.authenticated = false;
+	}
+
+	@Override
+	public String getName() {
+		return username;
+	}
+
+	public String getTenantId() {
+		return tenantId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public boolean isRememberMe() {
+		return rememberMe;
+	}
+
+	public AuthoritySnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * 本次请求是否重新加载过快照
+	 * @return 是否需要写回会话
+	 */
+	public boolean isRefreshed() {
+		return refreshed;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws NotSerializableException {
+		throw new NotSerializableException("CompactAuthentication 只能由 SessionAttributeCodec 编码");
+	}
+
+	@Override
+	public String toString() {
+		return "CompactAuthentication[tenant=" + tenantId + ", userId=" + userId + ", username=" + username
+				+ ", snapshotVersion=" + snapshot.getVersion() + "]";
+	}
+
+}
@@ -0,0 +1,289 @@
+package com.example.rbacdemo.session;
+
+import com.example.rbacdemo.dashboard.DashboardView;
+import com.example.rbacdemo.security.AuthoritySnapshot;
+import com.example.rbacdemo.security.RbacUserDetails;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.RememberMeAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+
+/**
+ * 会话属性编解码。
+ * <p>
+ * 已登录用户的 {@link SecurityContext} 编码为紧凑二进制：租户、用户ID、用户名、授权快照版本号，
+ * 以及角色ID与权限ID集合（相对最小ID的位图，稀疏时改用差值变长编码），不保存密码哈希和权限字符串；
+ * 仪表板视图模型 {@link DashboardView} 同样按字段直接编码，省去 Java 序列化的类描述信息。
+ * 其余属性沿用 Java 序列化；以 0xACED 开头的旧会话数据仍可读取。
+ */
+public class SessionAttributeCodec {
+
+	private static final byte FORMAT_SECURITY_CONTEXT = 0x01;
+
+	private static final byte FORMAT_DASHBOARD_VIEW = 0x02;
+
+	private static final byte FLAG_REMEMBER_ME = 0x01;
+
+	private static final byte FLAG_UNAUTHENTICATED = 0x02;
+
+	private static final byte IDS_BITSET = 0;
+
+	private static final byte IDS_DELTA = 1;
+
+	private final AuthorityCatalogService catalog;
+
+	private final SerializingConverter serializer = new SerializingConverter();
+
+	private final DeserializingConverter deserializer;
+
+	private final DistributionSummary compactBytes;
+
+	private final DistributionSummary javaBytes;
+
+	public SessionAttributeCodec(AuthorityCatalogService catalog, MeterRegistry meterRegistry,
+			ClassLoader classLoader) {
+		this.catalog = catalog;
+		this.deserializer = new DeserializingConverter(classLoader);
+		this.compactBytes = bytesSummary(meterRegistry, "compact");
+		this.javaBytes = bytesSummary(meterRegistry, "java");
+	}
+
+	public byte[] serialize(Object value) {
+		if (value instanceof SecurityContext context) {
+			byte[] compact = encode(context.getAuthentication());
+			if (compact != null) {
+				compactBytes.record(compact.length);
+				return compact;
+			}
+		}
+		if (value instanceof DashboardView view && view.getTenantId() != null && view.getUserId() != null) {
+			byte[] compact = encodeView(view);
+			compactBytes.record(compact.length);
+			return compact;
+		}
+		byte[] bytes = serializer.convert(value);
+		javaBytes.record(bytes.length);
+		return bytes;
+	}
+
+	public Object deserialize(byte[] bytes) {
+		if (bytes.length > 0 && bytes[0] == FORMAT_SECURITY_CONTEXT) {
+			return decode(bytes);
+		}
+		if (bytes.length > 0 && bytes[0] == FORMAT_DASHBOARD_VIEW) {
+			return decodeView(bytes);
+		}
+		return deserializer.convert(bytes);
+	}
+
+	private byte[] encode(Authentication authentication) {
+		String tenantId;
+		Long userId;
+		AuthoritySnapshot snapshot;
+		boolean rememberMe;
+		// CompactAuthentication 无论是否已认证都按紧凑格式编码，它不支持 Java 序列化
+		if (authentication instanceof CompactAuthentication compact) {
+			tenantId = compact.getTenantId();
+			userId = compact.getUserId();
+			snapshot = compact.getSnapshot();
+			rememberMe = compact.isRememberMe();
+		}
+		else if (authentication != null && authentication.isAuthenticated()
+				&& authentication.getPrincipal() instanceof RbacUserDetails principal) {
+			tenantId = principal.getTenantId();
+			userId = principal.getUserId();
+			snapshot = principal.getSnapshot();
+			rememberMe = authentication instanceof RememberMeAuthenticationToken;
+		}
+		else {
+			return null;
+		}
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(buffer)) {
+			out.writeByte(FORMAT_SECURITY_CONTEXT);
+			int flags = rememberMe ? FLAG_REMEMBER_ME : 0;
+			if (!authentication.isAuthenticated()) {
+				flags |= FLAG_UNAUTHENTICATED;
+			}
+			out.writeByte(flags);
+			out.writeUTF(tenantId);
+			out.writeLong(userId);
+			out.writeUTF(authentication.getName());
+			out.writeLong(snapshot.getVersion());
+			writeIds(out, snapshot.getRoleIds());
+			writeIds(out, snapshot.getPermissionIds());
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return buffer.toByteArray();
+	}
+
+	private SecurityContext decode(byte[] bytes) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			in.readByte();
+			byte flags = in.readByte();
+			boolean rememberMe = (flags & FLAG_REMEMBER_ME) != 0;
+			String tenantId = in.readUTF();
+			long userId = in.readLong();
+			String username = in.readUTF();
+			long version = in.readLong();
+			long[] roleIds = readIds(in);
+			long[] permissionIds = readIds(in);
+			AuthoritySnapshot snapshot = new AuthoritySnapshot(version, roleIds, permissionIds);
+			CompactAuthentication authentication = new CompactAuthentication(tenantId, userId, username, rememberMe,
+					snapshot, catalog);
+			if ((flags & FLAG_UNAUTHENTICATED) != 0) {
+				authentication.setAuthenticated(false);
+			}
+			return new SecurityContextImpl(authentication);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static byte[] encodeView(DashboardView view) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(buffer)) {
+			out.writeByte(FORMAT_DASHBOARD_VIEW);
+			out.writeUTF(view.getTenantId());
+			out.writeLong(view.getUserId());
+			out.writeUTF(view.getUsername());
+			out.writeBoolean(view.getEmail() != null);
+			if (view.getEmail() != null) {
+				out.writeUTF(view.getEmail());
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return buffer.toByteArray();
+	}
+
+	private static DashboardView decodeView(byte[] bytes) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			in.readByte();
+			String tenantId = in.readUTF();
+			long userId = in.readLong();
+			String username = in.readUTF();
+			String email = in.readBoolean() ? in.readUTF() : null;
+			return new DashboardView(tenantId, userId, username, email);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * 写入已排序的ID集合，在位图与差值变长编码中选择较小者
+	 */
+	static void writeIds(DataOutputStream out, long[] ids) throws IOException {
+		if (ids.length == 0) {
+			out.writeByte(IDS_DELTA);
+			writeVarLong(out, 0);
+			return;
+		}
+		long base = ids[0];
+		long span = ids[ids.length - 1] - base + 1;
+		int bitsetBytes = (int) Math.min(Integer.MAX_VALUE, ((span + 63) / 64) * 8 + 10);
+		int deltaBytes = varLongSize(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			deltaBytes += varLongSize(i == 0 ? ids[0] : ids[i] - ids[i - 1]);
+		}
+
+		if (bitsetBytes < deltaBytes) {
+			BitSet bits = new BitSet((int) span);
+			for (long id : ids) {
+				bits.set((int) (id - base));
+			}
+			long[] words = bits.toLongArray();
+			out.writeByte(IDS_BITSET);
+			writeVarLong(out, base);
+			writeVarLong(out, words.length);
+			for (long word : words) {
+				out.writeLong(word);
+			}
+		}
+		else {
+			out.writeByte(IDS_DELTA);
+			writeVarLong(out, ids.length);
+			long previous = 0;
+			for (long id : ids) {
+				writeVarLong(out, id - previous);
+				previous = id;
+			}
+		}
+	}
+
+	static long[] readIds(DataInputStream in) throws IOException {
+		byte mode = in.readByte();
+		if (mode == IDS_BITSET) {
+			long base = readVarLong(in);
+			long[] words = new long[(int) readVarLong(in)];
+			for (int i = 0; i < words.length; i++) {
+				words[i] = in.readLong();
+			}
+			return BitSet.valueOf(words).stream().mapToLong(bit -> base + bit).toArray();
+		}
+		long[] ids = new long[(int) readVarLong(in)];
+		long previous = 0;
+		for (int i = 0; i < ids.length; i++) {
+			previous += readVarLong(in);
+			ids[i] = previous;
+		}
+		return ids;
+	}
+
+	private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("变长整数格式错误");
+	}
+
+	private static int varLongSize(long value) {
+		int size = 1;
+		while ((value & ~0x7FL) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	private static DistributionSummary bytesSummary(MeterRegistry meterRegistry, String format) {
+		return DistributionSummary.builder("rbac.session.attribute.bytes")
+			.description("会话属性序列化后的字节数")
+			.baseUnit("bytes")
+			.tag("format", format)
+			.register(meterRegistry);
+	}
+
+}
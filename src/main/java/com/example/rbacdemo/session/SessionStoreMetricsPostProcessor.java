@@ -0,0 +1,55 @@
+package com.example.rbacdemo.session;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.session.SessionRepository;
+
+import java.util.Set;
+
+/**
+ * 为会话存储的读写操作记录耗时（rbac.session.store，按 operation 区分）。
+ * <p>
+ * 使用基于子类的代理，注入点按具体仓库类型（如 JdbcIndexedSessionRepository）获取时仍然可用。
+ */
+public class SessionStoreMetricsPostProcessor implements BeanPostProcessor {
+
+	private static final Set<String> TIMED_OPERATIONS = Set.of("findById", "save", "deleteById",
+			"findByIndexNameAndIndexValue");
+
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+
+	public SessionStoreMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (!(bean instanceof SessionRepository<?>)) {
+			return bean;
+		}
+		ProxyFactory proxyFactory = new ProxyFactory(bean);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+			String operation = invocation.getMethod().getName();
+			if (!TIMED_OPERATIONS.contains(operation)) {
+				return invocation.proceed();
+			}
+			Timer.Sample sample = Timer.start();
+			try {
+				return invocation.proceed();
+			}
+			finally {
+				sample.stop(Timer.builder("rbac.session.store")
+					.description("会话存储读写耗时")
+					.tag("operation", operation)
+					.register(meterRegistry.getObject()));
+			}
+		});
+		return proxyFactory.getProxy();
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.example.rbacdemo.session;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 请求处理中重新加载过授权快照时，把新快照写回会话，后续请求无需再次加载。
+ * <p>
+ * 需注册在 Spring Security 过滤器链内、SecurityContextHolderFilter 之后，此时 SecurityContext 尚未被清理。
+ */
+public class SnapshotRefreshFilter extends OncePerRequestFilter {
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			SecurityContext context = SecurityContextHolder.getContext();
+			if (context.getAuthentication() instanceof CompactAuthentication authentication
+					&& authentication.isRefreshed()) {
+				HttpSession session = request.getSession(false);
+				if (session != null) {
+					session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+				}
+			}
+		}
+	}
+
+}
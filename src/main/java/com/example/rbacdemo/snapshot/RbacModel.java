@@ -0,0 +1,173 @@
+package com.example.rbacdemo.snapshot;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 内存中的完整授权模型，数组按数据库ID升序，下标即实体在模型中的序号。
+ * <p>
+ * 用户→角色、角色→权限以 CSR（压缩稀疏行）数组表示：第 i 行的邻接序号位于
+ * {@code indices[offsets[i]] .. indices[offsets[i + 1] - 1]}，行内按ID升序。
+ */
+@Getter
+@RequiredArgsConstructor
+public class RbacModel {
+
+	/**
+	 * 读取模型数据之前的授权版本号（所有租户版本号之和）
+	 */
+	private final long authorityVersion;
+
+	/**
+	 * 开始读取模型数据的时间（毫秒），追平变更时从它之前一段时间开始
+	 */
+	private final long readAt;
+
+	private final long[] userIds;
+
+	private final String[] userTenants;
+
+	private final String[] usernames;
+
+	private final long[] roleIds;
+
+	private final String[] roleTenants;
+
+	private final String[] roleNames;
+
+	private final long[] permissionIds;
+
+	private final String[] permissionTenants;
+
+	private final String[] permissionNames;
+
+	/**
+	 * 资源类型，全局权限为 null
+	 */
+	private final String[] resourceTypes;
+
+	private final String[] resourcePatterns;
+
+	private final int[] userRoleOffsets;
+
+	private final int[] userRoles;
+
+	private final int[] rolePermissionOffsets;
+
+	private final int[] rolePermissions;
+
+	public int userCount() {
+		return userIds.length;
+	}
+
+	public int roleCount() {
+		return roleIds.length;
+	}
+
+	public int permissionCount() {
+		return permissionIds.length;
+	}
+
+	/**
+	 * @return 用户序号，不存在时为负数
+	 */
+	public int userIndex(long userId) {
+		return Arrays.binarySearch(userIds, userId);
+	}
+
+	/**
+	 * @return 角色序号，不存在时为负数
+	 */
+	public int roleIndex(long roleId) {
+		return Arrays.binarySearch(roleIds, roleId);
+	}
+
+	/**
+	 * @return 权限序号，不存在时为负数
+	 */
+	public int permissionIndex(long permissionId) {
+		return Arrays.binarySearch(permissionIds, permissionId);
+	}
+
+	/**
+	 * 用户持有的角色序号
+	 */
+	public int[] rolesOf(int userIndex) {
+		return Arrays.copyOfRange(userRoles, userRoleOffsets[userIndex], userRoleOffsets[userIndex + 1]);
+	}
+
+	/**
+	 * 角色包含的权限序号
+	 */
+	public int[] permissionsOf(int roleIndex) {
+		return Arrays.copyOfRange(rolePermissions, rolePermissionOffsets[roleIndex],
+				rolePermissionOffsets[roleIndex + 1]);
+	}
+
+	/**
+	 * 只包含单个租户数据的子模型：序号重新编排，仍按ID升序，关联只保留两端都属于该租户的边
+	 * @param tenantId 租户ID
+	 * @return 子模型，版本号与读取时间同原模型
+	 */
+	public RbacModel forTenant(String tenantId) {
+		int[] users = indicesOf(userTenants, tenantId);
+		int[] roles = indicesOf(roleTenants, tenantId);
+		int[] permissions = indicesOf(permissionTenants, tenantId);
+		int[] tenantUserRoleOffsets = new int[users.length + 1];
+		int[] tenantUserRoles = filterAdjacency(users, userRoleOffsets, userRoles, remap(roleCount(), roles),
+				tenantUserRoleOffsets);
+		int[] tenantRolePermissionOffsets = new int[roles.length + 1];
+		int[] tenantRolePermissions = filterAdjacency(roles, rolePermissionOffsets, rolePermissions,
+				remap(permissionCount(), permissions), tenantRolePermissionOffsets);
+		return new RbacModel(authorityVersion, readAt, pick(userIds, users), pick(userTenants, users),
+				pick(usernames, users), pick(roleIds, roles), pick(roleTenants, roles), pick(roleNames, roles),
+				pick(permissionIds, permissions), pick(permissionTenants, permissions),
+				pick(permissionNames, permissions), pick(resourceTypes, permissions),
+				pick(resourcePatterns, permissions), tenantUserRoleOffsets, tenantUserRoles,
+				tenantRolePermissionOffsets, tenantRolePermissions);
+	}
+
+	private static int[] indicesOf(String[] tenants, String tenantId) {
+		return IntStream.range(0, tenants.length).filter(i -> tenantId.equals(tenants[i])).toArray();
+	}
+
+	/**
+	 * @return 原序号到子模型序号的映射，不属于子模型的为 -1
+	 */
+	private static int[] remap(int size, int[] kept) {
+		int[] mapping = new int[size];
+		Arrays.fill(mapping, -1);
+		for (int i = 0; i < kept.length; i++) {
+			mapping[kept[i]] = i;
+		}
+		return mapping;
+	}
+
+	private static int[] filterAdjacency(int[] rows, int[] offsets, int[] columns, int[] columnMapping,
+			int[] filteredOffsets) {
+		int[] filtered = new int[columns.length];
+		int edge = 0;
+		for (int i = 0; i < rows.length; i++) {
+			for (int k = offsets[rows[i]]; k < offsets[rows[i] + 1]; k++) {
+				int column = columnMapping[columns[k]];
+				if (column >= 0) {
+					filtered[edge++] = column;
+				}
+			}
+			filteredOffsets[i + 1] = edge;
+		}
+		return Arrays.copyOf(filtered, edge);
+	}
+
+	private static long[] pick(long[] values, int[] indices) {
+		return IntStream.of(indices).mapToLong(i -> values[i]).toArray();
+	}
+
+	private static String[] pick(String[] values, int[] indices) {
+		return IntStream.of(indices).mapToObj(i -> values[i]).toArray(String[]::new);
+	}
+
+}
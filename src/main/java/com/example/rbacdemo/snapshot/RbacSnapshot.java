@@ -0,0 +1,284 @@
+package com.example.rbacdemo.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 只读映射的快照文件，授权检查直接在映射缓冲区上做二分查找和扫描，不反序列化任何对象。
+ * <p>
+ * 只依赖 JDK，可以脱离 Spring 嵌入到其他进程（见 {@link SnapshotEvaluator}）。打开后不可变，可在多线程间共享；
+ * 判定规则与 {@link com.example.rbacdemo.security.CompiledPolicy} 一致。
+ */
+public final class RbacSnapshot {
+
+	private final Path file;
+
+	private final ByteBuffer buffer;
+
+	private final long authorityVersion;
+
+	private final long readAt;
+
+	private final long exportedAt;
+
+	private final int userCount;
+
+	private final int roleCount;
+
+	private final int permissionCount;
+
+	private final int stringCount;
+
+	private final int[] sections = new int[SnapshotFormat.SECTION_COUNT];
+
+	private RbacSnapshot(Path file, ByteBuffer buffer) {
+		this.file = file;
+		this.buffer = buffer;
+		this.authorityVersion = buffer.getLong(SnapshotFormat.OFFSET_AUTHORITY_VERSION);
+		this.readAt = buffer.getLong(SnapshotFormat.OFFSET_READ_AT);
+		this.exportedAt = buffer.getLong(SnapshotFormat.OFFSET_EXPORTED_AT);
+		this.userCount = buffer.getInt(SnapshotFormat.OFFSET_USER_COUNT);
+		this.roleCount = buffer.getInt(SnapshotFormat.OFFSET_ROLE_COUNT);
+		this.permissionCount = buffer.getInt(SnapshotFormat.OFFSET_PERMISSION_COUNT);
+		this.stringCount = buffer.getInt(SnapshotFormat.OFFSET_STRING_COUNT);
+		for (int section = 0; section < SnapshotFormat.SECTION_COUNT; section++) {
+			sections[section] = buffer.getInt(SnapshotFormat.OFFSET_SECTIONS + section * Integer.BYTES);
+		}
+	}
+
+	/**
+	 * 映射快照文件。映射建立后即可关闭文件，映射在对象被回收时解除
+	 * @param file 快照文件
+	 * @param verifyChecksum 是否校验 CRC32C（需要完整读一遍文件）
+	 */
+	public static RbacSnapshot open(Path file, boolean verifyChecksum) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < SnapshotFormat.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("快照文件大小异常: " + file);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.getInt(0) != SnapshotFormat.MAGIC) {
+			throw new IOException("不是快照文件: " + file);
+		}
+		if (buffer.getShort(4) != SnapshotFormat.VERSION) {
+			throw new IOException("不支持的快照格式版本 " + buffer.getShort(4) + ": " + file);
+		}
+		if (verifyChecksum && SnapshotFormat.checksum(buffer) != buffer.getInt(SnapshotFormat.OFFSET_CRC)) {
+			throw new IOException("快照文件校验失败: " + file);
+		}
+		return new RbacSnapshot(file, buffer);
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public long getAuthorityVersion() {
+		return authorityVersion;
+	}
+
+	/**
+	 * 导出时开始读取数据的时间，此后的授权变更不在快照中
+	 */
+	public long getReadAt() {
+		return readAt;
+	}
+
+	public long getExportedAt() {
+		return exportedAt;
+	}
+
+	public int getUserCount() {
+		return userCount;
+	}
+
+	public int getRoleCount() {
+		return roleCount;
+	}
+
+	public int getPermissionCount() {
+		return permissionCount;
+	}
+
+	/**
+	 * 按租户和用户名查找用户
+	 * @return 用户在快照中的序号，不存在时为 -1
+	 */
+	public int findUser(String tenantId, String username) {
+		int tenant = findString(tenantId);
+		int name = findString(username);
+		if (tenant < 0 || name < 0) {
+			return -1;
+		}
+		int base = sections[SnapshotFormat.SECTION_USER_KEYS];
+		int low = 0;
+		int high = userCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int offset = base + mid * SnapshotFormat.USER_KEY_SIZE;
+			int cmp = Integer.compare(buffer.getInt(offset), tenant);
+			if (cmp == 0) {
+				cmp = Integer.compare(buffer.getInt(offset + Integer.BYTES), name);
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			}
+			else if (cmp > 0) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	public long userId(int user) {
+		return buffer.getLong(sections[SnapshotFormat.SECTION_USER_IDS] + user * Long.BYTES);
+	}
+
+	/**
+	 * 用户持有的角色ID
+	 */
+	public long[] roleIdsOf(int user) {
+		int start = userRoleOffset(user);
+		int end = userRoleOffset(user + 1);
+		long[] roleIds = new long[end - start];
+		for (int k = start; k < end; k++) {
+			roleIds[k - start] = roleId(userRole(k));
+		}
+		return roleIds;
+	}
+
+	/**
+	 * 判断用户是否拥有某项权限
+	 * @param user {@link #findUser} 返回的序号
+	 * @param permission 权限名称
+	 * @param resourceType 资源类型，为空表示只检查全局权限
+	 * @param resourceId 资源ID
+	 * @return 是否授权
+	 */
+	public boolean isGranted(int user, String permission, String resourceType, String resourceId) {
+		int name = findString(SnapshotFormat.normalize(permission));
+		if (name < 0) {
+			return false;
+		}
+		int type = resourceType == null ? SnapshotFormat.NONE
+				: findString(SnapshotFormat.normalize(resourceType));
+		byte[] resource = resourceId == null ? null : resourceId.getBytes(StandardCharsets.UTF_8);
+		int permissionBase = sections[SnapshotFormat.SECTION_PERMISSIONS];
+		for (int k = userRoleOffset(user), end = userRoleOffset(user + 1); k < end; k++) {
+			int role = userRole(k);
+			for (int p = rolePermissionOffset(role), pEnd = rolePermissionOffset(role + 1); p < pEnd; p++) {
+				int offset = permissionBase + rolePermission(p) * SnapshotFormat.PERMISSION_SIZE;
+				if (buffer.getInt(offset + 8) != name) {
+					continue;
+				}
+				int permissionType = buffer.getInt(offset + 12);
+				if (permissionType == SnapshotFormat.NONE) {
+					return true;
+				}
+				if (type != SnapshotFormat.NONE && permissionType == type
+						&& matchesPattern(buffer.getInt(offset + 16), resource)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean matchesPattern(int pattern, byte[] resource) {
+		if (pattern == SnapshotFormat.NONE) {
+			return true;
+		}
+		if (resource == null) {
+			return false;
+		}
+		int start = stringOffset(pattern);
+		int length = stringOffset(pattern + 1) - start;
+		boolean prefix = length > 0 && buffer.get(start + length - 1) == '*';
+		int compared = prefix ? length - 1 : length;
+		if (prefix ? resource.length < compared : resource.length != compared) {
+			return false;
+		}
+		for (int i = 0; i < compared; i++) {
+			if (buffer.get(start + i) != resource[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 在排序的字典中二分查找字符串
+	 * @return 串号，不存在时为 -1
+	 */
+	private int findString(String value) {
+		if (value == null) {
+			return -1;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = stringCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compareString(mid, bytes);
+			if (cmp < 0) {
+				low = mid + 1;
+			}
+			else if (cmp > 0) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	private int compareString(int index, byte[] bytes) {
+		int start = stringOffset(index);
+		int length = stringOffset(index + 1) - start;
+		int common = Math.min(length, bytes.length);
+		for (int i = 0; i < common; i++) {
+			int cmp = Byte.compareUnsigned(buffer.get(start + i), bytes[i]);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return Integer.compare(length, bytes.length);
+	}
+
+	private int stringOffset(int index) {
+		return sections[SnapshotFormat.SECTION_STRING_BYTES]
+				+ buffer.getInt(sections[SnapshotFormat.SECTION_STRING_OFFSETS] + index * Integer.BYTES);
+	}
+
+	private int userRoleOffset(int user) {
+		return buffer.getInt(sections[SnapshotFormat.SECTION_USER_ROLE_OFFSETS] + user * Integer.BYTES);
+	}
+
+	private int userRole(int edge) {
+		return buffer.getInt(sections[SnapshotFormat.SECTION_USER_ROLES] + edge * Integer.BYTES);
+	}
+
+	private int rolePermissionOffset(int role) {
+		return buffer.getInt(sections[SnapshotFormat.SECTION_ROLE_PERMISSION_OFFSETS] + role * Integer.BYTES);
+	}
+
+	private int rolePermission(int edge) {
+		return buffer.getInt(sections[SnapshotFormat.SECTION_ROLE_PERMISSIONS] + edge * Integer.BYTES);
+	}
+
+	private long roleId(int role) {
+		return buffer.getLong(sections[SnapshotFormat.SECTION_ROLES] + role * SnapshotFormat.ROLE_SIZE);
+	}
+
+}
@@ -0,0 +1,265 @@
+package com.example.rbacdemo.snapshot;
+
+import com.example.rbacdemo.degraded.DatabaseCircuitBreaker;
+import com.example.rbacdemo.model.AuthorityChange;
+import com.example.rbacdemo.repository.AuthorityChangeRepository;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 快照文件的导出、加载与追平。
+ * <p>
+ * 节点启动时映射最新的快照文件，缓存未命中的授权检查直接由快照回答。快照之后发生的变更从授权变更日志读取：
+ * 授权版本号变化时，重新查询快照读取时间之后的全部变更记录，涉及的用户以及持有涉及角色的用户回退到数据库判定。
+ * 查询窗口向前多取一段时间，覆盖节点间的时钟偏差和未及时提交的事务，重复标记只会多回退几次数据库。
+ * <p>
+ * 导出新快照后，其他节点最迟在一个重新加载间隔内换用新文件，在此之前仍使用上一个快照，
+ * 因此变更日志保留到上一个快照的查询窗口起点，更早的记录删除。重新加载失败的节点不再用快照回答，
+ * 避免依赖已删除的变更记录。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RbacSnapshotService {
+
+	private static final long CATCH_UP_SLACK_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	private final SnapshotProperties properties;
+
+	private final RbacModelLoader modelLoader;
+
+	private final AuthorityChangeRepository authorityChangeRepository;
+
+	private final AuthorityCatalogService authorityCatalogService;
+
+	private final DatabaseCircuitBreaker circuitBreaker;
+
+	private volatile State state;
+
+	@PostConstruct
+	void init() {
+		if (properties.isEnabled()) {
+			reloadIfChanged();
+		}
+	}
+
+	/**
+	 * 用快照判断授权
+	 * @return 是否授权；快照未加载、用户不在快照中或用户授权在快照之后有变化时返回 null，调用方应回退到数据库
+	 */
+	public Boolean isGranted(String tenantId, String username, String permission, String resourceType,
+			String resourceId) {
+		State current = catchUp();
+		return current == null ? null : decide(current, tenantId, username, permission, resourceType, resourceId);
+	}
+
+	/**
+	 * 数据库不可用时的回退：不再查询变更日志，只排除最近一次追平时已知变更过的用户和角色，
+	 * 结果可能落后于之后的授权变更
+	 * @return 是否授权；快照未加载、用户不在快照中或已知授权有变化时返回 null
+	 */
+	public Boolean isGrantedIgnoringChanges(String tenantId, String username, String permission,
+			String resourceType, String resourceId) {
+		State current = state;
+		if (!properties.isEnabled() || current == null) {
+			return null;
+		}
+		return decide(current, tenantId, username, permission, resourceType, resourceId);
+	}
+
+	private static Boolean decide(State current, String tenantId, String username, String permission,
+			String resourceType, String resourceId) {
+		RbacSnapshot snapshot = current.snapshot;
+		int user = snapshot.findUser(tenantId, username);
+		if (user < 0 || current.dirtyUsers.contains(snapshot.userId(user))) {
+			return null;
+		}
+		for (long roleId : snapshot.roleIdsOf(user)) {
+			if (current.dirtyRoles.contains(roleId)) {
+				return null;
+			}
+		}
+		return snapshot.isGranted(user, permission, resourceType, resourceId);
+	}
+
+	/**
+	 * 从数据库导出快照并替换快照文件，只在开启导出的节点上运行
+	 */
+	@Scheduled(fixedDelayString = "${app.snapshot.export-interval:10m}")
+	public void export() {
+		if (!properties.isExportEnabled()) {
+			return;
+		}
+		long oldestReadAt;
+		try {
+			long start = System.currentTimeMillis();
+			Path file = Path.of(properties.getFile());
+			long previousReadAt = readAtOf(file);
+			RbacModel model = modelLoader.load();
+			RbacSnapshotWriter.write(model, file);
+			log.info("快照已导出: {}，{} 字节，耗时 {}ms", file, Files.size(file), System.currentTimeMillis() - start);
+			reloadIfChanged();
+			oldestReadAt = previousReadAt < 0 ? model.getReadAt() : previousReadAt;
+		}
+		catch (IOException | RuntimeException ex) {
+			log.warn("快照导出失败", ex);
+			return;
+		}
+		purgeChanges(oldestReadAt);
+	}
+
+	/**
+	 * 删除仍在使用的最旧快照的查询窗口之前的变更记录
+	 * @param oldestReadAt 最旧快照的数据读取时间
+	 */
+	private void purgeChanges(long oldestReadAt) {
+		Date before = new Date(oldestReadAt - CATCH_UP_SLACK_MILLIS);
+		try {
+			int deleted = authorityChangeRepository.deleteByChangedAtBefore(before);
+			if (deleted > 0) {
+				log.info("已清理 {} 条早于 {} 的授权变更记录", deleted, before.toInstant());
+			}
+		}
+		catch (RuntimeException ex) {
+			log.warn("授权变更记录清理失败", ex);
+		}
+	}
+
+	/**
+	 * @return 快照文件的数据读取时间，文件不存在或无法读取时为 -1
+	 */
+	private static long readAtOf(Path file) {
+		if (!Files.exists(file)) {
+			return -1;
+		}
+		try {
+			return RbacSnapshot.open(file, false).getReadAt();
+		}
+		catch (IOException ex) {
+			log.warn("无法读取当前快照文件，按新快照保留变更记录: {}", file, ex);
+			return -1;
+		}
+	}
+
+	/**
+	 * 快照文件被替换后重新映射
+	 */
+	@Scheduled(fixedDelayString = "${app.snapshot.reload-interval:1m}")
+	public synchronized void reloadIfChanged() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		Path file = Path.of(properties.getFile());
+		try {
+			if (!Files.exists(file)) {
+				return;
+			}
+			long modified = Files.getLastModifiedTime(file).toMillis();
+			State current = state;
+			if (current != null && current.fileModified == modified) {
+				return;
+			}
+			RbacSnapshot snapshot = RbacSnapshot.open(file, properties.isVerifyChecksum());
+			state = new State(snapshot, modified, Long.MIN_VALUE, Set.of(), Set.of(), false);
+			log.info("快照已加载: {}，授权版本 {}，数据读取于 {}，{} 个用户", file, snapshot.getAuthorityVersion(),
+					Instant.ofEpochMilli(snapshot.getReadAt()), snapshot.getUserCount());
+		}
+		catch (IOException ex) {
+			State current = state;
+			if (current != null && !current.superseded) {
+				// 文件已被替换，旧快照需要的变更记录随时可能被导出节点清理，只保留给数据库不可用时的降级判定
+				state = new State(current.snapshot, current.fileModified, current.seenVersion, current.dirtyUsers,
+						current.dirtyRoles, true);
+			}
+			log.warn("快照加载失败，当前快照只用于降级判定: {}", file, ex);
+		}
+	}
+
+	/**
+	 * 授权版本号变化后重新计算快照之后变更过的用户和角色
+	 */
+	private State catchUp() {
+		State current = state;
+		if (!properties.isEnabled() || current == null || current.superseded) {
+			return null;
+		}
+		long version = authorityCatalogService.modelVersion();
+		if (version == current.seenVersion) {
+			return current;
+		}
+		synchronized (this) {
+			current = state;
+			if (current.superseded) {
+				return null;
+			}
+			if (version == current.seenVersion) {
+				return current;
+			}
+			// 先取版本号再查变更：版本号在变更记录所在事务提交之后才递增，读到该版本就一定能读到对应的变更
+			Date since = new Date(current.snapshot.getReadAt() - CATCH_UP_SLACK_MILLIS);
+			List<AuthorityChange> changes;
+			try {
+				changes = circuitBreaker.call("snapshotCatchUp",
+						() -> authorityChangeRepository.findByChangedAtGreaterThanEqual(since));
+			}
+			catch (RuntimeException ex) {
+				// 无法确认哪些用户已变更，本次不用快照回答，交给调用方的降级逻辑
+				log.debug("授权变更日志查询失败", ex);
+				return null;
+			}
+			Set<Long> dirtyUsers = new HashSet<>();
+			Set<Long> dirtyRoles = new HashSet<>();
+			for (AuthorityChange change : changes) {
+				(change.getSubjectType() == AuthorityChange.SubjectType.USER ? dirtyUsers : dirtyRoles)
+					.add(change.getSubjectId());
+			}
+			current = new State(current.snapshot, current.fileModified, version, dirtyUsers, dirtyRoles, false);
+			state = current;
+			return current;
+		}
+	}
+
+	private static final class State {
+
+		private final RbacSnapshot snapshot;
+
+		private final long fileModified;
+
+		private final long seenVersion;
+
+		private final Set<Long> dirtyUsers;
+
+		private final Set<Long> dirtyRoles;
+
+		/**
+		 * 快照文件已被替换但重新加载失败
+		 */
+		private final boolean superseded;
+
+		private State(RbacSnapshot snapshot, long fileModified, long seenVersion, Set<Long> dirtyUsers,
+				Set<Long> dirtyRoles, boolean superseded) {
+			this.snapshot = snapshot;
+			this.fileModified = fileModified;
+			this.seenVersion = seenVersion;
+			this.dirtyUsers = dirtyUsers;
+			this.dirtyRoles = dirtyRoles;
+			this.superseded = superseded;
+		}
+
+	}
+
+}
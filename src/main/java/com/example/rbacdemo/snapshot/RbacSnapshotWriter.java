@@ -0,0 +1,223 @@
+package com.example.rbacdemo.snapshot;
+
+import com.example.rbacdemo.model.Permission;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把授权模型编译为快照文件（格式见 {@link SnapshotFormat}）。先写临时文件并落盘，再原子替换目标文件，
+ * 已映射旧文件的进程不受影响。
+ */
+public final class RbacSnapshotWriter {
+
+	private RbacSnapshotWriter() {
+	}
+
+	public static void write(RbacModel model, Path target) throws IOException {
+		Dictionary dictionary = new Dictionary();
+		int userCount = model.userCount();
+		int[] userTenantRefs = new int[userCount];
+		int[] usernameRefs = new int[userCount];
+		for (int i = 0; i < userCount; i++) {
+			userTenantRefs[i] = dictionary.add(model.getUserTenants()[i]);
+			usernameRefs[i] = dictionary.add(model.getUsernames()[i]);
+		}
+		int roleCount = model.roleCount();
+		int[] roleNameRefs = new int[roleCount];
+		for (int i = 0; i < roleCount; i++) {
+			roleNameRefs[i] = dictionary.add(model.getRoleNames()[i]);
+		}
+		int permissionCount = model.permissionCount();
+		int[] permissionNameRefs = new int[permissionCount];
+		int[] resourceTypeRefs = new int[permissionCount];
+		int[] resourcePatternRefs = new int[permissionCount];
+		for (int i = 0; i < permissionCount; i++) {
+			permissionNameRefs[i] = dictionary.add(SnapshotFormat.normalize(model.getPermissionNames()[i]));
+			String resourceType = model.getResourceTypes()[i];
+			String pattern = model.getResourcePatterns()[i];
+			resourceTypeRefs[i] = resourceType == null ? SnapshotFormat.NONE
+					: dictionary.add(SnapshotFormat.normalize(resourceType));
+			resourcePatternRefs[i] = pattern == null || pattern.isBlank() || Permission.WILDCARD.equals(pattern)
+					? SnapshotFormat.NONE : dictionary.add(pattern);
+		}
+		int[] stringIds = dictionary.sort();
+
+		// 用户按 (租户, 用户名) 的串号排序，加载端据此二分查找
+		Integer[] userOrder = new Integer[userCount];
+		for (int i = 0; i < userCount; i++) {
+			userOrder[i] = i;
+		}
+		Arrays.sort(userOrder, Comparator.<Integer>comparingInt(i -> stringIds[userTenantRefs[i]])
+			.thenComparingInt(i -> stringIds[usernameRefs[i]]));
+
+		int[] userRoleOffsets = model.getUserRoleOffsets();
+		int[] rolePermissionOffsets = model.getRolePermissionOffsets();
+		int userRoleCount = model.getUserRoles().length;
+		int rolePermissionCount = model.getRolePermissions().length;
+		long[] sections = new long[SnapshotFormat.SECTION_COUNT];
+		long position = SnapshotFormat.HEADER_SIZE;
+		long[] sizes = { (long) userCount * SnapshotFormat.USER_KEY_SIZE, (long) userCount * Long.BYTES,
+				(userCount + 1L) * Integer.BYTES, (long) userRoleCount * Integer.BYTES,
+				(long) roleCount * SnapshotFormat.ROLE_SIZE, (roleCount + 1L) * Integer.BYTES,
+				(long) rolePermissionCount * Integer.BYTES, (long) permissionCount * SnapshotFormat.PERMISSION_SIZE,
+				(dictionary.size() + 1L) * Integer.BYTES, dictionary.byteLength() };
+		for (int section = 0; section < SnapshotFormat.SECTION_COUNT; section++) {
+			sections[section] = position;
+			position += sizes[section];
+		}
+		if (position > Integer.MAX_VALUE) {
+			throw new IOException("快照超过 2GB，无法整体映射: " + position + " 字节");
+		}
+
+		Path directory = target.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, position);
+				buffer.putInt(0, SnapshotFormat.MAGIC);
+				buffer.putShort(4, SnapshotFormat.VERSION);
+				buffer.putLong(SnapshotFormat.OFFSET_AUTHORITY_VERSION, model.getAuthorityVersion());
+				buffer.putLong(SnapshotFormat.OFFSET_READ_AT, model.getReadAt());
+				buffer.putLong(SnapshotFormat.OFFSET_EXPORTED_AT, System.currentTimeMillis());
+				buffer.putInt(SnapshotFormat.OFFSET_USER_COUNT, userCount);
+				buffer.putInt(SnapshotFormat.OFFSET_ROLE_COUNT, roleCount);
+				buffer.putInt(SnapshotFormat.OFFSET_PERMISSION_COUNT, permissionCount);
+				buffer.putInt(SnapshotFormat.OFFSET_STRING_COUNT, dictionary.size());
+				buffer.putInt(SnapshotFormat.OFFSET_USER_ROLE_COUNT, userRoleCount);
+				buffer.putInt(SnapshotFormat.OFFSET_ROLE_PERMISSION_COUNT, rolePermissionCount);
+				for (int section = 0; section < SnapshotFormat.SECTION_COUNT; section++) {
+					buffer.putInt(SnapshotFormat.OFFSET_SECTIONS + section * Integer.BYTES, (int) sections[section]);
+				}
+
+				int keys = (int) sections[SnapshotFormat.SECTION_USER_KEYS];
+				int ids = (int) sections[SnapshotFormat.SECTION_USER_IDS];
+				int roleOffsets = (int) sections[SnapshotFormat.SECTION_USER_ROLE_OFFSETS];
+				int roles = (int) sections[SnapshotFormat.SECTION_USER_ROLES];
+				int edge = 0;
+				for (int i = 0; i < userCount; i++) {
+					int user = userOrder[i];
+					buffer.putInt(keys + i * SnapshotFormat.USER_KEY_SIZE, stringIds[userTenantRefs[user]]);
+					buffer.putInt(keys + i * SnapshotFormat.USER_KEY_SIZE + Integer.BYTES,
+							stringIds[usernameRefs[user]]);
+					buffer.putLong(ids + i * Long.BYTES, model.getUserIds()[user]);
+					buffer.putInt(roleOffsets + i * Integer.BYTES, edge);
+					for (int k = userRoleOffsets[user]; k < userRoleOffsets[user + 1]; k++) {
+						buffer.putInt(roles + edge++ * Integer.BYTES, model.getUserRoles()[k]);
+					}
+				}
+				buffer.putInt(roleOffsets + userCount * Integer.BYTES, edge);
+
+				int roleSection = (int) sections[SnapshotFormat.SECTION_ROLES];
+				int permissionOffsets = (int) sections[SnapshotFormat.SECTION_ROLE_PERMISSION_OFFSETS];
+				int permissionEdges = (int) sections[SnapshotFormat.SECTION_ROLE_PERMISSIONS];
+				for (int i = 0; i < roleCount; i++) {
+					buffer.putLong(roleSection + i * SnapshotFormat.ROLE_SIZE, model.getRoleIds()[i]);
+					buffer.putInt(roleSection + i * SnapshotFormat.ROLE_SIZE + Long.BYTES, stringIds[roleNameRefs[i]]);
+					buffer.putInt(permissionOffsets + i * Integer.BYTES, rolePermissionOffsets[i]);
+				}
+				buffer.putInt(permissionOffsets + roleCount * Integer.BYTES, rolePermissionOffsets[roleCount]);
+				for (int k = 0; k < rolePermissionCount; k++) {
+					buffer.putInt(permissionEdges + k * Integer.BYTES, model.getRolePermissions()[k]);
+				}
+
+				int permissionSection = (int) sections[SnapshotFormat.SECTION_PERMISSIONS];
+				for (int i = 0; i < permissionCount; i++) {
+					int base = permissionSection + i * SnapshotFormat.PERMISSION_SIZE;
+					buffer.putLong(base, model.getPermissionIds()[i]);
+					buffer.putInt(base + 8, stringIds[permissionNameRefs[i]]);
+					buffer.putInt(base + 12, ref(stringIds, resourceTypeRefs[i]));
+					buffer.putInt(base + 16, ref(stringIds, resourcePatternRefs[i]));
+				}
+
+				dictionary.writeTo(buffer, (int) sections[SnapshotFormat.SECTION_STRING_OFFSETS],
+						(int) sections[SnapshotFormat.SECTION_STRING_BYTES]);
+
+				buffer.putInt(SnapshotFormat.OFFSET_CRC, SnapshotFormat.checksum(buffer));
+				buffer.force();
+			}
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static int ref(int[] stringIds, int provisional) {
+		return provisional == SnapshotFormat.NONE ? SnapshotFormat.NONE : stringIds[provisional];
+	}
+
+	/**
+	 * 字符串字典：先按出现顺序分配临时串号，全部加入后按 UTF-8 无符号字节序排序得到最终串号
+	 */
+	private static final class Dictionary {
+
+		private final Map<String, Integer> provisional = new HashMap<>();
+
+		private final List<byte[]> values = new ArrayList<>();
+
+		private byte[][] sorted;
+
+		private long byteLength;
+
+		int add(String value) {
+			return provisional.computeIfAbsent(value, v -> {
+				byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+				values.add(bytes);
+				byteLength += bytes.length;
+				return values.size() - 1;
+			});
+		}
+
+		/**
+		 * @return 临时串号到最终串号的映射
+		 */
+		int[] sort() {
+			Integer[] order = new Integer[values.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(values.get(a), values.get(b)));
+			int[] finalIds = new int[order.length];
+			sorted = new byte[order.length][];
+			for (int i = 0; i < order.length; i++) {
+				finalIds[order[i]] = i;
+				sorted[i] = values.get(order[i]);
+			}
+			return finalIds;
+		}
+
+		int size() {
+			return values.size();
+		}
+
+		long byteLength() {
+			return byteLength;
+		}
+
+		void writeTo(MappedByteBuffer buffer, int offsetsSection, int bytesSection) {
+			int position = 0;
+			for (int i = 0; i < sorted.length; i++) {
+				buffer.putInt(offsetsSection + i * Integer.BYTES, position);
+				buffer.put(bytesSection + position, sorted[i]);
+				position += sorted[i].length;
+			}
+			buffer.putInt(offsetsSection + sorted.length * Integer.BYTES, position);
+		}
+
+	}
+
+}
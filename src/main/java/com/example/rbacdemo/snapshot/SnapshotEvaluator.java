@@ -0,0 +1,57 @@
+package com.example.rbacdemo.snapshot;
+
+import com.example.rbacdemo.tenant.TenantContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 独立的快照授权检查工具，只读取快照文件，不连接数据库、不启动 Spring 上下文，可作为 sidecar 或脚本使用。
+ *
+ * <pre>
+ * java -cp build/libs/rbac-demo-0.0.1-SNAPSHOT.jar \
+ *     -Dloader.main=com.example.rbacdemo.snapshot.SnapshotEvaluator \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     --file=snapshot/rbac.snap --tenant=default --user=admin --permission=READ --type=document --id=42
+ * </pre>
+ *
+ * 授权时退出码为 0，拒绝为 1，用户不在快照中为 2。只传 --file 时输出快照信息。
+ */
+public final class SnapshotEvaluator {
+
+	private SnapshotEvaluator() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("参数格式应为 --name=value: " + arg);
+			}
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+		RbacSnapshot snapshot = RbacSnapshot.open(Path.of(options.getOrDefault("file", "snapshot/rbac.snap")), true);
+		if (!options.containsKey("user")) {
+			System.out.println("授权版本 " + snapshot.getAuthorityVersion() + "，数据读取于 "
+					+ Instant.ofEpochMilli(snapshot.getReadAt()) + "，导出于 "
+					+ Instant.ofEpochMilli(snapshot.getExportedAt()) + "；" + snapshot.getUserCount() + " 个用户，"
+					+ snapshot.getRoleCount() + " 个角色，" + snapshot.getPermissionCount() + " 个权限");
+			return;
+		}
+
+		int user = snapshot.findUser(options.getOrDefault("tenant", TenantContext.DEFAULT_TENANT), options.get("user"));
+		if (user < 0) {
+			System.out.println("UNKNOWN");
+			System.exit(2);
+		}
+		boolean granted = snapshot.isGranted(user, options.get("permission"), options.get("type"),
+				options.get("id"));
+		System.out.println(granted ? "GRANTED" : "DENIED");
+		System.exit(granted ? 0 : 1);
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.example.rbacdemo.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+
+/**
+ * 快照文件格式（大端序），整个文件须小于 2GB：
+ *
+ * <pre>
+ * 文件头 128 字节
+ *   0  int    魔数 "RBSN"
+ *   4  short  格式版本
+ *   8  long   授权版本号
+ *  16  long   读取数据的时间（毫秒）
+ *  24  long   导出时间（毫秒）
+ *  32  int    用户数 / 36 角色数 / 40 权限数 / 44 字符串数 / 48 用户-角色边数 / 52 角色-权限边数
+ *  56  int    CRC32C，覆盖除本字段外的整个文件
+ *  64  int[]  各分区的起始偏移，顺序同下
+ * 分区
+ *  用户键      userCount × (int 租户串号, int 用户名串号)，按 (租户, 用户名) 排序
+ *  用户ID      userCount × long，与用户键同序
+ *  用户角色    CSR：(userCount + 1) × int 行偏移，边 × int 角色序号
+ *  角色        roleCount × (long 角色ID, int 名称串号)，按ID排序
+ *  角色权限    CSR：(roleCount + 1) × int 行偏移，边 × int 权限序号
+ *  权限        permissionCount × (long 权限ID, int 名称串号, int 资源类型串号, int 资源模式串号)，按ID排序；
+ *              权限名称与资源类型已转大写，全局权限的类型串号为 -1，匹配全部资源的模式串号为 -1
+ *  字符串字典  (stringCount + 1) × int 偏移，UTF-8 字节按无符号字节序排序、去重
+ * </pre>
+ */
+final class SnapshotFormat {
+
+	static final int MAGIC = 0x5242534E;
+
+	/**
+	 * 版本 2：角色ID与权限ID改为 long，与用户ID一致
+	 */
+	static final short VERSION = 2;
+
+	static final int HEADER_SIZE = 128;
+
+	static final int OFFSET_AUTHORITY_VERSION = 8;
+
+	static final int OFFSET_READ_AT = 16;
+
+	static final int OFFSET_EXPORTED_AT = 24;
+
+	static final int OFFSET_USER_COUNT = 32;
+
+	static final int OFFSET_ROLE_COUNT = 36;
+
+	static final int OFFSET_PERMISSION_COUNT = 40;
+
+	static final int OFFSET_STRING_COUNT = 44;
+
+	static final int OFFSET_USER_ROLE_COUNT = 48;
+
+	static final int OFFSET_ROLE_PERMISSION_COUNT = 52;
+
+	static final int OFFSET_CRC = 56;
+
+	static final int OFFSET_SECTIONS = 64;
+
+	static final int SECTION_USER_KEYS = 0;
+
+	static final int SECTION_USER_IDS = 1;
+
+	static final int SECTION_USER_ROLE_OFFSETS = 2;
+
+	static final int SECTION_USER_ROLES = 3;
+
+	static final int SECTION_ROLES = 4;
+
+	static final int SECTION_ROLE_PERMISSION_OFFSETS = 5;
+
+	static final int SECTION_ROLE_PERMISSIONS = 6;
+
+	static final int SECTION_PERMISSIONS = 7;
+
+	static final int SECTION_STRING_OFFSETS = 8;
+
+	static final int SECTION_STRING_BYTES = 9;
+
+	static final int SECTION_COUNT = 10;
+
+	static final int USER_KEY_SIZE = 8;
+
+	static final int ROLE_SIZE = 12;
+
+	static final int PERMISSION_SIZE = 20;
+
+	/**
+	 * 串号为 -1 表示空值
+	 */
+	static final int NONE = -1;
+
+	private SnapshotFormat() {
+	}
+
+	/**
+	 * 权限名称与资源类型不区分大小写，与 CompiledPolicy 一致
+	 */
+	static String normalize(String value) {
+		return value.toUpperCase(Locale.ROOT);
+	}
+
+	static int checksum(ByteBuffer buffer) {
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.slice(0, OFFSET_CRC));
+		crc.update(buffer.slice(OFFSET_CRC + Integer.BYTES, buffer.limit() - OFFSET_CRC - Integer.BYTES));
+		return (int) crc.getValue();
+	}
+
+}
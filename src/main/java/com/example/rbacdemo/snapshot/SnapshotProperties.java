@@ -0,0 +1,47 @@
+package com.example.rbacdemo.snapshot;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.snapshot")
+public class SnapshotProperties {
+
+	/**
+	 * 是否用快照文件回答授权检查（缓存未命中时先查快照，再回退到数据库）
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 快照文件路径，导出时原子替换
+	 */
+	private String file = "snapshot/rbac.snap";
+
+	/**
+	 * 本节点是否定期导出快照，集群中只需一个节点开启
+	 */
+	private boolean exportEnabled = false;
+
+	/**
+	 * 导出间隔，应大于其他节点的重新加载间隔：每次导出只保留上一个快照仍需要的授权变更记录
+	 */
+	private Duration exportInterval = Duration.ofMinutes(10);
+
+	/**
+	 * 检查快照文件是否被替换的间隔
+	 */
+	private Duration reloadInterval = Duration.ofMinutes(1);
+
+	/**
+	 * 导出时 JDBC 每次取回的行数；MySQL 需在连接串上加 useCursorFetch=true 才按批流式读取
+	 */
+	private int fetchSize = 1000;
+
+	/**
+	 * 加载时是否校验整个文件的 CRC32C
+	 */
+	private boolean verifyChecksum = true;
+
+}
@@ -0,0 +1,35 @@
+package com.example.rbacdemo.tenant;
+
+/**
+ * 当前线程的租户上下文，由 {@link TenantResolverFilter} 在请求开始时设置、结束时清理。
+ */
+public final class TenantContext {
+
+	/**
+	 * 未指定租户时使用的默认租户
+	 */
+	public static final String DEFAULT_TENANT = "default";
+
+	private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+	private TenantContext() {
+	}
+
+	/**
+	 * 获取当前租户ID
+	 * @return 当前租户ID，未设置时返回默认租户
+	 */
+	public static String getTenantId() {
+		String tenantId = CURRENT.get();
+		return tenantId != null ? tenantId : DEFAULT_TENANT;
+	}
+
+	public static void setTenantId(String tenantId) {
+		CURRENT.set(tenantId);
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.rbacdemo.tenant;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.tenant")
+public class TenantProperties {
+
+	/**
+	 * 携带租户ID的请求头
+	 */
+	private String header = "X-Tenant-Id";
+
+	/**
+	 * 携带租户ID的请求参数（用于表单登录）
+	 */
+	private String parameter = "tenant";
+
+	/**
+	 * 请求未携带租户ID时使用的租户
+	 */
+	private String defaultTenant = TenantContext.DEFAULT_TENANT;
+
+	/**
+	 * 每个租户授权缓存的默认条目上限
+	 */
+	private int cacheMaxEntries = 10_000;
+
+	/**
+	 * 每个缓存最多保留的租户分区数，租户ID来自请求头，需防止任意租户ID占满内存
+	 */
+	private int cacheMaxTenants = 1_000;
+
+	/**
+	 * 按租户覆盖的授权缓存条目上限
+	 */
+	private Map<String, Integer> tenantCacheMaxEntries = new HashMap<>();
+
+	/**
+	 * 获取指定租户的缓存条目上限
+	 * @param tenantId 租户ID
+	 * @return 条目上限
+	 */
+	public int cacheMaxEntriesFor(String tenantId) {
+		return tenantCacheMaxEntries.getOrDefault(tenantId, cacheMaxEntries);
+	}
+
+}
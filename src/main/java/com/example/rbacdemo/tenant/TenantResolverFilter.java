@@ -0,0 +1,64 @@
+package com.example.rbacdemo.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 从请求中解析租户，必须先于 Spring Security 过滤器链执行，以便认证时按租户加载用户。
+ * <p>
+ * 会话登录成功后即与租户绑定，之后请求头或参数中的租户ID不再生效，防止已登录会话跨租户访问。
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@RequiredArgsConstructor
+public class TenantResolverFilter extends OncePerRequestFilter {
+
+	static final String SESSION_ATTRIBUTE = TenantResolverFilter.class.getName() + ".TENANT";
+
+	private final TenantProperties properties;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String tenantId = resolve(request);
+		TenantContext.setTenantId(tenantId);
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			// 记住我自动登录会按令牌所属租户改写上下文，以最终生效的租户绑定会话
+			String authenticatedTenantId = TenantContext.getTenantId();
+			TenantContext.clear();
+			HttpSession session = request.getSession(false);
+			if (session != null && session.getAttribute(SESSION_ATTRIBUTE) == null
+					&& session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY) != null) {
+				session.setAttribute(SESSION_ATTRIBUTE, authenticatedTenantId);
+			}
+		}
+	}
+
+	private String resolve(HttpServletRequest request) {
+		HttpSession session = request.getSession(false);
+		if (session != null && session.getAttribute(SESSION_ATTRIBUTE) instanceof String pinned) {
+			return pinned;
+		}
+		String tenantId = request.getHeader(properties.getHeader());
+		if (!StringUtils.hasText(tenantId)) {
+			tenantId = request.getParameter(properties.getParameter());
+		}
+		return StringUtils.hasText(tenantId) ? tenantId.trim() : properties.getDefaultTenant();
+	}
+
+}
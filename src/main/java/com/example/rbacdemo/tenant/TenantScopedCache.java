@@ -0,0 +1,184 @@
+package com.example.rbacdemo.tenant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 按租户隔离的有界 LRU 缓存。
+ * <p>
+ * 每个租户拥有独立的分区和条目上限，一个租户的批量操作只会淘汰自己分区内的条目；
+ * 加锁粒度也是单个租户分区，加载函数在锁外执行，加载期间分区内发生过清除时不写入加载结果
+ * （{@link #generation} 与 {@link #putIfUnchanged}）。
+ * 租户ID来自请求头，分区数同样有上限，超出时淘汰最久未访问的分区。
+ *
+ * @param <V> 缓存值类型
+ */
+public class TenantScopedCache<V> {
+
+	private final TenantProperties properties;
+
+	private final Map<String, Partition<V>> partitions = new ConcurrentHashMap<>();
+
+	/**
+	 * 所有分区共用的清除代数序列，整个分区被清除后重建的新分区也不会与旧代数相等
+	 */
+	private final AtomicLong generations = new AtomicLong();
+
+	public TenantScopedCache(TenantProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * 读取缓存，未命中时调用加载函数并写入
+	 * @param tenantId 租户ID
+	 * @param key 键
+	 * @param loader 加载函数
+	 * @return 缓存值
+	 */
+	public V get(String tenantId, String key, Function<String, V> loader) {
+		V value = partition(tenantId).get(key);
+		if (value == null) {
+			long generation = generation(tenantId);
+			value = loader.apply(key);
+			if (value != null) {
+				putIfUnchanged(tenantId, key, value, generation);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 只读取缓存，不触发加载
+	 * @param tenantId 租户ID
+	 * @param key 键
+	 * @return 缓存值，未命中返回 null
+	 */
+	public V getIfPresent(String tenantId, String key) {
+		Partition<V> partition = partitions.get(tenantId);
+		return partition == null ? null : partition.get(key);
+	}
+
+	public void put(String tenantId, String key, V value) {
+		partition(tenantId).put(key, value);
+	}
+
+	/**
+	 * 读取租户分区当前的清除代数，在锁外加载数据之前调用
+	 * @param tenantId 租户ID
+	 * @return 清除代数
+	 */
+	public long generation(String tenantId) {
+		return partition(tenantId).generation();
+	}
+
+	/**
+	 * 只有在读取代数之后分区内没有发生过清除时才写入，避免清除之前开始的加载把旧数据放回缓存
+	 * @param tenantId 租户ID
+	 * @param key 键
+	 * @param value 加载结果
+	 * @param generation 加载前通过 {@link #generation} 读取的代数
+	 */
+	public void putIfUnchanged(String tenantId, String key, V value, long generation) {
+		partition(tenantId).putIfUnchanged(key, value, generation);
+	}
+
+	public void evict(String tenantId, String key) {
+		Partition<V> partition = partitions.get(tenantId);
+		if (partition != null) {
+			partition.remove(key);
+		}
+	}
+
+	/**
+	 * 清空单个租户的分区，不影响其他租户
+	 * @param tenantId 租户ID
+	 */
+	public void evictTenant(String tenantId) {
+		partitions.remove(tenantId);
+	}
+
+	private Partition<V> partition(String tenantId) {
+		Partition<V> partition = partitions.get(tenantId);
+		if (partition == null) {
+			partition = partitions.computeIfAbsent(tenantId,
+					id -> new Partition<>(properties.cacheMaxEntriesFor(id), generations));
+			if (partitions.size() > properties.getCacheMaxTenants()) {
+				evictLeastRecentlyUsed(tenantId);
+			}
+		}
+		return partition;
+	}
+
+	/**
+	 * 只在新建分区且超出上限时扫描一次，正常情况下租户数量稳定，不会触发
+	 */
+	private void evictLeastRecentlyUsed(String keep) {
+		String eldest = null;
+		long eldestAccess = Long.MAX_VALUE;
+		for (Map.Entry<String, Partition<V>> entry : partitions.entrySet()) {
+			long lastAccess = entry.getValue().lastAccess;
+			if (!entry.getKey().equals(keep) && lastAccess < eldestAccess) {
+				eldest = entry.getKey();
+				eldestAccess = lastAccess;
+			}
+		}
+		if (eldest != null) {
+			partitions.remove(eldest);
+		}
+	}
+
+	private static final class Partition<V> {
+
+		private final Map<String, V> entries;
+
+		private final AtomicLong generations;
+
+		/**
+		 * 每次清除条目时从共用序列取新值，加载结果写入前据此判断加载期间是否发生过清除
+		 */
+		private long generation;
+
+		private volatile long lastAccess = System.nanoTime();
+
+		private Partition(int maxEntries, AtomicLong generations) {
+			this.generations = generations;
+			this.generation = generations.incrementAndGet();
+			this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+					return size() > maxEntries;
+				}
+			};
+		}
+
+		private synchronized V get(String key) {
+			lastAccess = System.nanoTime();
+			return entries.get(key);
+		}
+
+		private synchronized void put(String key, V value) {
+			lastAccess = System.nanoTime();
+			entries.put(key, value);
+		}
+
+		private synchronized void putIfUnchanged(String key, V value, long expectedGeneration) {
+			if (generation == expectedGeneration) {
+				put(key, value);
+			}
+		}
+
+		private synchronized long generation() {
+			return generation;
+		}
+
+		private synchronized void remove(String key) {
+			generation = generations.incrementAndGet();
+			entries.remove(key);
+		}
+
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.example.rbacdemo.warmup;
+
+import com.example.rbacdemo.model.User;
+import com.example.rbacdemo.repository.UserRepository;
+import com.example.rbacdemo.service.AuthorityCatalogService;
+import com.example.rbacdemo.service.AuthorizationService;
+import com.example.rbacdemo.service.RoleService;
+import com.example.rbacdemo.service.impl.AuthUserDetailsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动缓存预热：加载全部角色/权限目录，并按最近登录时间预加载活跃用户的授权信息
+ * （用户详情缓存与编译后的授权策略）。
+ * <p>
+ * 在 {@link ApplicationReadyEvent} 中同步执行，Spring Boot 在所有就绪监听器返回后才把就绪状态切换为
+ * ACCEPTING_TRAFFIC，因此预热完成（或超出时间上限）前就绪探针保持失败；进度见健康检查的 cacheWarmup 组件。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer {
+
+	public enum Phase {
+
+		PENDING, RUNNING, DONE, TIMED_OUT, FAILED, DISABLED
+
+	}
+
+	private final WarmupProperties properties;
+
+	private final RoleService roleService;
+
+	private final AuthorityCatalogService authorityCatalogService;
+
+	private final AuthorizationService authorizationService;
+
+	private final AuthUserDetailsService userDetailsService;
+
+	private final UserRepository userRepository;
+
+	private final PlatformTransactionManager transactionManager;
+
+	private final AtomicInteger usersLoaded = new AtomicInteger();
+
+	private volatile Phase phase = Phase.PENDING;
+
+	private volatile int usersTotal;
+
+	private volatile long startedAt;
+
+	private volatile long finishedAt;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		if (!properties.isEnabled()) {
+			phase = Phase.DISABLED;
+			return;
+		}
+		phase = Phase.RUNNING;
+		startedAt = System.currentTimeMillis();
+		long deadline = System.nanoTime() + properties.getTimeBudget().toNanos();
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		AtomicInteger threadIndex = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism(), runnable -> {
+			Thread thread = new Thread(runnable, "cache-warmup-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			tasks.add(executor.submit(authorityCatalogService::warmUp));
+			tasks.add(executor.submit(roleService::warmUpCatalog));
+
+			// 先取版本号再读用户数据，保证预加载的快照版本不会比实际数据新
+			Map<String, Long> versions = authorityCatalogService.currentVersions();
+			List<Long> userIds = readOnly
+				.execute(status -> userRepository.findRecentlyActiveIds(PageRequest.of(0, properties.getHotUsers())));
+			usersTotal = userIds.size();
+			for (int from = 0; from < userIds.size(); from += properties.getBatchSize()) {
+				List<Long> batch = userIds.subList(from, Math.min(from + properties.getBatchSize(), userIds.size()));
+				tasks.add(executor.submit(() -> loadBatch(readOnly, batch, versions)));
+			}
+
+			for (Future<?> task : tasks) {
+				task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			}
+			phase = Phase.DONE;
+		}
+		catch (TimeoutException ex) {
+			phase = Phase.TIMED_OUT;
+			log.warn("缓存预热超出时间上限 {}，放弃剩余批次", properties.getTimeBudget());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			phase = Phase.FAILED;
+		}
+		catch (ExecutionException | RuntimeException ex) {
+			phase = Phase.FAILED;
+			log.warn("缓存预热失败，以冷缓存接收流量", ex);
+		}
+		finally {
+			executor.shutdownNow();
+			finishedAt = System.currentTimeMillis();
+			log.info("缓存预热结束: {}，预加载用户 {}/{}，耗时 {}ms", phase, usersLoaded.get(), usersTotal,
+					finishedAt - startedAt);
+		}
+	}
+
+	private void loadBatch(TransactionTemplate readOnly, List<Long> userIds, Map<String, Long> versions) {
+		if (Thread.currentThread().isInterrupted()) {
+			return;
+		}
+		List<User> users = readOnly.execute(status -> userRepository.findAllByIdIn(userIds));
+		for (User user : users) {
+			long version = versions.getOrDefault(user.getTenantId(), 0L);
+			authorizationService.preload(user, version);
+			userDetailsService.preload(user, version);
+			usersLoaded.incrementAndGet();
+		}
+	}
+
+	public Phase getPhase() {
+		return phase;
+	}
+
+	public int getUsersLoaded() {
+		return usersLoaded.get();
+	}
+
+	public int getUsersTotal() {
+		return usersTotal;
+	}
+
+	/**
+	 * 已耗时，预热未开始时为 0
+	 */
+	public long getElapsedMillis() {
+		if (startedAt == 0) {
+			return 0;
+		}
+		return (finishedAt != 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+	}
+
+}
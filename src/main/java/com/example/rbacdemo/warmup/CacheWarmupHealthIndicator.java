@@ -0,0 +1,30 @@
+package com.example.rbacdemo.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存预热进度。预热进行中为 OUT_OF_SERVICE；结束后无论成功、超时还是失败都为 UP，
+ * 冷缓存只影响延迟，不应阻止实例接收流量。
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+	private final CacheWarmer cacheWarmer;
+
+	@Override
+	public Health health() {
+		CacheWarmer.Phase phase = cacheWarmer.getPhase();
+		Health.Builder builder = phase == CacheWarmer.Phase.PENDING || phase == CacheWarmer.Phase.RUNNING
+				? Health.outOfService() : Health.up();
+		return builder.withDetail("phase", phase)
+			.withDetail("usersLoaded", cacheWarmer.getUsersLoaded())
+			.withDetail("usersTotal", cacheWarmer.getUsersTotal())
+			.withDetail("elapsedMs", cacheWarmer.getElapsedMillis())
+			.build();
+	}
+
+}
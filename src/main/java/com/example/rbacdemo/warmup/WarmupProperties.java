@@ -0,0 +1,37 @@
+package com.example.rbacdemo.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+
+	/**
+	 * 是否在接收流量前预热缓存
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * 预加载授权信息的最近活跃用户数
+	 */
+	private int hotUsers = 1000;
+
+	/**
+	 * 每批加载的用户数
+	 */
+	private int batchSize = 100;
+
+	/**
+	 * 并行加载的线程数，不宜超过连接池大小
+	 */
+	private int parallelism = 4;
+
+	/**
+	 * 预热时间上限，超时后放弃剩余批次直接接收流量
+	 */
+	private Duration timeBudget = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,5 @@
+-- 记住我令牌轮换记录：保留上一个令牌与轮换时间，同一设备并发发往其他节点、仍携带旧令牌的请求
+-- 在容忍窗口内不会被误判为盗用
+ALTER TABLE persistent_logins ADD COLUMN previous_token VARCHAR(64) NULL;
+
+ALTER TABLE persistent_logins ADD COLUMN rotated_at TIMESTAMP NULL;
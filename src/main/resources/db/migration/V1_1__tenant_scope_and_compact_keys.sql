@@ -0,0 +1,82 @@
+-- 把基线表结构升级为当前的 JPA 映射：
+--   * users、roles、permissions 增加 tenant_id，全局唯一约束改为租户内唯一
+--   * permissions 增加资源类型与资源模式，空串表示全局权限；两列不允许 NULL，唯一索引中 NULL 互不相等
+--   * 角色、权限数量有限，主键及引用它们的关联列从 BIGINT 收窄为 INTEGER；用户主键保留 BIGINT
+-- 基线中的唯一约束和外键都没有命名，各数据库生成的名称不同，无法可移植地按名称删除，
+-- 因此新建目标表、复制数据后替换原表。已有数据归入默认租户 default，已有权限均为全局权限
+
+CREATE TABLE users_v2 (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT uk_users_tenant_username UNIQUE (tenant_id, username),
+    CONSTRAINT uk_users_tenant_email UNIQUE (tenant_id, email)
+);
+
+CREATE TABLE roles_v2 (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    name VARCHAR(50) NOT NULL,
+    description VARCHAR(200),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_roles_tenant_name UNIQUE (tenant_id, name)
+);
+
+-- 资源模式以 * 结尾表示前缀匹配
+CREATE TABLE permissions_v2 (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    name VARCHAR(50) NOT NULL,
+    resource_type VARCHAR(50) NOT NULL DEFAULT '',
+    resource_pattern VARCHAR(100) NOT NULL DEFAULT '',
+    description VARCHAR(200),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_permissions_tenant_scope UNIQUE (tenant_id, name, resource_type, resource_pattern)
+);
+
+CREATE TABLE user_roles_v2 (
+    user_id BIGINT NOT NULL,
+    role_id INTEGER NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users_v2 (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles_v2 (id)
+);
+
+CREATE TABLE role_permissions_v2 (
+    role_id INTEGER NOT NULL,
+    permission_id INTEGER NOT NULL,
+    PRIMARY KEY (role_id, permission_id),
+    CONSTRAINT fk_role_permissions_role FOREIGN KEY (role_id) REFERENCES roles_v2 (id),
+    CONSTRAINT fk_role_permissions_permission FOREIGN KEY (permission_id) REFERENCES permissions_v2 (id)
+);
+
+INSERT INTO users_v2 (id, tenant_id, username, email, password, created_at, updated_at)
+SELECT id, 'default', username, email, password, created_at, updated_at FROM users;
+
+INSERT INTO roles_v2 (id, tenant_id, name, description, created_at)
+SELECT id, 'default', name, description, created_at FROM roles;
+
+INSERT INTO permissions_v2 (id, tenant_id, name, description, created_at)
+SELECT id, 'default', name, description, created_at FROM permissions;
+
+INSERT INTO user_roles_v2 (user_id, role_id)
+SELECT user_id, role_id FROM user_roles;
+
+INSERT INTO role_permissions_v2 (role_id, permission_id)
+SELECT role_id, permission_id FROM role_permissions;
+
+DROP TABLE role_permissions;
+DROP TABLE user_roles;
+DROP TABLE permissions;
+DROP TABLE roles;
+DROP TABLE users;
+
+ALTER TABLE users_v2 RENAME TO users;
+ALTER TABLE roles_v2 RENAME TO roles;
+ALTER TABLE permissions_v2 RENAME TO permissions;
+ALTER TABLE user_roles_v2 RENAME TO user_roles;
+ALTER TABLE role_permissions_v2 RENAME TO role_permissions;
@@ -0,0 +1,6 @@
+-- 关联表的主键只能服务正向查询（用户的角色、角色的权限），
+-- 反向查询（持有某角色的用户、包含某权限的角色）需要以另一列开头的覆盖索引
+
+CREATE INDEX idx_user_roles_role_user ON user_roles (role_id, user_id);
+
+CREATE INDEX idx_role_permissions_permission_role ON role_permissions (permission_id, role_id);
@@ -0,0 +1,16 @@
+-- 用户有效权限的反范式物化表，由服务层在角色/权限分配时维护
+
+CREATE TABLE IF NOT EXISTS user_effective_permissions (
+    user_id BIGINT NOT NULL,
+    permission_id INTEGER NOT NULL,
+    PRIMARY KEY (user_id, permission_id),
+    CONSTRAINT fk_uep_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_uep_permission FOREIGN KEY (permission_id) REFERENCES permissions (id)
+);
+
+CREATE INDEX idx_uep_permission_user ON user_effective_permissions (permission_id, user_id);
+
+INSERT INTO user_effective_permissions (user_id, permission_id)
+SELECT DISTINCT ur.user_id, rp.permission_id
+FROM user_roles ur
+JOIN role_permissions rp ON rp.role_id = ur.role_id;
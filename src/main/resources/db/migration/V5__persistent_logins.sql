@@ -0,0 +1,10 @@
+-- 记住我令牌表，series 为设备标识；按 (tenant_id, username) 批量吊销
+CREATE TABLE IF NOT EXISTS persistent_logins (
+    series VARCHAR(64) PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    username VARCHAR(64) NOT NULL,
+    token VARCHAR(64) NOT NULL,
+    last_used TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_persistent_logins_tenant_user ON persistent_logins (tenant_id, username);
@@ -0,0 +1,4 @@
+-- 最近登录时间，登录后异步更新；启动预热按它选出最近活跃的用户
+ALTER TABLE users ADD COLUMN last_login TIMESTAMP NULL;
+
+CREATE INDEX idx_users_last_login ON users (last_login);
@@ -0,0 +1,10 @@
+-- 授权变更日志：每次角色/权限分配变化记录变更主体，从快照文件启动的节点据此追平快照之后的变更
+CREATE TABLE IF NOT EXISTS authority_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    subject_type VARCHAR(10) NOT NULL,
+    subject_id BIGINT NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_authority_changes_changed_at ON authority_changes (changed_at);
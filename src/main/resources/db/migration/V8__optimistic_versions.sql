@@ -0,0 +1,4 @@
+-- 乐观锁版本号：整体替换用户角色、角色权限时校验，并发修改以冲突重试代替行锁
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE roles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
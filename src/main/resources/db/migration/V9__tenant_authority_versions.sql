@@ -0,0 +1,20 @@
+-- 授权版本号按租户分行：一个租户的授权变更只让本租户的缓存失效，不同租户的写入也不再争用同一行。
+-- 现有租户沿用原全局版本号，会话中保存的授权快照版本不会比新版本号更新
+CREATE TABLE tenant_authority_version (
+    tenant_id VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO tenant_authority_version (tenant_id, version)
+SELECT t.tenant_id, (SELECT v.version FROM authority_version v WHERE v.id = 1)
+FROM (
+    SELECT tenant_id FROM users
+    UNION
+    SELECT tenant_id FROM roles
+    UNION
+    SELECT tenant_id FROM permissions
+) t;
+
+DROP TABLE authority_version;
+
+ALTER TABLE tenant_authority_version RENAME TO authority_version;
@@ -0,0 +1,63 @@
+package com.example.rbacdemo.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * 逐个授予/收回的审计记录写入段文件后可按对象查询；缓冲区满时写入等待并在超时后失败，而不是丢弃
+ */
+class AuditLogTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recordsEveryGrantAndRevokeWithItsObject() throws Exception {
+		AuditLog auditLog = new AuditLog(properties(1024, Duration.ofSeconds(5)), new SimpleMeterRegistry());
+		auditLog.start();
+		auditLog.roleGranted(7L, 1L);
+		auditLog.roleGranted(7L, 2L);
+		auditLog.roleRevoked(7L, 3L);
+		auditLog.permissionRevoked(1L, 42L);
+		auditLog.stop();
+
+		List<AuditEntry> entries = new ArrayList<>();
+		AuditSegments.scan(directory, 0, Long.MAX_VALUE, entries::add);
+
+		assertThat(entries).extracting(AuditEntry::getType, AuditEntry::getTargetId, AuditEntry::getObjectId)
+			.containsExactly(tuple(AuditEventType.ROLE_GRANTED, 7L, 1L), tuple(AuditEventType.ROLE_GRANTED, 7L, 2L),
+					tuple(AuditEventType.ROLE_REVOKED, 7L, 3L), tuple(AuditEventType.PERMISSION_REVOKED, 1L, 42L));
+	}
+
+	@Test
+	void fullBufferFailsTheWriteInsteadOfDropping() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		// 写线程未启动，缓冲区写满后不会再腾出槽位
+		AuditLog auditLog = new AuditLog(properties(2, Duration.ofMillis(50)), meterRegistry);
+		auditLog.roleGranted(1L, 1L);
+		auditLog.roleGranted(1L, 2L);
+
+		assertThatThrownBy(() -> auditLog.roleGranted(1L, 3L)).hasMessageContaining("缓冲区已满");
+		assertThat(meterRegistry.get("rbac.audit.rejected").functionCounter().count()).isEqualTo(1);
+	}
+
+	private AuditProperties properties(int capacity, Duration offerTimeout) {
+		AuditProperties properties = new AuditProperties();
+		properties.setDirectory(directory.toString());
+		properties.setBufferCapacity(capacity);
+		properties.setOfferTimeout(offerTimeout);
+		properties.setSegmentRecords(16);
+		return properties;
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.example.rbacdemo.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 引入 Flyway 之前创建的数据库（V1 基线表结构、没有迁移历史）按基线接入后升级到最新表结构，已有数据保留
+ */
+class FlywayMigrationTests {
+
+	private DriverManagerDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:flyway-" + UUID.randomUUID()
+				+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+
+		// 还原为 docker/init.sql 建出的旧库：只有基线表结构和数据，没有迁移历史
+		Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+		jdbcTemplate.execute("DROP TABLE \"flyway_schema_history\"");
+		jdbcTemplate.update("INSERT INTO users (id, username, email, password) VALUES (7, 'alice', 'a@x.io', 'p')");
+		jdbcTemplate.update("INSERT INTO roles (id, name) VALUES (3, 'admin')");
+		jdbcTemplate.update("INSERT INTO permissions (id, name) VALUES (5, 'read')");
+		jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) VALUES (7, 3)");
+		jdbcTemplate.update("INSERT INTO role_permissions (role_id, permission_id) VALUES (3, 5)");
+	}
+
+	@Test
+	void existingDatabaseJoinsAtBaselineAndUpgrades() {
+		Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT tenant_id FROM users WHERE id = 7", String.class))
+			.isEqualTo("default");
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT resource_type FROM permissions WHERE id = 5", String.class)).isEmpty();
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM user_effective_permissions WHERE user_id = 7 AND permission_id = 5",
+				Integer.class)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT version FROM authority_version WHERE tenant_id = 'default'", Long.class)).isZero();
+	}
+
+	@Test
+	void upgradedSchemaScopesUniqueKeysByTenant() {
+		Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+		jdbcTemplate.update("INSERT INTO users (tenant_id, username, email, password) VALUES ('other', 'alice', "
+				+ "'a@x.io', 'p')");
+		jdbcTemplate.update("INSERT INTO permissions (tenant_id, name) VALUES ('other', 'read')");
+		assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO permissions (tenant_id, name) VALUES ('other', "
+				+ "'read')")).hasMessageContaining("uk_permissions_tenant_scope");
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.example.rbacdemo.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读写分离路由：local profile 下主库与副本是两个独立的内嵌库，副本不会同步主库的写入
+ */
+@SpringBootTest
+@ActiveProfiles({ "test", "local" })
+class ReadWriteRoutingDataSourceTests {
+
+	private static final String PRIMARY = "rbac_demo";
+
+	private static final String REPLICA = "rbac_demo_replica";
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate write;
+
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		write = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReadYourWritesContext.clear();
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplica() {
+		assertThat(readDatabase()).isEqualTo(REPLICA);
+		assertThat(writeDatabase()).isEqualTo(PRIMARY);
+	}
+
+	@Test
+	void writeOutsideRequestDoesNotPinThreadToPrimary() {
+		String name = insertRole();
+
+		assertThat(ReadYourWritesContext.isPinnedToPrimary()).isFalse();
+		assertThat(readDatabase()).isEqualTo(REPLICA);
+		assertThat(readRoleCount(name)).isZero();
+	}
+
+	@Test
+	void readAfterWriteWithinRequestUsesPrimary() {
+		ReadYourWritesContext.beginRequest();
+		String name = insertRole();
+
+		assertThat(ReadYourWritesContext.hasWritten()).isTrue();
+		assertThat(readDatabase()).isEqualTo(PRIMARY);
+		assertThat(readRoleCount(name)).isEqualTo(1);
+	}
+
+	private String insertRole() {
+		String name = "routing-" + UUID.randomUUID().toString().substring(0, 8);
+		write.executeWithoutResult(
+				status -> jdbcTemplate.update("INSERT INTO roles (tenant_id, name) VALUES ('default', ?)", name));
+		return name;
+	}
+
+	private String readDatabase() {
+		return readOnly.execute(status -> currentDatabase());
+	}
+
+	private String writeDatabase() {
+		return write.execute(status -> currentDatabase());
+	}
+
+	private int readRoleCount(String name) {
+		return readOnly.execute(status -> countRoles(name));
+	}
+
+	private String currentDatabase() {
+		return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class).toLowerCase();
+	}
+
+	private Integer countRoles(String name) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM roles WHERE name = ?", Integer.class, name);
+	}
+
+}
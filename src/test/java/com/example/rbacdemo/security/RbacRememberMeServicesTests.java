@@ -0,0 +1,132 @@
+package com.example.rbacdemo.security;
+
+import com.example.rbacdemo.service.UserService;
+import com.example.rbacdemo.tenant.TenantContext;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.rememberme.CookieTheftException;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 同一设备的并发请求携带同一个记住我 cookie 分别到达两个节点：只轮换一次，都不被判为盗用
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RbacRememberMeServicesTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Autowired
+	private RbacPersistentTokenRepository tokenRepository;
+
+	@Autowired
+	private RememberMeProperties properties;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String tenantId;
+
+	private String series;
+
+	@BeforeEach
+	void setUp() {
+		tenantId = "remember-" + UUID.randomUUID().toString().substring(0, 8);
+		TenantContext.setTenantId(tenantId);
+		userService.registerUser("device", "device@example.com", "password");
+		series = UUID.randomUUID().toString();
+		tokenRepository.createNewToken(new PersistentRememberMeToken("device", series, "initial", new Date()));
+		TenantContext.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void burstOnSameNodeReusesValidatedUserWithoutDatabase() {
+		RbacRememberMeServices node = node();
+		UserDetails first = login(node, "initial").user();
+
+		// 窗口内的并发请求不再查询令牌表，删除记录也不影响本节点
+		jdbcTemplate.update("DELETE FROM persistent_logins WHERE series = ?", series);
+		AutoLogin burst = login(node, "initial");
+
+		assertThat(burst.user()).isSameAs(first);
+		assertThat(burst.issuedToken()).isNotEqualTo("initial");
+	}
+
+	@Test
+	void burstOnAnotherNodeAdoptsRotationInsteadOfRevoking() {
+		AutoLogin first = login(node(), "initial");
+		AutoLogin other = login(node(), "initial");
+
+		assertThat(other.user().getUsername()).isEqualTo("device");
+		assertThat(other.issuedToken()).isEqualTo(first.issuedToken());
+		assertThat(storedToken()).isEqualTo(first.issuedToken());
+	}
+
+	@Test
+	void oldTokenOutsideWindowIsTreatedAsTheft() {
+		login(node(), "initial");
+		jdbcTemplate.update("UPDATE persistent_logins SET rotated_at = ? WHERE series = ?",
+				new Date(System.currentTimeMillis() - properties.getBurstWindow().toMillis() - 1000), series);
+
+		assertThatThrownBy(() -> login(node(), "initial")).isInstanceOf(CookieTheftException.class);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM persistent_logins WHERE series = ?",
+				Integer.class, series)).isZero();
+	}
+
+	/**
+	 * 每个节点有自己的轮换缓存，共用令牌表
+	 */
+	private RbacRememberMeServices node() {
+		RbacRememberMeServices services = new RbacRememberMeServices(properties.getKey(), userDetailsService,
+				tokenRepository, new RememberMeSeriesCache(properties), properties.getBurstWindow());
+		services.setTokenValiditySeconds((int) properties.getValidity().toSeconds());
+		return services;
+	}
+
+	private AutoLogin login(RbacRememberMeServices node, String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		UserDetails user = node.processAutoLoginCookie(new String[] { series, token }, request, response);
+		Cookie cookie = response.getCookie("remember-me");
+		String decoded = new String(Base64.getDecoder().decode(cookie.getValue()));
+		String issued = decoded.substring(decoded.indexOf(':') + 1);
+		return new AutoLogin(user, URLDecoder.decode(issued, StandardCharsets.UTF_8));
+	}
+
+	private String storedToken() {
+		return jdbcTemplate.queryForObject("SELECT token FROM persistent_logins WHERE series = ?", String.class,
+				series);
+	}
+
+	private record AutoLogin(UserDetails user, String issuedToken) {
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.example.rbacdemo.service;
+
+import com.example.rbacdemo.model.AuthorityChange;
+import com.example.rbacdemo.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 授权版本号按租户递增：一个租户的变更不让其他租户的缓存失效，整体模型版本号仍能感知到变更
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthorityVersionTests {
+
+	@Autowired
+	private AuthorityCatalogService authorityCatalogService;
+
+	@Autowired
+	private RoleService roleService;
+
+	@AfterEach
+	void tearDown() {
+		TenantContext.clear();
+	}
+
+	@Test
+	void changeInOneTenantDoesNotAdvanceOtherTenants() {
+		String changed = "version-" + UUID.randomUUID().toString().substring(0, 8);
+		String untouched = "version-" + UUID.randomUUID().toString().substring(0, 8);
+		long changedBefore = authorityCatalogService.currentVersion(changed);
+		long untouchedBefore = authorityCatalogService.currentVersion(untouched);
+		long modelBefore = authorityCatalogService.modelVersion();
+
+		TenantContext.setTenantId(changed);
+		roleService.createRole("auditor");
+
+		// 版本号在提交之后由后台线程递增
+		await().untilAsserted(
+				() -> assertThat(authorityCatalogService.currentVersion(changed)).isEqualTo(changedBefore + 1));
+		assertThat(authorityCatalogService.currentVersion(untouched)).isEqualTo(untouchedBefore);
+		assertThat(authorityCatalogService.modelVersion()).isGreaterThan(modelBefore);
+		assertThat(authorityCatalogService.currentVersions()).containsEntry(changed, changedBefore + 1)
+			.doesNotContainKey(untouched);
+	}
+
+	@Test
+	void bumpCreatesVersionForNewTenant() {
+		String tenantId = "version-" + UUID.randomUUID().toString().substring(0, 8);
+		assertThat(authorityCatalogService.currentVersion(tenantId)).isZero();
+
+		TenantContext.setTenantId(tenantId);
+		roleService.createRole("first");
+		roleService.createRole("second");
+
+		await().untilAsserted(() -> assertThat(authorityCatalogService.currentVersion(tenantId)).isEqualTo(2));
+	}
+
+}
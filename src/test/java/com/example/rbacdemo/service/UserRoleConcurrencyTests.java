@@ -0,0 +1,217 @@
+package com.example.rbacdemo.service;
+
+import com.example.rbacdemo.exception.ConcurrentUpdateException;
+import com.example.rbacdemo.model.Role;
+import com.example.rbacdemo.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 并发修改用户的角色：同一用户不丢失已返回成功的修改，也不产生重复的关联行；不同用户的写者互不阻塞
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserRoleConcurrencyTests {
+
+	private static final int WRITERS = 64;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RoleService roleService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private String tenantId;
+
+	private Long userId;
+
+	private List<Long> roleIds;
+
+	@BeforeEach
+	void setUp() {
+		tenantId = "concurrency-" + UUID.randomUUID().toString().substring(0, 8);
+		TenantContext.setTenantId(tenantId);
+		userId = userService.registerUser("writer", "writer@example.com", "password").getId();
+		roleIds = new ArrayList<>();
+		for (int i = 0; i < WRITERS; i++) {
+			Role role = roleService.createRole("role-" + i);
+			roleIds.add(role.getId());
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		TenantContext.clear();
+	}
+
+	/**
+	 * 每个角色由两个写者同时添加：每个角色只有一行关联，且只记录一次授权变更
+	 */
+	@Test
+	void concurrentAddRoleToUserKeepsEveryRoleOnce() throws Exception {
+		int distinctRoles = WRITERS / 2;
+		List<Throwable> failures = runConcurrently(
+				i -> userService.addRoleToUser(userId, roleIds.get(i % distinctRoles)));
+
+		assertThat(failures).isEmpty();
+		assertThat(userRoles()).containsExactlyInAnyOrderElementsOf(roleIds.subList(0, distinctRoles));
+		assertThat(count("SELECT COUNT(*) FROM user_roles WHERE user_id = ?")).isEqualTo(distinctRoles);
+		assertThat(userChanges()).isEqualTo(distinctRoles);
+	}
+
+	/**
+	 * 每个写者整体替换为各不相同的角色集合：返回成功的替换都递增了一次版本号，最终结果是其中某一个完整的集合；
+	 * 重试用完的写者明确失败，而不是被静默覆盖
+	 */
+	@Test
+	void concurrentAssignRolesToUserDoesNotLoseUpdates() throws Exception {
+		long initialVersion = userVersion();
+		List<Throwable> failures = runConcurrently(
+				i -> userService.assignRolesToUser(userId, Set.of(roleIds.get(i))));
+
+		assertThat(failures).allMatch(ConcurrentUpdateException.class::isInstance);
+		int succeeded = WRITERS - failures.size();
+		assertThat(succeeded).isPositive();
+		assertThat(userVersion() - initialVersion).isEqualTo(succeeded);
+		assertThat(userChanges()).isEqualTo(succeeded);
+		assertThat(userRoles()).hasSize(1).isSubsetOf(roleIds);
+	}
+
+	/**
+	 * 一个写者的事务尚未提交时，同一租户内对另一个用户的修改照常完成，不在租户版本号上排队；
+	 * 版本号在提交之后才递增
+	 */
+	@Test
+	void writersToDifferentUsersDoNotWaitForEachOther() throws Exception {
+		Long otherUserId = userService.registerUser("other", "other@example.com", "password").getId();
+		long initialVersion = tenantVersion();
+		CountDownLatch changed = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> pending = executor.submit(() -> {
+				TenantContext.setTenantId(tenantId);
+				try {
+					new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+						userService.addRoleToUser(userId, roleIds.get(0));
+						changed.countDown();
+						try {
+							release.await(30, TimeUnit.SECONDS);
+						}
+						catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+						}
+					});
+				}
+				finally {
+					TenantContext.clear();
+				}
+				return null;
+			});
+			assertThat(changed.await(10, TimeUnit.SECONDS)).isTrue();
+
+			long start = System.nanoTime();
+			userService.addRoleToUser(otherUserId, roleIds.get(1));
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			assertThat(pending).isNotDone();
+			assertThat(elapsedMillis).isLessThan(500);
+			await().untilAsserted(() -> assertThat(tenantVersion()).isEqualTo(initialVersion + 1));
+
+			release.countDown();
+			pending.get(10, TimeUnit.SECONDS);
+			await().untilAsserted(() -> assertThat(tenantVersion()).isEqualTo(initialVersion + 2));
+		}
+		finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	private List<Throwable> runConcurrently(IntConsumer writer) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < WRITERS; i++) {
+				int index = i;
+				futures.add(executor.submit(() -> {
+					TenantContext.setTenantId(tenantId);
+					try {
+						start.await();
+						writer.accept(index);
+					}
+					finally {
+						TenantContext.clear();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+
+			List<Throwable> failures = new ArrayList<>();
+			for (Future<?> future : futures) {
+				try {
+					future.get(60, TimeUnit.SECONDS);
+				}
+				catch (ExecutionException ex) {
+					failures.add(ex.getCause());
+				}
+			}
+			return failures;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<Long> userRoles() {
+		return jdbcTemplate.queryForList("SELECT role_id FROM user_roles WHERE user_id = ?", Long.class, userId);
+	}
+
+	private long userVersion() {
+		return jdbcTemplate.queryForObject("SELECT version FROM users WHERE id = ?", Long.class, userId);
+	}
+
+	private long tenantVersion() {
+		return jdbcTemplate.queryForObject("SELECT version FROM authority_version WHERE tenant_id = ?", Long.class,
+				tenantId);
+	}
+
+	private int userChanges() {
+		return count("SELECT COUNT(*) FROM authority_changes WHERE subject_type = 'USER' AND subject_id = ?");
+	}
+
+	private int count(String sql) {
+		return jdbcTemplate.queryForObject(sql, Integer.class, userId);
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.example.rbacdemo.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 按租户截取子模型：只保留该租户的实体，关联按新序号重新编排
+ */
+class RbacModelTests {
+
+	@Test
+	void forTenantKeepsOnlyTenantEntitiesAndEdges() {
+		RbacModel model = new RbacModel(7, 1000, new long[] { 1, 2, 3 }, new String[] { "a", "b", "a" },
+				new String[] { "alice", "bob", "carol" }, new long[] { 10, 11, 12 }, new String[] { "b", "a", "a" },
+				new String[] { "B-ROLE", "A-ROLE", "A-OTHER" }, new long[] { 20, 21 }, new String[] { "a", "b" },
+				new String[] { "read", "write" }, new String[] { null, null }, new String[] { null, null },
+				new int[] { 0, 2, 3, 4 }, new int[] { 0, 1, 0, 2 }, new int[] { 0, 1, 2, 2 }, new int[] { 1, 0 });
+
+		RbacModel tenant = model.forTenant("a");
+
+		assertThat(tenant.getAuthorityVersion()).isEqualTo(7);
+		assertThat(tenant.getUserIds()).containsExactly(1, 3);
+		assertThat(tenant.getRoleIds()).containsExactly(11, 12);
+		assertThat(tenant.getRoleNames()).containsExactly("A-ROLE", "A-OTHER");
+		assertThat(tenant.getPermissionIds()).containsExactly(20);
+		// alice 的 B-ROLE 属于其他租户，被丢弃；carol 持有 A-OTHER
+		assertThat(tenant.rolesOf(0)).containsExactly(0);
+		assertThat(tenant.rolesOf(1)).containsExactly(1);
+		// A-ROLE 拥有 read，B-ROLE 的 write 不在子模型中
+		assertThat(tenant.permissionsOf(0)).containsExactly(0);
+		assertThat(tenant.permissionsOf(1)).isEmpty();
+		assertThat(tenant.forTenant("missing").userCount()).isZero();
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.example.rbacdemo.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 快照文件格式：写入后重新映射，读取结果与写入的模型一致
+ */
+class RbacSnapshotWriterTests {
+
+	private static final long ADMIN_ROLE = 5_000_000_000L;
+
+	private static final long VIEWER_ROLE = 5_000_000_001L;
+
+	@TempDir
+	Path directory;
+
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = directory.resolve("rbac.snap");
+		RbacSnapshotWriter.write(model(), file);
+	}
+
+	@Test
+	void headerRoundTrips() throws IOException {
+		RbacSnapshot snapshot = RbacSnapshot.open(file, true);
+
+		assertThat(snapshot.getAuthorityVersion()).isEqualTo(42);
+		assertThat(snapshot.getReadAt()).isEqualTo(1_700_000_000_000L);
+		assertThat(snapshot.getUserCount()).isEqualTo(3);
+		assertThat(snapshot.getRoleCount()).isEqualTo(2);
+		assertThat(snapshot.getPermissionCount()).isEqualTo(3);
+	}
+
+	@Test
+	void usersAndRoleIdsRoundTrip() throws IOException {
+		RbacSnapshot snapshot = RbacSnapshot.open(file, true);
+
+		int alice = snapshot.findUser("default", "alice");
+		int bob = snapshot.findUser("default", "bob");
+		int otherAlice = snapshot.findUser("acme", "alice");
+		assertThat(snapshot.userId(alice)).isEqualTo(1);
+		assertThat(snapshot.userId(bob)).isEqualTo(2);
+		assertThat(snapshot.userId(otherAlice)).isEqualTo(3);
+		assertThat(snapshot.roleIdsOf(alice)).containsExactly(ADMIN_ROLE);
+		assertThat(snapshot.roleIdsOf(bob)).containsExactly(VIEWER_ROLE);
+		assertThat(snapshot.roleIdsOf(otherAlice)).isEmpty();
+		assertThat(snapshot.findUser("default", "carol")).isNegative();
+		assertThat(snapshot.findUser("missing", "alice")).isNegative();
+	}
+
+	@Test
+	void permissionsRoundTrip() throws IOException {
+		RbacSnapshot snapshot = RbacSnapshot.open(file, true);
+		int alice = snapshot.findUser("default", "alice");
+		int bob = snapshot.findUser("default", "bob");
+		int otherAlice = snapshot.findUser("acme", "alice");
+
+		assertThat(snapshot.isGranted(alice, "read", null, null)).isTrue();
+		assertThat(snapshot.isGranted(alice, "READ", "document", "7")).isTrue();
+		assertThat(snapshot.isGranted(alice, "write", "Document", "tenant-42/doc-1")).isTrue();
+		assertThat(snapshot.isGranted(alice, "write", "document", "tenant-43/doc-1")).isFalse();
+		assertThat(snapshot.isGranted(alice, "write", null, null)).isFalse();
+		assertThat(snapshot.isGranted(alice, "delete", "document", "42")).isTrue();
+		assertThat(snapshot.isGranted(alice, "delete", "document", "420")).isFalse();
+		assertThat(snapshot.isGranted(bob, "read", null, null)).isTrue();
+		assertThat(snapshot.isGranted(bob, "write", "document", "tenant-42/doc-1")).isFalse();
+		assertThat(snapshot.isGranted(otherAlice, "read", null, null)).isFalse();
+	}
+
+	@Test
+	void corruptedFileFailsChecksum() throws IOException {
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 0x01;
+		Files.write(file, bytes);
+
+		assertThatThrownBy(() -> RbacSnapshot.open(file, true)).isInstanceOf(IOException.class);
+	}
+
+	/**
+	 * 角色与权限ID超出 int 范围；alice 持有 ADMIN（全部三项权限），bob 持有 VIEWER（只读），acme 租户的 alice 没有角色
+	 */
+	private static RbacModel model() {
+		long[] userIds = { 1, 2, 3 };
+		String[] userTenants = { "default", "default", "acme" };
+		String[] usernames = { "alice", "bob", "alice" };
+		long[] roleIds = { ADMIN_ROLE, VIEWER_ROLE };
+		String[] roleTenants = { "default", "default" };
+		String[] roleNames = { "ADMIN", "VIEWER" };
+		long[] permissionIds = { 7_000_000_000L, 7_000_000_001L, 7_000_000_002L };
+		String[] permissionTenants = { "default", "default", "default" };
+		String[] permissionNames = { "read", "write", "delete" };
+		String[] resourceTypes = { null, "document", "document" };
+		String[] resourcePatterns = { null, "tenant-42/*", "42" };
+		int[] userRoleOffsets = { 0, 1, 2, 2 };
+		int[] userRoles = { 0, 1 };
+		int[] rolePermissionOffsets = { 0, 3, 4 };
+		int[] rolePermissions = { 0, 1, 2, 0 };
+		return new RbacModel(42, 1_700_000_000_000L, userIds, userTenants, usernames, roleIds, roleTenants, roleNames,
+				permissionIds, permissionTenants, permissionNames, resourceTypes, resourcePatterns, userRoleOffsets,
+				userRoles, rolePermissionOffsets, rolePermissions);
+	}
+
+}